@@ -17,6 +17,9 @@ dependencies {
     implementation(project(":keccak-200-168"))
     implementation(project(":keccak-1600-256"))
     implementation(project(":sponge-api"))
+    implementation(project(":sponge-store"))
+    implementation(project(":sponge-jca"))
+    implementation(project(":sponge-log"))
     testImplementation(platform(libs.junit.bom))
     testImplementation(libs.junit.jupiter)
 }
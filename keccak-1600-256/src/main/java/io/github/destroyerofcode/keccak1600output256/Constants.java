@@ -23,6 +23,8 @@ public class Constants {
   public static final int r = 1088; // in bits. it is b - c
   public static final int BYTES_IN_r = r / BITS_IN_BYTE;
   public static final int LONGS_IN_r = BYTES_IN_r / BITS_IN_BYTE;
+  // streams are read in chunks of the whole blocks that fit into 64 KiB
+  public static final int STREAM_CHUNK_BYTES = (64 * 1024 / BYTES_IN_r) * BYTES_IN_r;
 
   // capacity
   public static final int c = b - r; // 512 bits
@@ -0,0 +1,34 @@
+package io.github.destroyerofcode.keccak1600output256;
+
+import io.github.destroyerofcode.api.SpongeHash;
+import io.github.destroyerofcode.chain.HashChain;
+
+/**
+ * Hash chain of Keccak-1600 digests. Every step hashes the 4 digest lanes as a single block, the
+ * same as {@link SpongeHash#hash(Object)} of the digest.
+ */
+public class HashChainKeccak1600Output256Impl extends HashChain<long[]> {
+
+  /**
+   * @param spongeHash The Keccak-1600 hash the chain is computed with.
+   * @param seed The first element of the chain, {@link Constants#OUTPUT_LENGTH_LONGS} longs.
+   * @param length The index of the last element of the chain.
+   * @param checkpointInterval The number of steps between checkpoints.
+   */
+  public HashChainKeccak1600Output256Impl(
+      final SpongeHash<long[]> spongeHash,
+      final long[] seed,
+      final long length,
+      final int checkpointInterval) {
+    super(spongeHash, seed, length, checkpointInterval, Constants.OUTPUT_LENGTH_LONGS, long[]::new);
+  }
+
+  @Override
+  protected boolean isEqual(final long[] expected, final long[] actual, final int offset) {
+    long difference = 0;
+    for (int i = 0; i < Constants.OUTPUT_LENGTH_LONGS; i++) {
+      difference |= expected[i] ^ actual[offset + i];
+    }
+    return difference == 0;
+  }
+}
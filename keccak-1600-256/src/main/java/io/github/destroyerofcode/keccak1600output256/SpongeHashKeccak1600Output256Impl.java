@@ -1,15 +1,23 @@
 package io.github.destroyerofcode.keccak1600output256;
 
-import static io.github.destroyerofcode.common.Constants.BITS_IN_BYTE;
+import static io.github.destroyerofcode.common.Constants.BYTES_IN_LONG;
 import static io.github.destroyerofcode.common.Utils.nearestGreaterMultiple;
 
 import io.github.destroyerofcode.api.SpongeHash;
 import io.github.destroyerofcode.api.SpongePermutation;
+import io.github.destroyerofcode.api.StreamDigest;
+import io.github.destroyerofcode.bulk.BulkHash;
 import io.github.destroyerofcode.exception.SpongeException;
-import java.io.DataInputStream;
+import io.github.destroyerofcode.hasher.SpongeHasher;
+import io.github.destroyerofcode.jfr.HashEvent;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
 
 /**
  * Implementation of the Keccak sponge hash function with 1600-bit state and 256-bit output. This
@@ -18,6 +26,35 @@ import java.nio.ByteBuffer;
  */
 public class SpongeHashKeccak1600Output256Impl implements SpongeHash<long[]> {
 
+  // 25 Longs, 1600 bits
+  private static final long[] INIT_STATE = {
+    1512438630783188661L,
+    8198716176144688777L,
+    1637884160694766545L,
+    1763068439375808596L,
+    3323231908170204617L,
+    631703399715668548L,
+    1530395573530499759L,
+    1483770803502517068L,
+    6746053807561825751L,
+    8289798442804673757L,
+    6229518946956962360L,
+    265492940621606881L,
+    6133650358006886469L,
+    1640423390081412490L,
+    1218238834902968216L,
+    1886528811272012332L,
+    644790174577108009L,
+    1673022507320370160L,
+    4996237436508233008L,
+    1786917405949476368L,
+    4331592739472745193L,
+    1624126196739263612L,
+    3883847296014053403L,
+    7589786689989931013L,
+    7492938352285470026L
+  };
+
   private final SpongePermutation<long[]> spongePermutation;
 
   /**
@@ -36,32 +73,72 @@ public class SpongeHashKeccak1600Output256Impl implements SpongeHash<long[]> {
    * @return The hashed output as a long array.
    */
   @Override
-  public long[] hash(long[] message) {
+  public long[] hash(final long[] message) {
+    return hash(message, 0, message.length);
+  }
+
+  /**
+   * Hashes a range of a long array. Full blocks are absorbed straight from the array and the last
+   * partial block is absorbed as if it was padded with 0s, so the message is never copied.
+   *
+   * @param message The array holding the message.
+   * @param offset The index of the first long of the message.
+   * @param length The number of longs of the message.
+   * @return The hashed output as a long array.
+   */
+  @Override
+  public long[] hash(final long[] message, final int offset, final int length) {
+    Objects.checkFromIndexSize(offset, length, message.length);
+    if (length <= Constants.LONGS_IN_r) {
+      return hashSingleBlock(message, offset, length);
+    }
+    final HashEvent event = new HashEvent();
+    event.begin();
+
     /* b is size in bits, 64 is size of Long on every architecture.
     So if b=1600, it allocates 25 Longs
-    and if r=1088, it allocated 18 Longs
     */
     final long[] state = initState();
-    final long[] messageBlock = new long[Constants.LONGS_IN_r];
-
-    message = applyPadding(message);
 
     try {
-      for (int i = 0; i < message.length; i += Constants.LONGS_IN_r) {
-        // message block is the 1088 bits (17 Longs)
-        // from the original message copy 1088 bits to the message block
-        System.arraycopy(message, i, messageBlock, 0, Constants.LONGS_IN_r);
-        absorb(state, messageBlock);
+      // message block is the 1088 bits (17 Longs)
+      for (int i = 0; i < length; i += Constants.LONGS_IN_r) {
+        absorb(state, message, offset + i, Math.min(Constants.LONGS_IN_r, length - i));
       }
 
       return squeeze(state);
     } catch (Exception e) {
       throw new SpongeException("An error has occurred when hashing: ", e);
+    } finally {
+      event.end(
+          getClass(),
+          "hash",
+          (long) length * BYTES_IN_LONG,
+          (length + Constants.LONGS_IN_r - 1) / Constants.LONGS_IN_r);
     }
   }
 
   /**
-   * Hashes the message read from an InputStream.
+   * Hashes a message of at most one block: the lanes are XORed inline into a copy of the initial
+   * state, which is permuted once, and the digest lanes are copied out. A single permutation is far
+   * below any threshold a {@link HashEvent} would be recorded at, so none is started.
+   */
+  private long[] hashSingleBlock(final long[] message, final int offset, final int length) {
+    final long[] state = INIT_STATE.clone();
+    if (length > 0) {
+      for (int i = 0; i < length; i++) {
+        state[i] ^= message[offset + i];
+      }
+      spongePermutation.permute(state);
+    }
+    final long[] digest = new long[Constants.OUTPUT_LENGTH_LONGS];
+    System.arraycopy(state, 0, digest, 0, digest.length);
+    return digest;
+  }
+
+  /**
+   * Hashes the message read from an InputStream. The stream is read in large chunks, and if it
+   * ends before messageSizeBytes bytes the missing bytes are hashed as 0s.
    *
    * @param messageStream The InputStream from which the message is read.
    * @param messageSizeBytes The size of the message in bytes.
@@ -69,41 +146,116 @@ public class SpongeHashKeccak1600Output256Impl implements SpongeHash<long[]> {
    */
   @Override
   public long[] hash(final InputStream messageStream, final int messageSizeBytes) {
-    /* b is size in bits, 64 is size of Long on every architecture.
-    So if b=1600, it allocates 25 Longs
-    */
+    final HashEvent event = new HashEvent();
+    event.begin();
+
     final long[] state = initState(); // 25 Longs, 200 Bytes, 1600 Bits
-    final DataInputStream message = new DataInputStream(messageStream);
-    final int bytesToRead = Math.min(Constants.BYTES_IN_r, messageSizeBytes);
-    long[] messageBlock = new long[Constants.LONGS_IN_r]; // 17 Longs, 136 Bytes, 1088 Bits
 
     try {
-      // message block is the 1088 bits (17 bytes)
-      // from the original message copy 1088 bits to the message block
-      for (int i = 0; messageSizeBytes > i; i += Constants.BYTES_IN_r) {
-
-        byte[] bytesRead = new byte[bytesToRead];
-        int read = message.read(bytesRead);
-
-        if (read < Constants.BYTES_IN_r) {
-          bytesRead = applyPadding(bytesRead);
-        }
+      absorbStream(state, messageStream, messageSizeBytes, true);
+      return squeeze(state);
+    } catch (IOException e) {
+      throw new SpongeException("An error has occurred when hashing: ", e);
+    } finally {
+      event.end(
+          getClass(),
+          "hashStream",
+          messageSizeBytes,
+          (messageSizeBytes + Constants.BYTES_IN_r - 1) / Constants.BYTES_IN_r);
+    }
+  }
 
-        final ByteBuffer buffer = ByteBuffer.wrap(bytesRead);
-        for (int j = 0; j < Constants.LONGS_IN_r; j++) {
-          messageBlock[j] = buffer.getLong();
-        }
+  /**
+   * Hashes the message read from an InputStream until its end.
+   *
+   * @param messageStream The InputStream from which the message is read.
+   * @return The hashed output as a long array and the number of bytes read.
+   */
+  @Override
+  public StreamDigest<long[]> hash(final InputStream messageStream) {
+    final HashEvent event = new HashEvent();
+    event.begin();
 
-        absorb(state, messageBlock);
-      }
+    final long[] state = initState(); // 25 Longs, 200 Bytes, 1600 Bits
+    long bytesRead = 0;
 
-      // returns first
-      return squeeze(state);
+    try {
+      bytesRead = absorbStream(state, messageStream, Long.MAX_VALUE, false);
+      return new StreamDigest<>(squeeze(state), bytesRead);
     } catch (IOException e) {
       throw new SpongeException("An error has occurred when hashing: ", e);
+    } finally {
+      event.end(
+          getClass(),
+          "hashStream",
+          bytesRead,
+          (bytesRead + Constants.BYTES_IN_r - 1) / Constants.BYTES_IN_r);
     }
   }
 
+  /**
+   * Hashes the UTF-8 encoding of a string. The characters are encoded straight into a block buffer
+   * which is absorbed whenever it fills, so the encoded string is never held in full.
+   *
+   * @param message The string to hash.
+   * @return The same hash as {@link #hash(InputStream)} of the UTF-8 bytes of the string.
+   */
+  public long[] hash(final CharSequence message) {
+    final HashEvent event = new HashEvent();
+    event.begin();
+
+    final SpongeHasher<long[]> hasher = newHasher().putString(message);
+    final long bytes = hasher.bytesAbsorbed();
+    try {
+      return hasher.digest();
+    } finally {
+      event.end(
+          getClass(),
+          "hashString",
+          bytes,
+          (bytes + Constants.BYTES_IN_r - 1) / Constants.BYTES_IN_r);
+    }
+  }
+
+  /**
+   * @return a new incremental hasher starting from the initial state.
+   */
+  public SpongeHasherKeccak1600Output256Impl newHasher() {
+    return new SpongeHasherKeccak1600Output256Impl(this);
+  }
+
+  /**
+   * Hashes many messages on the common {@link ForkJoinPool}, the work split by their sizes.
+   *
+   * @param messages The messages.
+   * @return the digests in one array, message i at index i times {@link
+   *     Constants#OUTPUT_LENGTH_LONGS}.
+   */
+  public long[] hashAll(final List<byte[]> messages) {
+    return bulkHash().hashAll(messages);
+  }
+
+  /**
+   * Hashes the remaining bytes of many buffers on the common {@link ForkJoinPool}. The buffer
+   * positions are not moved.
+   *
+   * @param messages The messages.
+   * @return the digests in one array, in the order of the stream.
+   */
+  public long[] hashAll(final Stream<ByteBuffer> messages) {
+    return bulkHash().hashAll(messages);
+  }
+
+  private BulkHash<long[]> bulkHash() {
+    return new BulkHash<>(
+        getClass(),
+        this::newHasher,
+        long[]::new,
+        Constants.OUTPUT_LENGTH_LONGS,
+        Constants.BYTES_IN_r,
+        ForkJoinPool.commonPool());
+  }
+
   /**
    * Applies the necessary padding to the given long array message.
    *
@@ -123,39 +275,17 @@ public class SpongeHashKeccak1600Output256Impl implements SpongeHash<long[]> {
 
   @Override
   public long[] initState() {
-    // 25 Longs, 1600 bits
-    return new long[] {
-      1512438630783188661L,
-      8198716176144688777L,
-      1637884160694766545L,
-      1763068439375808596L,
-      3323231908170204617L,
-      631703399715668548L,
-      1530395573530499759L,
-      1483770803502517068L,
-      6746053807561825751L,
-      8289798442804673757L,
-      6229518946956962360L,
-      265492940621606881L,
-      6133650358006886469L,
-      1640423390081412490L,
-      1218238834902968216L,
-      1886528811272012332L,
-      644790174577108009L,
-      1673022507320370160L,
-      4996237436508233008L,
-      1786917405949476368L,
-      4331592739472745193L,
-      1624126196739263612L,
-      3883847296014053403L,
-      7589786689989931013L,
-      7492938352285470026L
-    };
+    return INIT_STATE.clone();
   }
 
   @Override
   public void absorb(final long[] state, final long[] message) {
-    mixStateAndMessage(state, message);
+    absorb(state, message, 0, message.length);
+  }
+
+  @Override
+  public void absorb(final long[] state, final long[] message, final int offset, final int length) {
+    mixStateAndMessage(state, message, offset, Math.min(length, Constants.LONGS_IN_r));
     spongePermutation.permute(state);
   }
 
@@ -176,30 +306,59 @@ public class SpongeHashKeccak1600Output256Impl implements SpongeHash<long[]> {
 
   /**
    * mixing the message block with the current state. this methods xors first 1088 bits of the state
-   * with first 1088 bits of the message. 1088 bits because that is the length of r of the message.
+   * with 1088 bits of the message. 1088 bits because that is the length of r of the message.
    *
    * @param state The current state of the hash function.
    * @param message The message to be mixed with the state.
+   * @param offset The index of the first long of the block in the message.
+   * @param length The number of longs of the block, the rest of the rate is left as is.
    */
-  private static void mixStateAndMessage(final long[] state, final long[] message) {
-    for (int i = 0; i < message.length; i++) {
-      state[i] = message[i] ^ state[i];
+  private static void mixStateAndMessage(
+      final long[] state, final long[] message, final int offset, final int length) {
+    for (int i = 0; i < length; i++) {
+      state[i] = message[offset + i] ^ state[i];
     }
   }
 
   /**
-   * Applies padding to the given byte array message.
+   * Absorbs a stream in chunks of whole blocks. Every chunk is read into the same buffers, turned
+   * into big-endian longs and absorbed block by block. Only the last chunk can be shorter, its
+   * last long and block are padded with 0s.
    *
-   * @param message The original byte array message.
-   * @return The padded byte array message.
+   * @param state The current state of the hash function.
+   * @param message The stream to absorb.
+   * @param maxBytes The number of bytes to absorb at most.
+   * @param zeroFill Whether to absorb 0s for the bytes missing when the stream ends early.
+   * @return the number of bytes absorbed.
+   * @throws IOException If reading the stream fails.
    */
-  private static byte[] applyPadding(final byte[] message) {
-    int originalLength = message.length;
-    int paddedLength = nearestGreaterMultiple(originalLength, Constants.r / BITS_IN_BYTE); // 136
+  private long absorbStream(
+      final long[] state, final InputStream message, final long maxBytes, final boolean zeroFill)
+      throws IOException {
+    final byte[] chunk = new byte[Constants.STREAM_CHUNK_BYTES];
+    final long[] longs = new long[Constants.STREAM_CHUNK_BYTES / BYTES_IN_LONG];
+    long absorbed = 0;
 
-    final byte[] paddedMessage = new byte[paddedLength];
-    System.arraycopy(message, 0, paddedMessage, 0, originalLength);
+    while (absorbed < maxBytes) {
+      final int wanted = (int) Math.min(chunk.length, maxBytes - absorbed);
+      int read = message.readNBytes(chunk, 0, wanted);
+      if (zeroFill && read < wanted) {
+        Arrays.fill(chunk, read, wanted, (byte) 0);
+        read = wanted;
+      }
 
-    return paddedMessage;
+      final int longCount = (read + BYTES_IN_LONG - 1) / BYTES_IN_LONG;
+      Arrays.fill(chunk, read, longCount * BYTES_IN_LONG, (byte) 0);
+      ByteBuffer.wrap(chunk, 0, longCount * BYTES_IN_LONG).asLongBuffer().get(longs, 0, longCount);
+      for (int i = 0; i < longCount; i += Constants.LONGS_IN_r) {
+        absorb(state, longs, i, Math.min(Constants.LONGS_IN_r, longCount - i));
+      }
+
+      absorbed += read;
+      if (read < wanted) {
+        break;
+      }
+    }
+    return absorbed;
   }
 }
@@ -0,0 +1,68 @@
+package io.github.destroyerofcode.keccak1600output256;
+
+import static io.github.destroyerofcode.common.Constants.BYTES_IN_LONG;
+
+import io.github.destroyerofcode.api.SpongeHash;
+import io.github.destroyerofcode.hasher.SpongeHasher;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+
+/**
+ * Incremental Keccak-1600 hashing of bytes. Every block is packed into big-endian longs, the same
+ * as {@link SpongeHashKeccak1600Output256Impl#hash(java.io.InputStream)} does, so both give the
+ * same digest for the same bytes.
+ */
+public class SpongeHasherKeccak1600Output256Impl extends SpongeHasher<long[]> {
+
+  private static final VarHandle LONGS =
+      MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+
+  private final long[] lanes = new long[Constants.LONGS_IN_r];
+
+  /**
+   * @param spongeHash The Keccak-1600 hash whose states are updated.
+   */
+  public SpongeHasherKeccak1600Output256Impl(final SpongeHash<long[]> spongeHash) {
+    super(spongeHash, Constants.BYTES_IN_r);
+  }
+
+  @Override
+  protected void absorbBlock(final byte[] source, final int offset, final int length) {
+    final int fullLongs = length / BYTES_IN_LONG;
+    for (int i = 0; i < fullLongs; i++) {
+      lanes[i] = (long) LONGS.get(source, offset + i * BYTES_IN_LONG);
+    }
+    int longCount = fullLongs;
+    if (length % BYTES_IN_LONG != 0) {
+      long last = 0;
+      for (int i = fullLongs * BYTES_IN_LONG; i < length; i++) {
+        last |= (source[offset + i] & 0xFFL) << (BYTES_IN_LONG - 1 - i % BYTES_IN_LONG) * 8;
+      }
+      lanes[longCount++] = last;
+    }
+    spongeHash.absorb(state, lanes, 0, longCount);
+  }
+
+  @Override
+  protected void copyDigest(final long[] out, final int offset) {
+    System.arraycopy(state, 0, out, offset, Constants.OUTPUT_LENGTH_LONGS);
+  }
+
+  @Override
+  protected void writeState(final DataOutput out) throws IOException {
+    for (final long lane : state) {
+      out.writeLong(lane);
+    }
+  }
+
+  @Override
+  protected void readState(final DataInput in) throws IOException {
+    for (int i = 0; i < Constants.STATE_LONG_LENGTH; i++) {
+      state[i] = in.readLong();
+    }
+  }
+}
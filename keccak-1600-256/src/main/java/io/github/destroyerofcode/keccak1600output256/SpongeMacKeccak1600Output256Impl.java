@@ -0,0 +1,46 @@
+package io.github.destroyerofcode.keccak1600output256;
+
+import io.github.destroyerofcode.api.SpongeHash;
+import io.github.destroyerofcode.mac.SpongeMac;
+
+/**
+ * Keyed message authentication with Keccak-1600 and 256-bit tags. Keys, messages and tags are long
+ * arrays. A length is written as the last long of the rate.
+ */
+public class SpongeMacKeccak1600Output256Impl extends SpongeMac<long[]> {
+
+  /**
+   * Constructs a MAC caching the states of up to {@link #DEFAULT_MAX_CACHED_KEYS} keys.
+   *
+   * @param spongeHash The Keccak-1600 hash the tags are computed with.
+   */
+  public SpongeMacKeccak1600Output256Impl(final SpongeHash<long[]> spongeHash) {
+    this(spongeHash, DEFAULT_MAX_CACHED_KEYS);
+  }
+
+  /**
+   * @param spongeHash The Keccak-1600 hash the tags are computed with.
+   * @param maxCachedKeys The number of keys whose absorbed states are cached.
+   */
+  public SpongeMacKeccak1600Output256Impl(
+      final SpongeHash<long[]> spongeHash, final int maxCachedKeys) {
+    super(spongeHash, Constants.LONGS_IN_r, 1, maxCachedKeys);
+  }
+
+  @Override
+  protected void putLength(final long[] block, final int offset, final int length) {
+    block[offset] = length;
+  }
+
+  @Override
+  protected boolean isEqual(final long[] expected, final long[] actual) {
+    if (expected.length != actual.length) {
+      return false;
+    }
+    long difference = 0;
+    for (int i = 0; i < expected.length; i++) {
+      difference |= expected[i] ^ actual[i];
+    }
+    return difference == 0;
+  }
+}
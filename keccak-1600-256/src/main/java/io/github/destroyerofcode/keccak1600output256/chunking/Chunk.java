@@ -0,0 +1,74 @@
+package io.github.destroyerofcode.keccak1600output256.chunking;
+
+import java.util.Arrays;
+
+/**
+ * A single content-defined chunk of a larger message: the position of the chunk in the message and
+ * the Keccak-1600 digest of its bytes.
+ */
+public final class Chunk {
+
+  private final long offset;
+  private final int length;
+  private final long[] digest;
+
+  /**
+   * Constructs a new Chunk instance.
+   *
+   * @param offset The position of the first byte of the chunk in the message.
+   * @param length The number of bytes in the chunk.
+   * @param digest The digest of the chunk bytes.
+   */
+  public Chunk(final long offset, final int length, final long[] digest) {
+    this.offset = offset;
+    this.length = length;
+    this.digest = digest.clone();
+  }
+
+  public long offset() {
+    return offset;
+  }
+
+  public int length() {
+    return length;
+  }
+
+  /**
+   * @return a copy of the digest of the chunk bytes.
+   */
+  public long[] digest() {
+    return digest.clone();
+  }
+
+  /**
+   * Compares the digests of two chunks regardless of their position in the message.
+   *
+   * @param other The chunk to compare with.
+   * @return true if both chunks carry the same content.
+   */
+  public boolean hasSameContent(final Chunk other) {
+    return length == other.length && Arrays.equals(digest, other.digest);
+  }
+
+  @Override
+  public boolean equals(final Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof Chunk)) {
+      return false;
+    }
+    final Chunk chunk = (Chunk) o;
+    return offset == chunk.offset && hasSameContent(chunk);
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * (31 * Long.hashCode(offset) + length) + Arrays.hashCode(digest);
+  }
+
+  @Override
+  public String toString() {
+    return String.format("Chunk[offset=%d, length=%d]", offset, length);
+  }
+}
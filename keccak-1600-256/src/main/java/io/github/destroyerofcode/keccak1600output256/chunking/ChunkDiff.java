@@ -0,0 +1,90 @@
+package io.github.destroyerofcode.keccak1600output256.chunking;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The difference between an old (base) and a new (target) version of a message, expressed in
+ * chunks. Every chunk of the target is either already present somewhere in the base, in which case
+ * it can be copied locally by the receiver, or it has changed and has to be transferred.
+ */
+public final class ChunkDiff {
+
+  /**
+   * A target chunk whose content is already present in the base.
+   *
+   * @param target The chunk of the new version.
+   * @param baseOffset The position of the same content in the old version.
+   */
+  public record Reuse(Chunk target, long baseOffset) {}
+
+  private final List<Reuse> reused;
+  private final List<Chunk> changed;
+
+  private ChunkDiff(final List<Reuse> reused, final List<Chunk> changed) {
+    this.reused = Collections.unmodifiableList(reused);
+    this.changed = Collections.unmodifiableList(changed);
+  }
+
+  /**
+   * Compares two chunk lists by chunk content.
+   *
+   * @param base The chunks of the version the receiver already has.
+   * @param target The chunks of the version the receiver needs.
+   * @return the diff, with chunks in target order.
+   */
+  public static ChunkDiff compare(final ChunkList base, final ChunkList target) {
+    final Map<ContentKey, Long> baseOffsets = new HashMap<>(base.size() * 2);
+    for (int i = 0; i < base.size(); i++) {
+      baseOffsets.putIfAbsent(new ContentKey(base.length(i), base.digest(i)), base.offset(i));
+    }
+
+    final List<Reuse> reused = new ArrayList<>();
+    final List<Chunk> changed = new ArrayList<>();
+    for (final Chunk chunk : target) {
+      final Long baseOffset = baseOffsets.get(new ContentKey(chunk.length(), chunk.digest()));
+      if (baseOffset == null) {
+        changed.add(chunk);
+      } else {
+        reused.add(new Reuse(chunk, baseOffset));
+      }
+    }
+    return new ChunkDiff(reused, changed);
+  }
+
+  public List<Reuse> reused() {
+    return reused;
+  }
+
+  /**
+   * @return the target chunks that have no counterpart in the base and must be transferred.
+   */
+  public List<Chunk> changed() {
+    return changed;
+  }
+
+  /**
+   * @return the number of bytes that have to be transferred to rebuild the target.
+   */
+  public long bytesToTransfer() {
+    long bytes = 0;
+    for (final Chunk chunk : changed) {
+      bytes += chunk.length();
+    }
+    return bytes;
+  }
+
+  public boolean hasChanges() {
+    return !changed.isEmpty();
+  }
+
+  /** Hash map key of a chunk content. The digest lanes are already well mixed. */
+  private record ContentKey(int length, long d0, long d1, long d2, long d3) {
+    ContentKey(final int length, final long[] digest) {
+      this(length, digest[0], digest[1], digest[2], digest[3]);
+    }
+  }
+}
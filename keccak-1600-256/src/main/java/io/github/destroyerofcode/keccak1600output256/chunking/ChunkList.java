@@ -0,0 +1,124 @@
+package io.github.destroyerofcode.keccak1600output256.chunking;
+
+import static io.github.destroyerofcode.keccak1600output256.Constants.OUTPUT_LENGTH_LONGS;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Compact, immutable list of the chunks of a message. Offsets, lengths and digests are kept in
+ * primitive arrays, so a list of millions of chunks costs 8 + 4 + 32 bytes per chunk instead of an
+ * object per chunk. {@link Chunk} views are created on demand.
+ */
+public final class ChunkList implements Iterable<Chunk> {
+
+  private final long[] offsets;
+  private final int[] lengths;
+  // OUTPUT_LENGTH_LONGS digest longs per chunk, one after another
+  private final long[] digests;
+  private final int size;
+
+  private ChunkList(final long[] offsets, final int[] lengths, final long[] digests, final int size) {
+    this.offsets = offsets;
+    this.lengths = lengths;
+    this.digests = digests;
+    this.size = size;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  /**
+   * @return the sum of the lengths of all chunks, which is the length of the chunked message.
+   */
+  public long totalLength() {
+    return size == 0 ? 0 : offsets[size - 1] + lengths[size - 1];
+  }
+
+  public long offset(final int index) {
+    return offsets[checkIndex(index)];
+  }
+
+  public int length(final int index) {
+    return lengths[checkIndex(index)];
+  }
+
+  /**
+   * @param index The index of the chunk.
+   * @return a copy of the digest of the chunk at the given index.
+   */
+  public long[] digest(final int index) {
+    final int from = checkIndex(index) * OUTPUT_LENGTH_LONGS;
+    return Arrays.copyOfRange(digests, from, from + OUTPUT_LENGTH_LONGS);
+  }
+
+  public Chunk get(final int index) {
+    return new Chunk(offset(index), length(index), digest(index));
+  }
+
+  @Override
+  public Iterator<Chunk> iterator() {
+    return new Iterator<>() {
+      private int next = 0;
+
+      @Override
+      public boolean hasNext() {
+        return next < size;
+      }
+
+      @Override
+      public Chunk next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        return get(next++);
+      }
+    };
+  }
+
+  private int checkIndex(final int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Chunk index " + index + " out of bounds: " + size);
+    }
+    return index;
+  }
+
+  /** Appends chunks in message order and freezes them into a {@link ChunkList}. */
+  public static final class Builder {
+    private long[] offsets = new long[16];
+    private int[] lengths = new int[16];
+    private long[] digests = new long[16 * OUTPUT_LENGTH_LONGS];
+    private int size = 0;
+
+    /**
+     * Appends a chunk to the end of the list.
+     *
+     * @param offset The position of the chunk in the message.
+     * @param length The number of bytes in the chunk.
+     * @param digest The digest of the chunk, at least {@code OUTPUT_LENGTH_LONGS} long.
+     * @return this builder.
+     */
+    public Builder add(final long offset, final int length, final long[] digest) {
+      if (size == offsets.length) {
+        offsets = Arrays.copyOf(offsets, size * 2);
+        lengths = Arrays.copyOf(lengths, size * 2);
+        digests = Arrays.copyOf(digests, size * 2 * OUTPUT_LENGTH_LONGS);
+      }
+      offsets[size] = offset;
+      lengths[size] = length;
+      System.arraycopy(digest, 0, digests, size * OUTPUT_LENGTH_LONGS, OUTPUT_LENGTH_LONGS);
+      size++;
+      return this;
+    }
+
+    public ChunkList build() {
+      return new ChunkList(
+          Arrays.copyOf(offsets, size),
+          Arrays.copyOf(lengths, size),
+          Arrays.copyOf(digests, size * OUTPUT_LENGTH_LONGS),
+          size);
+    }
+  }
+}
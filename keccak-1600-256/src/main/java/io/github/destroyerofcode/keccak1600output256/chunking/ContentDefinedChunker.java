@@ -0,0 +1,212 @@
+package io.github.destroyerofcode.keccak1600output256.chunking;
+
+import static io.github.destroyerofcode.common.Constants.BITS_IN_LONG;
+import static io.github.destroyerofcode.common.Utils.bytesToLongs;
+
+import io.github.destroyerofcode.api.SpongeHash;
+import io.github.destroyerofcode.exception.SpongeException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Splits a message into variable-size chunks whose boundaries depend only on the content around
+ * them (content-defined chunking), and hashes every chunk with the Keccak-1600 sponge. Inserting or
+ * removing bytes therefore only changes the chunks around the edit, and two versions of a file can
+ * be compared chunk by chunk with {@link ChunkDiff}.
+ *
+ * <p>Boundaries are found with a gear rolling hash: for every byte the hash is shifted left by one
+ * bit and a pseudo-random value from the gear table is added, so the hash depends only on the last
+ * 64 bytes. A boundary is cut when the top bits selected by the average chunk size are all zero,
+ * but never before the minimum and always at the maximum chunk size.
+ *
+ * <p>Chunk digests are computed on the given executor while the boundary detection continues over
+ * the stream. At most {@code maxChunksInFlight} chunks are buffered at any time.
+ */
+public class ContentDefinedChunker {
+
+  public static final int DEFAULT_MIN_CHUNK_SIZE = 2 * 1024;
+  public static final int DEFAULT_AVERAGE_CHUNK_SIZE = 8 * 1024;
+  public static final int DEFAULT_MAX_CHUNK_SIZE = 64 * 1024;
+
+  // the gear table must be the same on every site, so it is generated from a fixed seed
+  private static final long GEAR_SEED = 0x4B656363616B4344L;
+  private static final long[] GEAR = new long[256];
+
+  static {
+    final SplittableRandom random = new SplittableRandom(GEAR_SEED);
+    for (int i = 0; i < GEAR.length; i++) {
+      GEAR[i] = random.nextLong();
+    }
+  }
+
+  private final SpongeHash<long[]> spongeHash;
+  private final int minChunkSize;
+  private final int maxChunkSize;
+  private final long boundaryMask;
+  private final Executor executor;
+  private final int maxChunksInFlight;
+
+  /**
+   * Constructs a chunker with the default chunk sizes hashing on the common fork join pool.
+   *
+   * @param spongeHash The Keccak-1600 hash used for the chunk digests.
+   */
+  public ContentDefinedChunker(final SpongeHash<long[]> spongeHash) {
+    this(
+        spongeHash,
+        DEFAULT_MIN_CHUNK_SIZE,
+        DEFAULT_AVERAGE_CHUNK_SIZE,
+        DEFAULT_MAX_CHUNK_SIZE,
+        ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Constructs a new ContentDefinedChunker instance.
+   *
+   * @param spongeHash The Keccak-1600 hash used for the chunk digests.
+   * @param minChunkSize No boundary is cut before this many bytes.
+   * @param averageChunkSize The expected chunk size, must be a power of 2.
+   * @param maxChunkSize A boundary is always cut at this many bytes.
+   * @param executor The executor on which the chunk digests are computed.
+   * @throws IllegalArgumentException If the sizes are not ordered or the average is not a power of
+   *     2.
+   */
+  public ContentDefinedChunker(
+      final SpongeHash<long[]> spongeHash,
+      final int minChunkSize,
+      final int averageChunkSize,
+      final int maxChunkSize,
+      final Executor executor) {
+    if (minChunkSize <= 0 || minChunkSize > averageChunkSize || averageChunkSize > maxChunkSize) {
+      throw new IllegalArgumentException(
+          "Chunk sizes must satisfy 0 < min <= average <= max, got "
+              + minChunkSize
+              + ", "
+              + averageChunkSize
+              + ", "
+              + maxChunkSize);
+    }
+    if (Integer.bitCount(averageChunkSize) != 1) {
+      throw new IllegalArgumentException("Average chunk size must be a power of 2.");
+    }
+    this.spongeHash = spongeHash;
+    this.minChunkSize = minChunkSize;
+    this.maxChunkSize = maxChunkSize;
+    // the low bits of a gear hash only depend on the last few bytes, so the top bits are tested
+    final int maskBits = Integer.numberOfTrailingZeros(averageChunkSize);
+    this.boundaryMask = maskBits == 0 ? 0 : -1L << (BITS_IN_LONG - maskBits);
+    this.executor = executor;
+    this.maxChunksInFlight = Math.max(2, 2 * Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * Chunks and hashes the content of a file.
+   *
+   * @param file The file to chunk.
+   * @return the chunks of the file in file order.
+   * @throws SpongeException If an I/O error occurs.
+   */
+  public ChunkList chunk(final Path file) {
+    try (final InputStream in = Files.newInputStream(file)) {
+      return chunk(in);
+    } catch (IOException e) {
+      throw new SpongeException("An error has occurred when chunking: ", e);
+    }
+  }
+
+  /**
+   * Chunks and hashes a stream until its end. The stream is not closed.
+   *
+   * @param in The stream to chunk.
+   * @return the chunks of the stream in stream order.
+   * @throws SpongeException If an I/O error occurs or a chunk digest fails.
+   */
+  public ChunkList chunk(final InputStream in) {
+    final ChunkList.Builder chunks = new ChunkList.Builder();
+    final Deque<PendingChunk> pending = new ArrayDeque<>();
+
+    byte[] buffer = new byte[maxChunkSize];
+    int filled = 0;
+    int scanned = 0;
+    long hash = 0;
+    long chunkOffset = 0;
+
+    try {
+      while (true) {
+        final int read = in.read(buffer, filled, maxChunkSize - filled);
+        if (read < 0) {
+          break;
+        }
+        filled += read;
+
+        // bytes older than 64 positions are shifted out of the gear hash, so hashing can start
+        // just before the minimum chunk size without changing the boundaries
+        if (scanned < minChunkSize - BITS_IN_LONG) {
+          scanned = Math.min(filled, minChunkSize - BITS_IN_LONG);
+        }
+
+        while (scanned < filled) {
+          hash = (hash << 1) + GEAR[buffer[scanned++] & 0xFF];
+          if ((scanned >= minChunkSize && (hash & boundaryMask) == 0)
+              || scanned == maxChunkSize) {
+            submit(pending, chunks, buffer, chunkOffset, scanned);
+            chunkOffset += scanned;
+
+            final byte[] next = new byte[maxChunkSize];
+            System.arraycopy(buffer, scanned, next, 0, filled - scanned);
+            buffer = next;
+            filled -= scanned;
+            scanned = Math.min(filled, Math.max(0, minChunkSize - BITS_IN_LONG));
+            hash = 0;
+          }
+        }
+      }
+
+      if (filled > 0) {
+        submit(pending, chunks, buffer, chunkOffset, filled);
+      }
+      while (!pending.isEmpty()) {
+        complete(pending.poll(), chunks);
+      }
+      return chunks.build();
+    } catch (IOException e) {
+      throw new SpongeException("An error has occurred when chunking: ", e);
+    }
+  }
+
+  private void submit(
+      final Deque<PendingChunk> pending,
+      final ChunkList.Builder chunks,
+      final byte[] bytes,
+      final long offset,
+      final int length) {
+    if (pending.size() >= maxChunksInFlight) {
+      complete(pending.poll(), chunks);
+    }
+    pending.add(
+        new PendingChunk(
+            offset,
+            length,
+            CompletableFuture.supplyAsync(
+                () -> spongeHash.hash(bytesToLongs(bytes, 0, length)), executor)));
+  }
+
+  private static void complete(final PendingChunk chunk, final ChunkList.Builder chunks) {
+    try {
+      chunks.add(chunk.offset(), chunk.length(), chunk.digest().join());
+    } catch (CompletionException e) {
+      throw new SpongeException("An error has occurred when hashing a chunk: ", e.getCause());
+    }
+  }
+
+  private record PendingChunk(long offset, int length, CompletableFuture<long[]> digest) {}
+}
@@ -0,0 +1,289 @@
+package io.github.destroyerofcode.keccak1600output256.duplex;
+
+import static io.github.destroyerofcode.common.Constants.BITS_IN_BYTE;
+import static io.github.destroyerofcode.common.Constants.BYTES_IN_LONG;
+
+import io.github.destroyerofcode.api.SpongePermutation;
+import io.github.destroyerofcode.keccak1600output256.Constants;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.security.MessageDigest;
+
+/**
+ * Authenticated encryption with a Keccak-1600 duplex, in the style of SpongeWrap. Every payload
+ * byte is encrypted with the rate of the state and absorbed into it in the same pass, so the data
+ * is read once to encrypt and authenticate it, instead of once per primitive.
+ *
+ * <p>A wrap absorbs the key, then the nonce, then optional associated data, then encrypts or
+ * decrypts the payload and finally squeezes a 256-bit tag. Each phase is fed in any number of
+ * calls, so payloads of any length are streamed through the same instance, and the payload is
+ * processed in place.
+ *
+ * <p>Of the 136 rate bytes, each block carries up to 134 data bytes. The last 2 bytes frame the
+ * block with the number of data bytes and the phase, flagged on the last block of a phase, so
+ * inputs that only differ in trailing 0s or in how they are split between phases give different
+ * tags. The state starts at 0s, the key is the first thing absorbed.
+ *
+ * <p>A nonce must never be reused with the same key. Decryption releases the plaintext before the
+ * tag is checked, callers must discard it if {@link #verifyTag(byte[])} fails. Instances are not
+ * thread-safe.
+ */
+public final class SpongeWrap {
+
+  public static final int TAG_LENGTH_BYTES = Constants.OUTPUT_LENGTH_BYTES;
+
+  // the last 2 bytes of the rate hold the data byte count and the phase of the block
+  static final int DATA_BYTES = Constants.BYTES_IN_r - 2;
+  private static final int FRAME_LANE = Constants.LONGS_IN_r - 1;
+  private static final int FULL_LANES = DATA_BYTES / BYTES_IN_LONG;
+
+  private static final int KEY = 1;
+  private static final int NONCE = 2;
+  private static final int ASSOCIATED_DATA = 3;
+  private static final int PAYLOAD = 4;
+  private static final int DONE = 5;
+  private static final int LAST_BLOCK = 0x80;
+
+  private static final VarHandle LONGS =
+      MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+
+  private final SpongePermutation<long[]> spongePermutation;
+  private final boolean decrypting;
+  private final long[] state = new long[Constants.STATE_LONG_LENGTH];
+  private int phase;
+  private long phaseBytes;
+  private int position;
+
+  private SpongeWrap(
+      final SpongePermutation<long[]> spongePermutation,
+      final boolean decrypting,
+      final byte[] key,
+      final byte[] nonce) {
+    if (key.length == 0) {
+      throw new IllegalArgumentException("The key must not be empty.");
+    }
+    this.spongePermutation = spongePermutation;
+    this.decrypting = decrypting;
+    startPhase(KEY);
+    duplex(key, 0, key.length, false);
+    endPhase();
+    startPhase(NONCE);
+    duplex(nonce, 0, nonce.length, false);
+    endPhase();
+    startPhase(ASSOCIATED_DATA);
+  }
+
+  /**
+   * Starts sealing a message.
+   *
+   * @param spongePermutation The Keccak-1600 permutation.
+   * @param key The secret key, at least 16 bytes are recommended.
+   * @param nonce A value never used before with this key.
+   * @return a wrap encrypting the payload.
+   */
+  public static SpongeWrap encrypting(
+      final SpongePermutation<long[]> spongePermutation, final byte[] key, final byte[] nonce) {
+    return new SpongeWrap(spongePermutation, false, key, nonce);
+  }
+
+  /**
+   * Starts opening a sealed message.
+   *
+   * @param spongePermutation The Keccak-1600 permutation.
+   * @param key The secret key the message was sealed with.
+   * @param nonce The nonce the message was sealed with.
+   * @return a wrap decrypting the payload.
+   */
+  public static SpongeWrap decrypting(
+      final SpongePermutation<long[]> spongePermutation, final byte[] key, final byte[] nonce) {
+    return new SpongeWrap(spongePermutation, true, key, nonce);
+  }
+
+  /**
+   * Authenticates associated data without encrypting it. Must be called before the payload.
+   *
+   * @param data The array holding the data.
+   * @param offset The index of the first byte.
+   * @param length The number of bytes.
+   * @throws IllegalStateException If payload was already processed.
+   */
+  public void associatedData(final byte[] data, final int offset, final int length) {
+    checkPhase(ASSOCIATED_DATA);
+    duplex(data, offset, length, false);
+  }
+
+  /**
+   * Encrypts or decrypts a range of the payload in place.
+   *
+   * @param data The array holding the payload.
+   * @param offset The index of the first byte.
+   * @param length The number of bytes.
+   * @throws IllegalStateException If the tag was already squeezed.
+   */
+  public void process(final byte[] data, final int offset, final int length) {
+    enterPayload();
+    duplex(data, offset, length, true);
+  }
+
+  /**
+   * Encrypts or decrypts the remaining bytes of a buffer in place and moves its position to its
+   * limit.
+   *
+   * @param data The payload, from position to limit.
+   * @throws IllegalStateException If the tag was already squeezed.
+   */
+  public void process(final ByteBuffer data) {
+    enterPayload();
+    if (data.hasArray()) {
+      duplex(data.array(), data.arrayOffset() + data.position(), data.remaining(), true);
+    } else {
+      duplex(data.duplicate().order(ByteOrder.BIG_ENDIAN), data.position(), data.limit());
+    }
+    data.position(data.limit());
+  }
+
+  /**
+   * Ends sealing and squeezes the tag.
+   *
+   * @return the 32-byte tag to send along the ciphertext.
+   * @throws IllegalStateException If the tag was already squeezed or the wrap is decrypting.
+   */
+  public byte[] tag() {
+    if (decrypting) {
+      throw new IllegalStateException("A decrypting wrap verifies the tag.");
+    }
+    return finish();
+  }
+
+  /**
+   * Ends opening and checks the tag in constant time.
+   *
+   * @param tag The tag received with the ciphertext.
+   * @return true if the ciphertext, the associated data and the nonce are authentic.
+   * @throws IllegalStateException If the tag was already checked or the wrap is encrypting.
+   */
+  public boolean verifyTag(final byte[] tag) {
+    if (!decrypting) {
+      throw new IllegalStateException("An encrypting wrap squeezes the tag.");
+    }
+    return MessageDigest.isEqual(finish(), tag);
+  }
+
+  private byte[] finish() {
+    enterPayload();
+    endPhase();
+    phase = DONE;
+    final byte[] tag = new byte[TAG_LENGTH_BYTES];
+    for (int i = 0; i < TAG_LENGTH_BYTES; i += BYTES_IN_LONG) {
+      LONGS.set(tag, i, state[i / BYTES_IN_LONG]);
+    }
+    return tag;
+  }
+
+  private void checkPhase(final int expected) {
+    if (phase != expected) {
+      throw new IllegalStateException(
+          phase == DONE ? "The tag was already squeezed." : "The payload was already processed.");
+    }
+  }
+
+  private void enterPayload() {
+    if (phase == ASSOCIATED_DATA) {
+      // no associated data needs no block, the payload phase tells both cases apart
+      if (phaseBytes > 0) {
+        endPhase();
+      }
+      startPhase(PAYLOAD);
+    }
+    checkPhase(PAYLOAD);
+  }
+
+  private void startPhase(final int nextPhase) {
+    phase = nextPhase;
+    phaseBytes = 0;
+  }
+
+  private void endPhase() {
+    frameAndPermute(LAST_BLOCK);
+  }
+
+  private void frameAndPermute(final int flags) {
+    state[FRAME_LANE] ^= ((long) position << BITS_IN_BYTE) | phase | flags;
+    spongePermutation.permute(state);
+    position = 0;
+  }
+
+  /** Permutes a full block once more data follows it, so the last block can still be flagged. */
+  private void nextBlockIfFull() {
+    if (position == DATA_BYTES) {
+      frameAndPermute(0);
+    }
+  }
+
+  /**
+   * Absorbs bytes into the rate and, when output is set, replaces them with the rate XOR them.
+   * Whole lanes are handled a long at a time.
+   */
+  private void duplex(final byte[] data, final int offset, final int length, final boolean output) {
+    phaseBytes += length;
+    final int end = offset + length;
+    int i = offset;
+    while (i < end) {
+      nextBlockIfFull();
+      if ((position & (BYTES_IN_LONG - 1)) == 0
+          && position < FULL_LANES * BYTES_IN_LONG
+          && end - i >= BYTES_IN_LONG) {
+        final int lane = position / BYTES_IN_LONG;
+        final long in = (long) LONGS.get(data, i);
+        final long out = in ^ state[lane];
+        state[lane] ^= decrypting && output ? out : in;
+        if (output) {
+          LONGS.set(data, i, out);
+        }
+        position += BYTES_IN_LONG;
+        i += BYTES_IN_LONG;
+      } else {
+        final int out = duplexByte(data[i], output);
+        if (output) {
+          data[i] = (byte) out;
+        }
+        i++;
+      }
+    }
+  }
+
+  /** The same as {@link #duplex(byte[], int, int, boolean)} on a buffer without an array. */
+  private void duplex(final ByteBuffer data, final int start, final int end) {
+    phaseBytes += end - start;
+    int i = start;
+    while (i < end) {
+      nextBlockIfFull();
+      if ((position & (BYTES_IN_LONG - 1)) == 0
+          && position < FULL_LANES * BYTES_IN_LONG
+          && end - i >= BYTES_IN_LONG) {
+        final int lane = position / BYTES_IN_LONG;
+        final long in = data.getLong(i);
+        final long out = in ^ state[lane];
+        state[lane] ^= decrypting ? out : in;
+        data.putLong(i, out);
+        position += BYTES_IN_LONG;
+        i += BYTES_IN_LONG;
+      } else {
+        data.put(i, (byte) duplexByte(data.get(i), true));
+        i++;
+      }
+    }
+  }
+
+  private int duplexByte(final byte in, final boolean output) {
+    final int lane = position / BYTES_IN_LONG;
+    final int shift = (BYTES_IN_LONG - 1 - position % BYTES_IN_LONG) * BITS_IN_BYTE;
+    final int out = (in ^ (int) (state[lane] >>> shift)) & 0xFF;
+    final int plain = decrypting && output ? out : in & 0xFF;
+    state[lane] ^= (long) plain << shift;
+    position++;
+    return out;
+  }
+}
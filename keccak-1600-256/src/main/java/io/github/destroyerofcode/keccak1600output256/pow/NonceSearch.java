@@ -0,0 +1,221 @@
+package io.github.destroyerofcode.keccak1600output256.pow;
+
+import static io.github.destroyerofcode.common.Constants.BITS_IN_BYTE;
+import static io.github.destroyerofcode.common.Constants.BITS_IN_LONG;
+import static io.github.destroyerofcode.common.Constants.BYTES_IN_LONG;
+
+import io.github.destroyerofcode.common.Utils;
+import io.github.destroyerofcode.exception.SpongeException;
+import io.github.destroyerofcode.keccak1600output256.Constants;
+import io.github.destroyerofcode.keccak1600output256.SpongeHashKeccak1600Output256Impl;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Multi-threaded proof-of-work search: finds a nonce such that the Keccak-1600 digest of prefix ||
+ * nonce, the nonce being 8 big-endian bytes, starts with a given number of 0 bits. The digest is
+ * the same as the stream hash of those bytes, which {@link #verify} recomputes.
+ *
+ * <p>The whole blocks of the prefix are absorbed once. Every worker copies that state and tries
+ * its share of the nonces by XORing the rest of the prefix and the nonce into the last block or
+ * blocks, permuting and testing the leading bits straight on the first lanes, without allocating.
+ * The first worker to succeed stops the others.
+ */
+public final class NonceSearch implements AutoCloseable {
+
+  private final SpongeHashKeccak1600Output256Impl spongeHash;
+  private final int workers;
+  private final ExecutorService executor;
+
+  /**
+   * @param spongeHash The Keccak-1600 hash the digests are computed with.
+   * @param workers The number of threads searching in parallel.
+   */
+  public NonceSearch(final SpongeHashKeccak1600Output256Impl spongeHash, final int workers) {
+    if (workers <= 0) {
+      throw new IllegalArgumentException("Workers must be greater than 0.");
+    }
+    this.spongeHash = spongeHash;
+    this.workers = workers;
+    this.executor =
+        Executors.newFixedThreadPool(
+            workers,
+            task -> {
+              final Thread thread = new Thread(task, "nonce-search");
+              thread.setDaemon(true);
+              return thread;
+            });
+  }
+
+  /**
+   * Searches all nonces from 0 until one is found.
+   *
+   * @see #search(byte[], int, long, long)
+   */
+  public OptionalLong search(final byte[] prefix, final int leadingZeroBits) {
+    return search(prefix, leadingZeroBits, 0, Long.MAX_VALUE);
+  }
+
+  /**
+   * Searches a range of nonces. Worker w tries the nonces firstNonce + w, firstNonce + w + workers
+   * and so on, so the nonce found is not necessarily the smallest one of the range.
+   *
+   * @param prefix The bytes preceding the nonce.
+   * @param leadingZeroBits The number of leading 0 bits of the digest, at most 256.
+   * @param firstNonce The first nonce of the range.
+   * @param attempts The number of nonces of the range.
+   * @return a nonce of the range satisfying the target, or empty if there is none.
+   * @throws IllegalArgumentException If attempts is negative or the range goes past {@link
+   *     Long#MAX_VALUE}.
+   * @throws IllegalStateException If the search is closed.
+   * @throws SpongeException If the search is interrupted.
+   */
+  public OptionalLong search(
+      final byte[] prefix, final int leadingZeroBits, final long firstNonce, final long attempts) {
+    checkTarget(leadingZeroBits);
+    if (attempts < 0) {
+      throw new IllegalArgumentException("Attempts must not be negative.");
+    }
+    if (firstNonce > Long.MAX_VALUE - attempts) {
+      throw new IllegalArgumentException("The nonce range must end at Long.MAX_VALUE at most.");
+    }
+    if (executor.isShutdown()) {
+      throw new IllegalStateException("The nonce search is closed.");
+    }
+    final Template template = new Template(prefix);
+    final AtomicBoolean found = new AtomicBoolean();
+    final List<Future<OptionalLong>> results = new ArrayList<>(workers);
+    try {
+      for (int w = 0; w < workers; w++) {
+        final int worker = w;
+        results.add(
+            executor.submit(
+                () ->
+                    template.search(
+                        leadingZeroBits, firstNonce, worker, workers, attempts, found)));
+      }
+    } catch (RejectedExecutionException e) {
+      found.set(true);
+      throw new IllegalStateException("The nonce search is closed.", e);
+    }
+
+    OptionalLong nonce = OptionalLong.empty();
+    try {
+      for (final Future<OptionalLong> result : results) {
+        final OptionalLong workerNonce = result.get();
+        if (nonce.isEmpty()) {
+          nonce = workerNonce;
+        }
+      }
+    } catch (InterruptedException e) {
+      found.set(true);
+      Thread.currentThread().interrupt();
+      throw new SpongeException("Interrupted when searching a nonce: ", e);
+    } catch (ExecutionException e) {
+      found.set(true);
+      throw new SpongeException("An error has occurred when searching a nonce: ", e.getCause());
+    }
+    return nonce;
+  }
+
+  /**
+   * Checks a nonce by hashing prefix || nonce from scratch.
+   *
+   * @param prefix The bytes preceding the nonce.
+   * @param nonce The nonce.
+   * @param leadingZeroBits The number of leading 0 bits of the digest, at most 256.
+   * @return true if the digest starts with that many 0 bits.
+   */
+  public boolean verify(final byte[] prefix, final long nonce, final int leadingZeroBits) {
+    checkTarget(leadingZeroBits);
+    final long[] digest = spongeHash.newHasher().putBytes(prefix).putLong(nonce).digest();
+    return hasLeadingZeroBits(digest, leadingZeroBits);
+  }
+
+  /** Stops the worker threads. Searches started afterwards fail. */
+  @Override
+  public void close() {
+    executor.shutdownNow();
+  }
+
+  static boolean hasLeadingZeroBits(final long[] lanes, final int bits) {
+    int remaining = bits;
+    int i = 0;
+    for (; remaining >= BITS_IN_LONG; remaining -= BITS_IN_LONG) {
+      if (lanes[i++] != 0) {
+        return false;
+      }
+    }
+    return remaining == 0 || Long.numberOfLeadingZeros(lanes[i]) >= remaining;
+  }
+
+  private static void checkTarget(final int leadingZeroBits) {
+    if (leadingZeroBits < 0 || leadingZeroBits > Constants.OUTPUT_LENGTH_BITS) {
+      throw new IllegalArgumentException(
+          "Leading zero bits must be between 0 and " + Constants.OUTPUT_LENGTH_BITS + ".");
+    }
+  }
+
+  /** The state after the whole blocks of the prefix and the lanes of the rest of the prefix. */
+  private final class Template {
+    private final long[] prefixState;
+    private final long[] tailLanes;
+    private final int nonceOffset;
+    private final int blocks;
+
+    private Template(final byte[] prefix) {
+      final int aligned = prefix.length - prefix.length % Constants.BYTES_IN_r;
+      prefixState = spongeHash.initState();
+      final long[] prefixLanes = Utils.bytesToLongs(prefix, 0, aligned);
+      for (int i = 0; i < prefixLanes.length; i += Constants.LONGS_IN_r) {
+        spongeHash.absorb(prefixState, prefixLanes, i, Constants.LONGS_IN_r);
+      }
+
+      nonceOffset = prefix.length - aligned;
+      blocks = (nonceOffset + BYTES_IN_LONG + Constants.BYTES_IN_r - 1) / Constants.BYTES_IN_r;
+      tailLanes = new long[blocks * Constants.LONGS_IN_r];
+      final long[] tail = Utils.bytesToLongs(prefix, aligned, nonceOffset);
+      System.arraycopy(tail, 0, tailLanes, 0, tail.length);
+    }
+
+    private OptionalLong search(
+        final int leadingZeroBits,
+        final long firstNonce,
+        final int worker,
+        final int stride,
+        final long attempts,
+        final AtomicBoolean found) {
+      final long[] state = new long[Constants.STATE_LONG_LENGTH];
+      final long[] lanes = new long[tailLanes.length];
+      final int lane = nonceOffset / BYTES_IN_LONG;
+      final int shift = nonceOffset % BYTES_IN_LONG * BITS_IN_BYTE;
+
+      for (long attempt = worker; attempt < attempts && !found.get(); attempt += stride) {
+        final long nonce = firstNonce + attempt;
+        System.arraycopy(prefixState, 0, state, 0, state.length);
+        System.arraycopy(tailLanes, 0, lanes, 0, lanes.length);
+        lanes[lane] |= nonce >>> shift;
+        if (shift != 0) {
+          lanes[lane + 1] |= nonce << (BITS_IN_LONG - shift);
+        }
+        for (int b = 0; b < blocks; b++) {
+          spongeHash.absorb(state, lanes, b * Constants.LONGS_IN_r, Constants.LONGS_IN_r);
+        }
+        if (hasLeadingZeroBits(state, leadingZeroBits) && found.compareAndSet(false, true)) {
+          return OptionalLong.of(nonce);
+        }
+        if (attempt > Long.MAX_VALUE - stride) {
+          break;
+        }
+      }
+      return OptionalLong.empty();
+    }
+  }
+}
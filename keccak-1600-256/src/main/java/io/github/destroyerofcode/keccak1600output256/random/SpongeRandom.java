@@ -0,0 +1,172 @@
+package io.github.destroyerofcode.keccak1600output256.random;
+
+import static io.github.destroyerofcode.common.Constants.BITS_IN_BYTE;
+import static io.github.destroyerofcode.common.Constants.BYTES_IN_LONG;
+import static io.github.destroyerofcode.common.Utils.bytesToLongs;
+
+import io.github.destroyerofcode.api.SpongePermutation;
+import io.github.destroyerofcode.keccak1600output256.Constants;
+import io.github.destroyerofcode.keccak1600output256.PermutationImpl;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.security.SecureRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * Random bit generator on the Keccak-1600 permutation. A seed is absorbed into the state, and every
+ * permutation then yields the 17 rate lanes as output, which are served from the state itself: a
+ * permutation is only run once 136 bytes have been handed out, not once per call. Bulk {@link
+ * #nextBytes(byte[])} copies whole lanes, so large arrays are filled at close to the speed of the
+ * permutation.
+ *
+ * <p>Seeded with a fixed seed, the output is deterministic, which suits reproducible test data.
+ * Constructed with an entropy source, the generator absorbs fresh entropy from it after every
+ * reseed interval. The capacity lanes are never output.
+ *
+ * <p>Instances are not thread-safe. {@link #current()} returns a generator per thread and {@link
+ * StripedSpongeRandom} shares a few generators between many threads, so neither contends on a
+ * lock the way a shared {@link SecureRandom} does.
+ */
+public final class SpongeRandom implements RandomGenerator {
+
+  public static final long DEFAULT_RESEED_INTERVAL_BYTES = 1L << 20; // 1 MiB
+  static final int ENTROPY_BYTES = 32;
+
+  // seeds are absorbed 16 lanes per block, the last rate lane frames the block
+  private static final int SEED_LANES = Constants.LONGS_IN_r - 1;
+  private static final long LAST_SEED_BLOCK = 0x80;
+
+  private static final VarHandle LONGS =
+      MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+  private static final SecureRandom SEED_SOURCE = new SecureRandom();
+  private static final ThreadLocal<SpongeRandom> CURRENT =
+      ThreadLocal.withInitial(
+          () ->
+              new SpongeRandom(new PermutationImpl(), SEED_SOURCE, DEFAULT_RESEED_INTERVAL_BYTES));
+
+  private final SpongePermutation<long[]> spongePermutation;
+  private final SecureRandom entropy;
+  private final long reseedIntervalBytes;
+  private final long[] state = new long[Constants.STATE_LONG_LENGTH];
+  private int lane = Constants.LONGS_IN_r;
+  private long bytesSinceReseed;
+
+  /**
+   * Constructs a deterministic generator, the same seed always gives the same output.
+   *
+   * @param spongePermutation The Keccak-1600 permutation.
+   * @param seed The seed, not empty.
+   */
+  public SpongeRandom(final SpongePermutation<long[]> spongePermutation, final byte[] seed) {
+    this.spongePermutation = spongePermutation;
+    this.entropy = null;
+    this.reseedIntervalBytes = Long.MAX_VALUE;
+    reseed(seed);
+  }
+
+  /**
+   * Constructs a generator seeded from an entropy source, which is read again after every reseed
+   * interval.
+   *
+   * @param spongePermutation The Keccak-1600 permutation.
+   * @param entropy The source of the seeds.
+   * @param reseedIntervalBytes The number of bytes output between reseeds.
+   */
+  public SpongeRandom(
+      final SpongePermutation<long[]> spongePermutation,
+      final SecureRandom entropy,
+      final long reseedIntervalBytes) {
+    if (reseedIntervalBytes <= 0) {
+      throw new IllegalArgumentException("Reseed interval must be greater than 0.");
+    }
+    this.spongePermutation = spongePermutation;
+    this.entropy = entropy;
+    this.reseedIntervalBytes = reseedIntervalBytes;
+    reseedFromEntropy();
+  }
+
+  /**
+   * @return the generator of the current thread, seeded from a {@link SecureRandom} and reseeded
+   *     every {@link #DEFAULT_RESEED_INTERVAL_BYTES}.
+   */
+  public static SpongeRandom current() {
+    return CURRENT.get();
+  }
+
+  /**
+   * Absorbs a seed into the state on top of everything absorbed before, so reseeding never loses
+   * entropy. The output continues from a new permutation.
+   *
+   * @param seed The seed, not empty.
+   */
+  public void reseed(final byte[] seed) {
+    if (seed.length == 0) {
+      throw new IllegalArgumentException("The seed must not be empty.");
+    }
+    final long[] seedLongs = bytesToLongs(seed, 0, seed.length);
+    for (int i = 0; i < seedLongs.length; i += SEED_LANES) {
+      final int lanes = Math.min(SEED_LANES, seedLongs.length - i);
+      for (int j = 0; j < lanes; j++) {
+        state[j] ^= seedLongs[i + j];
+      }
+      final boolean last = i + lanes == seedLongs.length;
+      state[SEED_LANES] ^= ((long) seed.length << BITS_IN_BYTE) | (last ? LAST_SEED_BLOCK : 0);
+      spongePermutation.permute(state);
+    }
+    lane = 0;
+    bytesSinceReseed = 0;
+  }
+
+  @Override
+  public long nextLong() {
+    if (lane == Constants.LONGS_IN_r) {
+      squeeze();
+    }
+    return state[lane++];
+  }
+
+  /**
+   * Fills an array with random bytes, a whole lane at a time. Bytes of a lane that do not fit at
+   * the end of the array are discarded.
+   *
+   * @param bytes The array to fill.
+   */
+  @Override
+  public void nextBytes(final byte[] bytes) {
+    int i = 0;
+    while (bytes.length - i >= BYTES_IN_LONG) {
+      if (lane == Constants.LONGS_IN_r) {
+        squeeze();
+      }
+      final int lanes = Math.min(Constants.LONGS_IN_r - lane, (bytes.length - i) / BYTES_IN_LONG);
+      for (int j = 0; j < lanes; j++) {
+        LONGS.set(bytes, i, state[lane++]);
+        i += BYTES_IN_LONG;
+      }
+    }
+    if (i < bytes.length) {
+      final long last = nextLong();
+      for (int shift = (BYTES_IN_LONG - 1) * BITS_IN_BYTE; i < bytes.length; i++) {
+        bytes[i] = (byte) (last >>> shift);
+        shift -= BITS_IN_BYTE;
+      }
+    }
+  }
+
+  private void squeeze() {
+    bytesSinceReseed += Constants.BYTES_IN_r;
+    if (bytesSinceReseed >= reseedIntervalBytes) {
+      reseedFromEntropy();
+    } else {
+      spongePermutation.permute(state);
+      lane = 0;
+    }
+  }
+
+  private void reseedFromEntropy() {
+    final byte[] seed = new byte[ENTROPY_BYTES];
+    entropy.nextBytes(seed);
+    reseed(seed);
+  }
+}
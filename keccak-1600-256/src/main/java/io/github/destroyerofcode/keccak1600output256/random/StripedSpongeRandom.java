@@ -0,0 +1,72 @@
+package io.github.destroyerofcode.keccak1600output256.random;
+
+import io.github.destroyerofcode.keccak1600output256.PermutationImpl;
+import java.security.SecureRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * Thread-safe random generator spreading the calling threads over a power-of-2 number of {@link
+ * SpongeRandom} stripes, each guarded by its own monitor. With at least as many stripes as busy
+ * threads, threads rarely wait for each other. Prefer {@link SpongeRandom#current()} when the
+ * calling threads are long-lived; stripes suit many short-lived or virtual threads, which would
+ * each seed a thread-local generator of their own.
+ */
+public final class StripedSpongeRandom implements RandomGenerator {
+
+  private final SpongeRandom[] stripes;
+
+  /**
+   * Constructs a stripe per available processor, rounded up to a power of 2.
+   *
+   * @param entropy The source of the seeds of all stripes.
+   */
+  public StripedSpongeRandom(final SecureRandom entropy) {
+    this(Runtime.getRuntime().availableProcessors(), entropy);
+  }
+
+  /**
+   * @param stripes The number of generators, rounded up to a power of 2.
+   * @param entropy The source of the seeds of all stripes.
+   */
+  public StripedSpongeRandom(final int stripes, final SecureRandom entropy) {
+    if (stripes <= 0) {
+      throw new IllegalArgumentException("Stripes must be greater than 0.");
+    }
+    this.stripes = new SpongeRandom[stripes == 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1];
+    for (int i = 0; i < this.stripes.length; i++) {
+      this.stripes[i] =
+          new SpongeRandom(
+              new PermutationImpl(), entropy, SpongeRandom.DEFAULT_RESEED_INTERVAL_BYTES);
+    }
+  }
+
+  @Override
+  public long nextLong() {
+    final SpongeRandom stripe = stripe();
+    synchronized (stripe) {
+      return stripe.nextLong();
+    }
+  }
+
+  @Override
+  public void nextBytes(final byte[] bytes) {
+    final SpongeRandom stripe = stripe();
+    synchronized (stripe) {
+      stripe.nextBytes(bytes);
+    }
+  }
+
+  int stripes() {
+    return stripes.length;
+  }
+
+  private SpongeRandom stripe() {
+    // spread the identity hash of the thread: the build runs on Java 17, which lacks threadId(),
+    // and getId() is deprecated from Java 19 on
+    int hash = System.identityHashCode(Thread.currentThread());
+    hash ^= hash >>> 16;
+    hash *= 0x45D9F3B;
+    hash ^= hash >>> 16;
+    return stripes[hash & (stripes.length - 1)];
+  }
+}
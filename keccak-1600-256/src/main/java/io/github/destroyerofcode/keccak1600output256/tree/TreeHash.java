@@ -0,0 +1,165 @@
+package io.github.destroyerofcode.keccak1600output256.tree;
+
+import io.github.destroyerofcode.hasher.SpongeHasher;
+import io.github.destroyerofcode.keccak1600output256.Constants;
+import io.github.destroyerofcode.keccak1600output256.SpongeHashKeccak1600Output256Impl;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The tree hash encoding of a file split into fixed-size chunks, shared by the {@link
+ * TreeHashCoordinator} and its workers.
+ *
+ * <ul>
+ *   <li>The chaining value of chunk i is the hash of a 0 byte, i as a long and the chunk bytes. An
+ *       empty file has a single empty chunk.
+ *   <li>Chaining values are combined pairwise level by level, the parent being the hash of a 1
+ *       byte and both children. The last value of a level with an odd count moves up unchanged.
+ *   <li>The root is the hash of a 2 byte, the file size as a long, the chunk size as an int and
+ *       the top chaining value.
+ * </ul>
+ *
+ * <p>The leading byte separates leaves, parents and the root, and the chunk index and sizes bind
+ * every value to its position, so chunks cannot be reordered or the tree cut short unnoticed.
+ */
+public final class TreeHash {
+
+  /** 16 MiB, large enough for the network round trip of a chunk to be negligible. */
+  public static final int DEFAULT_CHUNK_SIZE = 16 << 20;
+
+  private static final byte LEAF = 0;
+  private static final byte PARENT = 1;
+  private static final byte ROOT = 2;
+  private static final int READ_BUFFER_BYTES = 64 * 1024;
+
+  private TreeHash() {}
+
+  /**
+   * Hashes a file in a single process, the reference for the distributed hash.
+   *
+   * @param spongeHash The Keccak-1600 hash.
+   * @param file The file.
+   * @param chunkSize The size of the chunks in bytes.
+   * @return the root digest.
+   * @throws IOException If reading the file fails.
+   */
+  public static long[] hash(
+      final SpongeHashKeccak1600Output256Impl spongeHash, final Path file, final int chunkSize)
+      throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      final long size = channel.size();
+      final int chunks = chunkCount(size, chunkSize);
+      final long[] chainingValues = new long[chunks * Constants.OUTPUT_LENGTH_LONGS];
+      for (int i = 0; i < chunks; i++) {
+        final long offset = (long) i * chunkSize;
+        final long[] chainingValue =
+            chunk(spongeHash, channel, i, offset, (int) Math.min(chunkSize, size - offset));
+        System.arraycopy(
+            chainingValue,
+            0,
+            chainingValues,
+            i * Constants.OUTPUT_LENGTH_LONGS,
+            Constants.OUTPUT_LENGTH_LONGS);
+      }
+      return root(spongeHash, chainingValues, size, chunkSize);
+    }
+  }
+
+  /**
+   * @return the number of chunks of a file, at least 1.
+   * @throws IllegalArgumentException If the chunk size is not positive or the chaining values of
+   *     the chunks do not fit in an array.
+   */
+  public static int chunkCount(final long fileSize, final int chunkSize) {
+    if (chunkSize <= 0) {
+      throw new IllegalArgumentException("Chunk size must be greater than 0.");
+    }
+    final long chunks = Math.max(1, (fileSize + chunkSize - 1) / chunkSize);
+    if (chunks > Integer.MAX_VALUE / Constants.OUTPUT_LENGTH_LONGS) {
+      throw new IllegalArgumentException("Too many chunks, the chunk size is too small.");
+    }
+    return (int) chunks;
+  }
+
+  /**
+   * Computes the chaining value of a chunk, reading it with positional reads.
+   *
+   * @param spongeHash The Keccak-1600 hash.
+   * @param channel The file.
+   * @param index The index of the chunk.
+   * @param offset The position of the chunk in the file.
+   * @param length The size of the chunk in bytes.
+   * @return the chaining value.
+   * @throws IOException If reading fails or the file ends before the chunk.
+   */
+  public static long[] chunk(
+      final SpongeHashKeccak1600Output256Impl spongeHash,
+      final FileChannel channel,
+      final long index,
+      final long offset,
+      final int length)
+      throws IOException {
+    final SpongeHasher<long[]> hasher = spongeHash.newHasher().putByte(LEAF).putLong(index);
+    final ByteBuffer buffer = ByteBuffer.allocate(Math.min(length, READ_BUFFER_BYTES));
+    long position = offset;
+    final long end = offset + length;
+    while (position < end) {
+      buffer.clear().limit((int) Math.min(buffer.capacity(), end - position));
+      final int read = channel.read(buffer, position);
+      if (read < 0) {
+        throw new EOFException("The file ends before the chunk " + index + ".");
+      }
+      hasher.putBytes(buffer.flip());
+      position += read;
+    }
+    return hasher.digest();
+  }
+
+  /**
+   * Combines the chaining values of all chunks into the root digest.
+   *
+   * @param spongeHash The Keccak-1600 hash.
+   * @param chainingValues The chaining values, chunk i at index i times {@link
+   *     Constants#OUTPUT_LENGTH_LONGS}. The array is not modified.
+   * @param fileSize The size of the file in bytes.
+   * @param chunkSize The size of the chunks in bytes.
+   * @return the root digest.
+   */
+  public static long[] root(
+      final SpongeHashKeccak1600Output256Impl spongeHash,
+      final long[] chainingValues,
+      final long fileSize,
+      final int chunkSize) {
+    final SpongeHasher<long[]> hasher = spongeHash.newHasher();
+    final long[] level = chainingValues.clone();
+    for (int count = level.length / Constants.OUTPUT_LENGTH_LONGS; count > 1; ) {
+      for (int i = 0; i < count; i += 2) {
+        final int to = i / 2 * Constants.OUTPUT_LENGTH_LONGS;
+        if (i + 1 == count) {
+          System.arraycopy(
+              level, i * Constants.OUTPUT_LENGTH_LONGS, level, to, Constants.OUTPUT_LENGTH_LONGS);
+        } else {
+          hasher.putByte(PARENT);
+          putLanes(hasher, level, i * Constants.OUTPUT_LENGTH_LONGS);
+          putLanes(hasher, level, (i + 1) * Constants.OUTPUT_LENGTH_LONGS);
+          hasher.digestInto(level, to);
+        }
+      }
+      count = (count + 1) / 2;
+    }
+    hasher.putByte(ROOT).putLong(fileSize).putInt(chunkSize);
+    putLanes(hasher, level, 0);
+    return hasher.digest();
+  }
+
+  private static void putLanes(
+      final SpongeHasher<long[]> hasher, final long[] lanes, final int offset) {
+    for (int i = 0; i < Constants.OUTPUT_LENGTH_LONGS; i++) {
+      hasher.putLong(lanes[offset + i]);
+    }
+  }
+}
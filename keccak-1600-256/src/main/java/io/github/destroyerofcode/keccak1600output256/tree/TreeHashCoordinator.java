@@ -0,0 +1,333 @@
+package io.github.destroyerofcode.keccak1600output256.tree;
+
+import io.github.destroyerofcode.exception.SpongeException;
+import io.github.destroyerofcode.keccak1600output256.Constants;
+import io.github.destroyerofcode.keccak1600output256.SpongeHashKeccak1600Output256Impl;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hashes large files with worker processes, in the {@link TreeHash} encoding. The file is split
+ * into fixed-size chunks, which are queued and sent as (path, offset, length) requests to the
+ * {@link TreeHashWorker}s, one connection per worker. The workers return the chaining values of
+ * their chunks, which the coordinator combines into the root. The workers must see the file at
+ * the same path.
+ *
+ * <p>A chunk whose request fails, because the connection broke or the worker reported an error,
+ * is queued again for any worker, up to a number of attempts. A worker failing, or refusing the
+ * connection, that many times in a row is dropped for the rest of the hash.
+ *
+ * <p>The chaining values are cached per file version, that is the absolute path, the size, the
+ * modification time and the file key, for the last {@link #MAX_CACHED_FILES} files. Hashing a file
+ * again after a failure only sends the chunks that were not done, and hashing an unchanged file
+ * sends none. A file that changed while its chunks were hashed fails the hash and its chaining
+ * values are dropped.
+ */
+public final class TreeHashCoordinator implements Closeable {
+
+  public static final int DEFAULT_MAX_ATTEMPTS = 3;
+  static final int MAX_CACHED_FILES = 64;
+  private static final long POLL_MILLIS = 10;
+  private static final int CONNECT_TIMEOUT_MILLIS = (int) Duration.ofSeconds(5).toMillis();
+  private static final int READ_TIMEOUT_MILLIS = (int) Duration.ofMinutes(5).toMillis();
+
+  private final SpongeHashKeccak1600Output256Impl spongeHash;
+  private final List<InetSocketAddress> workers;
+  private final int chunkSize;
+  private final int maxAttempts;
+  private final ExecutorService links;
+  private final Map<String, ChunkResults> results =
+      Collections.synchronizedMap(
+          new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, ChunkResults> eldest) {
+              return size() > MAX_CACHED_FILES;
+            }
+          });
+  private final LongAdder chunksHashed = new LongAdder();
+
+  /**
+   * Constructs a coordinator with chunks of {@link TreeHash#DEFAULT_CHUNK_SIZE} bytes and {@link
+   * #DEFAULT_MAX_ATTEMPTS} attempts per chunk.
+   *
+   * @param spongeHash The Keccak-1600 hash the chaining values are combined with.
+   * @param workers The addresses of the workers.
+   */
+  public TreeHashCoordinator(
+      final SpongeHashKeccak1600Output256Impl spongeHash, final List<InetSocketAddress> workers) {
+    this(spongeHash, workers, TreeHash.DEFAULT_CHUNK_SIZE, DEFAULT_MAX_ATTEMPTS);
+  }
+
+  /**
+   * @param spongeHash The Keccak-1600 hash the chaining values are combined with.
+   * @param workers The addresses of the workers.
+   * @param chunkSize The size of the chunks in bytes.
+   * @param maxAttempts The number of times a chunk is sent before the hash fails.
+   */
+  public TreeHashCoordinator(
+      final SpongeHashKeccak1600Output256Impl spongeHash,
+      final List<InetSocketAddress> workers,
+      final int chunkSize,
+      final int maxAttempts) {
+    if (workers.isEmpty()) {
+      throw new IllegalArgumentException("There must be at least one worker.");
+    }
+    if (chunkSize <= 0) {
+      throw new IllegalArgumentException("Chunk size must be greater than 0.");
+    }
+    if (maxAttempts <= 0) {
+      throw new IllegalArgumentException("Max attempts must be greater than 0.");
+    }
+    this.spongeHash = spongeHash;
+    this.workers = List.copyOf(workers);
+    this.chunkSize = chunkSize;
+    this.maxAttempts = maxAttempts;
+    this.links =
+        Executors.newCachedThreadPool(
+            task -> {
+              final Thread thread = new Thread(task, "tree-hash-coordinator");
+              thread.setDaemon(true);
+              return thread;
+            });
+  }
+
+  /**
+   * Hashes a file with the workers.
+   *
+   * @param file The file, at the same path for the workers.
+   * @return the root digest, the same as {@link TreeHash#hash} with the same chunk size.
+   * @throws SpongeException If the file cannot be read, changed while it was hashed, a chunk failed
+   *     on every attempt or no worker is left.
+   */
+  public long[] hash(final Path file) {
+    final Path path = file.toAbsolutePath();
+    final FileVersion version = readVersion(path);
+    final int chunks = TreeHash.chunkCount(version.size(), chunkSize);
+    final ChunkResults chunkResults =
+        results.compute(
+            path.toString(),
+            (key, cached) ->
+                cached != null && cached.version.equals(version)
+                    ? cached
+                    : new ChunkResults(version, chunks));
+
+    final Job job = new Job(path.toString(), chunkResults);
+    for (int i = 0; i < chunks; i++) {
+      if (!chunkResults.isDone(i)) {
+        final long offset = (long) i * chunkSize;
+        job.queue.add(
+            new WorkItem(i, offset, (int) Math.min(chunkSize, version.size() - offset), 0));
+      }
+    }
+    job.remaining.set(job.queue.size());
+    if (job.remaining.get() > 0) {
+      run(job);
+      if (!readVersion(path).equals(version)) {
+        // the chunks may have been read from different versions
+        results.remove(path.toString(), chunkResults);
+        throw new SpongeException("The file changed while it was hashed: " + path);
+      }
+    }
+    return TreeHash.root(spongeHash, chunkResults.chainingValues(), version.size(), chunkSize);
+  }
+
+  /**
+   * @return the number of chunks hashed by the workers, not counting those found in the cache.
+   */
+  public long chunksHashed() {
+    return chunksHashed.sum();
+  }
+
+  /** Stops the connections to the workers. */
+  @Override
+  public void close() {
+    links.shutdownNow();
+  }
+
+  private static FileVersion readVersion(final Path path) {
+    final BasicFileAttributes attributes;
+    try {
+      attributes = Files.readAttributes(path, BasicFileAttributes.class);
+    } catch (IOException e) {
+      throw new SpongeException("An error has occurred when hashing: ", e);
+    }
+    return new FileVersion(attributes.size(), attributes.lastModifiedTime(), attributes.fileKey());
+  }
+
+  private void run(final Job job) {
+    final List<Future<?>> running = new ArrayList<>(workers.size());
+    for (final InetSocketAddress worker : workers) {
+      running.add(links.submit(() -> link(worker, job)));
+    }
+    try {
+      for (final Future<?> link : running) {
+        link.get();
+      }
+    } catch (InterruptedException e) {
+      job.failure.compareAndSet(null, new SpongeException("Interrupted when hashing: ", e));
+      Thread.currentThread().interrupt();
+    } catch (ExecutionException e) {
+      job.failure.compareAndSet(
+          null, new SpongeException("An error has occurred when hashing: ", e.getCause()));
+    }
+    if (job.failure.get() != null) {
+      throw job.failure.get();
+    }
+    if (job.remaining.get() > 0) {
+      throw new SpongeException(
+          "No worker is left, " + job.remaining.get() + " chunks are not hashed.");
+    }
+  }
+
+  /** Sends the queued chunks to one worker until all are done or the worker keeps failing. */
+  private void link(final InetSocketAddress worker, final Job job) {
+    Socket socket = null;
+    DataInputStream in = null;
+    DataOutputStream out = null;
+    int failures = 0;
+    try {
+      while (job.remaining.get() > 0 && job.failure.get() == null) {
+        if (socket == null) {
+          try {
+            socket = new Socket();
+            socket.connect(worker, CONNECT_TIMEOUT_MILLIS);
+            socket.setSoTimeout(READ_TIMEOUT_MILLIS);
+            in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+          } catch (IOException e) {
+            // an unreachable worker takes no chunks, so they do not use up their attempts
+            closeQuietly(socket);
+            socket = null;
+            if (++failures >= maxAttempts) {
+              return;
+            }
+            continue;
+          }
+        }
+        final WorkItem item = job.queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+        if (item == null) {
+          continue;
+        }
+        try {
+          new TreeHashProtocol.Request(job.path, item.index, item.offset, item.length).write(out);
+          out.flush();
+          job.chunkResults.complete(
+              item.index, TreeHashProtocol.readChainingValue(in, item.index));
+          chunksHashed.increment();
+          job.remaining.decrementAndGet();
+          failures = 0;
+        } catch (IOException e) {
+          closeQuietly(socket);
+          socket = null;
+          retry(job, item, e);
+          if (++failures >= maxAttempts) {
+            return;
+          }
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      closeQuietly(socket);
+    }
+  }
+
+  private void retry(final Job job, final WorkItem item, final IOException cause) {
+    final int attempts = item.attempts + 1;
+    if (attempts >= maxAttempts) {
+      job.failure.compareAndSet(
+          null,
+          new SpongeException(
+              "The chunk " + item.index + " failed after " + attempts + " attempts: ", cause));
+    } else {
+      job.queue.add(new WorkItem(item.index, item.offset, item.length, attempts));
+    }
+  }
+
+  private static void closeQuietly(final Socket socket) {
+    if (socket == null) {
+      return;
+    }
+    try {
+      socket.close();
+    } catch (IOException e) {
+      // the connection is dropped either way
+    }
+  }
+
+  private record FileVersion(long size, FileTime modified, Object fileKey) {}
+
+  private record WorkItem(int index, long offset, int length, int attempts) {}
+
+  /** The chaining values of the chunks of a file version done so far. */
+  private static final class ChunkResults {
+    private final FileVersion version;
+    private final long[] chainingValues;
+    private final BitSet done;
+
+    private ChunkResults(final FileVersion version, final int chunks) {
+      this.version = version;
+      this.chainingValues = new long[chunks * Constants.OUTPUT_LENGTH_LONGS];
+      this.done = new BitSet(chunks);
+    }
+
+    private synchronized boolean isDone(final int index) {
+      return done.get(index);
+    }
+
+    private synchronized void complete(final int index, final long[] chainingValue) {
+      System.arraycopy(
+          chainingValue,
+          0,
+          chainingValues,
+          index * Constants.OUTPUT_LENGTH_LONGS,
+          Constants.OUTPUT_LENGTH_LONGS);
+      done.set(index);
+    }
+
+    private synchronized long[] chainingValues() {
+      return chainingValues.clone();
+    }
+  }
+
+  /** The chunks of one call to {@link #hash} still to be done. */
+  private static final class Job {
+    private final String path;
+    private final ChunkResults chunkResults;
+    private final BlockingQueue<WorkItem> queue = new LinkedBlockingQueue<>();
+    private final AtomicInteger remaining = new AtomicInteger();
+    private final AtomicReference<SpongeException> failure = new AtomicReference<>();
+
+    private Job(final String path, final ChunkResults chunkResults) {
+      this.path = path;
+      this.chunkResults = chunkResults;
+    }
+  }
+}
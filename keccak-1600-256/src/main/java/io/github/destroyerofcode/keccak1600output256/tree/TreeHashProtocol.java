@@ -0,0 +1,81 @@
+package io.github.destroyerofcode.keccak1600output256.tree;
+
+import io.github.destroyerofcode.keccak1600output256.Constants;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * The messages between the coordinator and a worker, written with {@link DataOutput} over one
+ * connection, one request and its response at a time:
+ *
+ * <pre>
+ * request:  int magic, UTF path, long chunk index, long offset, int length
+ * response: byte 0, long chunk index, 4 longs chaining value
+ *       or: byte 1, UTF error message
+ * </pre>
+ */
+final class TreeHashProtocol {
+
+  static final int MAGIC = 0x4B544831; // "KTH1"
+  static final byte STATUS_OK = 0;
+  static final byte STATUS_ERROR = 1;
+
+  private TreeHashProtocol() {}
+
+  /** A chunk to hash. */
+  record Request(String path, long index, long offset, int length) {
+
+    void write(final DataOutput out) throws IOException {
+      out.writeInt(MAGIC);
+      out.writeUTF(path);
+      out.writeLong(index);
+      out.writeLong(offset);
+      out.writeInt(length);
+    }
+
+    static Request read(final DataInput in) throws IOException {
+      final int magic = in.readInt();
+      if (magic != MAGIC) {
+        throw new IOException("Not a tree hash request.");
+      }
+      return new Request(in.readUTF(), in.readLong(), in.readLong(), in.readInt());
+    }
+  }
+
+  static void writeChainingValue(
+      final DataOutput out, final long index, final long[] chainingValue) throws IOException {
+    out.writeByte(STATUS_OK);
+    out.writeLong(index);
+    for (final long lane : chainingValue) {
+      out.writeLong(lane);
+    }
+  }
+
+  static void writeError(final DataOutput out, final String message) throws IOException {
+    out.writeByte(STATUS_ERROR);
+    out.writeUTF(message);
+  }
+
+  /**
+   * Reads the response to a request.
+   *
+   * @return the chaining value of the chunk.
+   * @throws IOException If reading fails, the worker reported an error or answered for another
+   *     chunk.
+   */
+  static long[] readChainingValue(final DataInput in, final long index) throws IOException {
+    final byte status = in.readByte();
+    if (status == STATUS_ERROR) {
+      throw new IOException("The worker failed: " + in.readUTF());
+    }
+    if (status != STATUS_OK || in.readLong() != index) {
+      throw new IOException("Unexpected response for the chunk " + index + ".");
+    }
+    final long[] chainingValue = new long[Constants.OUTPUT_LENGTH_LONGS];
+    for (int i = 0; i < chainingValue.length; i++) {
+      chainingValue[i] = in.readLong();
+    }
+    return chainingValue;
+  }
+}
@@ -0,0 +1,167 @@
+package io.github.destroyerofcode.keccak1600output256.tree;
+
+import io.github.destroyerofcode.keccak1600output256.PermutationImpl;
+import io.github.destroyerofcode.keccak1600output256.SpongeHashKeccak1600Output256Impl;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Hashes chunks of files for a {@link TreeHashCoordinator}. Every connection is served by its own
+ * thread, reading requests until the coordinator closes it, and keeps the last file it read open
+ * for the next chunks of the same file.
+ *
+ * <p>The worker reads any path it is sent, so it listens on the loopback address unless it is
+ * given another one, which should then be reachable by the coordinator only. Run it as a process
+ * with {@code java ... TreeHashWorker <port> [address]}, the port 0 picking a free one, which is
+ * printed once listening.
+ */
+public final class TreeHashWorker implements Closeable {
+
+  private final SpongeHashKeccak1600Output256Impl spongeHash;
+  private final ServerSocket serverSocket;
+  private final ExecutorService connections;
+
+  private TreeHashWorker(
+      final SpongeHashKeccak1600Output256Impl spongeHash, final ServerSocket serverSocket) {
+    this.spongeHash = spongeHash;
+    this.serverSocket = serverSocket;
+    this.connections =
+        Executors.newCachedThreadPool(
+            task -> {
+              final Thread thread = new Thread(task, "tree-hash-worker");
+              thread.setDaemon(true);
+              return thread;
+            });
+  }
+
+  /**
+   * Starts a worker accepting connections on a background thread.
+   *
+   * @param spongeHash The Keccak-1600 hash the chunks are hashed with.
+   * @param port The loopback port to listen on, 0 for a free one.
+   * @return the running worker.
+   * @throws IOException If the port cannot be bound.
+   */
+  public static TreeHashWorker start(
+      final SpongeHashKeccak1600Output256Impl spongeHash, final int port) throws IOException {
+    final TreeHashWorker worker = bind(spongeHash, port, InetAddress.getLoopbackAddress());
+    worker.connections.execute(worker::serve);
+    return worker;
+  }
+
+  /**
+   * Runs a worker in this process until it is killed.
+   *
+   * @param args The port to listen on, 0 or none for a free one, and the address to listen on,
+   *     the loopback address if none.
+   * @throws IOException If the port cannot be bound.
+   */
+  public static void main(final String[] args) throws IOException {
+    final int port = args.length > 0 ? Integer.parseInt(args[0]) : 0;
+    final InetAddress address =
+        args.length > 1 ? InetAddress.getByName(args[1]) : InetAddress.getLoopbackAddress();
+    final TreeHashWorker worker =
+        bind(new SpongeHashKeccak1600Output256Impl(new PermutationImpl()), port, address);
+    System.out.println(worker.address().getPort());
+    worker.serve();
+  }
+
+  private static TreeHashWorker bind(
+      final SpongeHashKeccak1600Output256Impl spongeHash,
+      final int port,
+      final InetAddress address)
+      throws IOException {
+    return new TreeHashWorker(spongeHash, new ServerSocket(port, 0, address));
+  }
+
+  /**
+   * @return the address the coordinator connects to.
+   */
+  public InetSocketAddress address() {
+    return (InetSocketAddress) serverSocket.getLocalSocketAddress();
+  }
+
+  /** Stops accepting connections and drops the open ones. */
+  @Override
+  public void close() throws IOException {
+    serverSocket.close();
+    connections.shutdownNow();
+  }
+
+  private void serve() {
+    while (!serverSocket.isClosed()) {
+      try {
+        final Socket socket = serverSocket.accept();
+        connections.execute(() -> handle(socket));
+      } catch (IOException e) {
+        // closed, or a failed accept the coordinator retries
+      }
+    }
+  }
+
+  private void handle(final Socket socket) {
+    Path openPath = null;
+    FileChannel channel = null;
+    try (socket;
+        DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        DataOutputStream out =
+            new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()))) {
+      while (true) {
+        final TreeHashProtocol.Request request;
+        try {
+          request = TreeHashProtocol.Request.read(in);
+        } catch (EOFException e) {
+          return;
+        }
+        try {
+          final Path path = Path.of(request.path());
+          if (!path.equals(openPath)) {
+            closeQuietly(channel);
+            channel = null;
+            channel = FileChannel.open(path, StandardOpenOption.READ);
+            openPath = path;
+          }
+          final long[] chainingValue =
+              TreeHash.chunk(
+                  spongeHash, channel, request.index(), request.offset(), request.length());
+          TreeHashProtocol.writeChainingValue(out, request.index(), chainingValue);
+        } catch (IOException | RuntimeException e) {
+          openPath = null;
+          closeQuietly(channel);
+          channel = null;
+          TreeHashProtocol.writeError(out, String.valueOf(e));
+        }
+        out.flush();
+      }
+    } catch (IOException e) {
+      // the coordinator went away, it retries the chunk elsewhere
+    } finally {
+      closeQuietly(channel);
+    }
+  }
+
+  private static void closeQuietly(final Closeable closeable) {
+    if (closeable == null) {
+      return;
+    }
+    try {
+      closeable.close();
+    } catch (IOException e) {
+      // nothing left to read from it
+    }
+  }
+}
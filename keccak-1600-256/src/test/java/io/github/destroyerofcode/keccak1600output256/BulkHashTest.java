@@ -0,0 +1,84 @@
+package io.github.destroyerofcode.keccak1600output256;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class BulkHashTest {
+
+  private SpongeHashKeccak1600Output256Impl spongeHashKeccak1600;
+
+  @BeforeEach
+  void setUp() {
+    spongeHashKeccak1600 = new SpongeHashKeccak1600Output256Impl(new PermutationImpl());
+  }
+
+  private long[] digestAt(final long[] digests, final int index) {
+    return Arrays.copyOfRange(
+        digests,
+        index * Constants.OUTPUT_LENGTH_LONGS,
+        (index + 1) * Constants.OUTPUT_LENGTH_LONGS);
+  }
+
+  private static List<byte[]> skewedMessages() {
+    final List<byte[]> messages = new ArrayList<>();
+    for (int i = 0; i < 2000; i++) {
+      // mostly tiny messages, with a few of hundreds of blocks
+      final byte[] message = new byte[i % 500 == 7 ? 100_000 : i % 40];
+      Arrays.fill(message, (byte) i);
+      messages.add(message);
+    }
+    return messages;
+  }
+
+  @Test
+  @DisplayName("Bulk digests should be in input order and equal the digests of single messages")
+  void testDigestsInInputOrder() {
+    // given
+    final List<byte[]> messages = skewedMessages();
+
+    // when
+    final long[] digests = spongeHashKeccak1600.hashAll(messages);
+
+    // then
+    assertEquals(messages.size() * Constants.OUTPUT_LENGTH_LONGS, digests.length);
+    for (int i = 0; i < messages.size(); i++) {
+      final long[] expected =
+          spongeHashKeccak1600.hash(new ByteArrayInputStream(messages.get(i))).digest();
+      assertArrayEquals(expected, digestAt(digests, i), "message " + i);
+    }
+  }
+
+  @Test
+  @DisplayName("Buffers should hash the same as arrays and keep their positions")
+  void testBuffersMatchArrays() {
+    // given
+    final List<byte[]> messages = skewedMessages().subList(0, 600);
+    final List<ByteBuffer> buffers = new ArrayList<>();
+    for (final byte[] message : messages) {
+      final ByteBuffer buffer = ByteBuffer.allocateDirect(message.length + 3);
+      buffer.put(new byte[3]).put(message).position(3);
+      buffers.add(buffer);
+    }
+
+    // when
+    final long[] fromBuffers = spongeHashKeccak1600.hashAll(buffers.stream());
+    final long[] fromArrays = spongeHashKeccak1600.hashAll(messages);
+
+    // then
+    assertAll(
+        () -> assertArrayEquals(fromArrays, fromBuffers),
+        () -> assertEquals(3, buffers.get(17).position()),
+        () -> assertEquals(0, spongeHashKeccak1600.hashAll(Stream.empty()).length));
+  }
+}
@@ -0,0 +1,78 @@
+package io.github.destroyerofcode.keccak1600output256;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.github.destroyerofcode.api.SpongeHash;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class HashChainKeccak1600Output256ImplTest {
+
+  private static final long[] SEED = {1L, -2L, 3L, -4L};
+
+  private SpongeHash<long[]> spongeHashKeccak1600;
+  private HashChainKeccak1600Output256Impl chain;
+
+  @BeforeEach
+  void setUp() {
+    spongeHashKeccak1600 = new SpongeHashKeccak1600Output256Impl(new PermutationImpl());
+    chain = new HashChainKeccak1600Output256Impl(spongeHashKeccak1600, SEED, 100, 7);
+  }
+
+  @Test
+  @DisplayName("Every element should be the hash of the previous one, read in any order")
+  void testElementsMatchRepeatedHashing() {
+    // given
+    final long[][] expected = new long[101][];
+    expected[0] = SEED.clone();
+    for (int i = 1; i <= 100; i++) {
+      expected[i] = spongeHashKeccak1600.hash(expected[i - 1]);
+    }
+
+    // when
+    final long[][] descending = new long[101][];
+    for (int i = 100; i >= 0; i--) {
+      descending[i] = chain.element(i);
+    }
+    final long[][] ascending = new long[101][];
+    for (int i = 0; i <= 100; i++) {
+      ascending[i] = chain.element(i);
+    }
+
+    // then
+    assertAll(
+        () -> assertArrayEquals(expected, descending),
+        () -> assertArrayEquals(expected, ascending),
+        () -> assertArrayEquals(expected[100], chain.last()));
+  }
+
+  @Test
+  @DisplayName("Parallel verification should accept the elements and reject altered values")
+  void testVerifyAll() {
+    // given
+    final long[] indices = new long[60];
+    final long[] values = new long[indices.length * Constants.OUTPUT_LENGTH_LONGS];
+    for (int i = 0; i < indices.length; i++) {
+      indices[i] = (i * 37L) % 101;
+      chain.elementInto(indices[i], values, i * Constants.OUTPUT_LENGTH_LONGS);
+    }
+    values[5 * Constants.OUTPUT_LENGTH_LONGS + 3] ^= 1;
+
+    // when
+    final boolean[] valid = chain.verifyAll(indices, values);
+
+    // then
+    for (int i = 0; i < indices.length; i++) {
+      assertTrue(valid[i] == (i != 5), "value " + i);
+    }
+    assertAll(
+        () -> assertTrue(chain.verify(42, chain.element(42))),
+        () -> assertFalse(chain.verify(42, chain.element(43))),
+        () -> assertThrows(IndexOutOfBoundsException.class, () -> chain.element(101)));
+  }
+}
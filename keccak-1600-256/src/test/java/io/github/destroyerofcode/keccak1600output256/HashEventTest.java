@@ -0,0 +1,115 @@
+package io.github.destroyerofcode.keccak1600output256;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.github.destroyerofcode.api.SpongeHash;
+import io.github.destroyerofcode.jfr.HashEvent;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class HashEventTest {
+
+  private SpongeHash<long[]> spongeHashKeccak1600;
+
+  @BeforeEach
+  void setUp() {
+    spongeHashKeccak1600 = new SpongeHashKeccak1600Output256Impl(new PermutationImpl());
+  }
+
+  private static List<RecordedEvent> hashEvents(final Recording recording) throws IOException {
+    final Path file = Files.createTempFile("hash-events", ".jfr");
+    try {
+      recording.dump(file);
+      return RecordingFile.readAllEvents(file).stream()
+          .filter(event -> event.getEventType().getName().equals(HashEvent.NAME))
+          .collect(Collectors.toList());
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+
+  @Test
+  @DisplayName("Hash events should carry the message size, blocks and engine when enabled")
+  void testEventsRecordedWhenEnabled() throws IOException {
+    try (final Recording recording = new Recording()) {
+      // given
+      recording.enable(HashEvent.NAME).withThreshold(Duration.ZERO);
+      recording.start();
+
+      // when
+      spongeHashKeccak1600.hash(new long[40]);
+      spongeHashKeccak1600.hash(new ByteArrayInputStream(new byte[300]), 300);
+      recording.stop();
+
+      // then
+      final List<RecordedEvent> events = hashEvents(recording);
+      assertAll(
+          () -> assertEquals(2, events.size()),
+          () -> assertEquals("hash", events.get(0).getString("operation")),
+          () -> assertEquals(320, events.get(0).getLong("messageSize")),
+          () -> assertEquals(3, events.get(0).getLong("blocks")),
+          () -> assertEquals("hashStream", events.get(1).getString("operation")),
+          () -> assertEquals(3, events.get(1).getLong("blocks")),
+          () ->
+              assertEquals(
+                  SpongeHashKeccak1600Output256Impl.class.getName(),
+                  events.get(1).getClass("engine").getName()));
+    }
+  }
+
+  @Test
+  @DisplayName("Batch and string hashes should record one event each")
+  void testBatchAndStringEvents() throws IOException {
+    final SpongeHashKeccak1600Output256Impl spongeHash =
+        new SpongeHashKeccak1600Output256Impl(new PermutationImpl());
+    try (final Recording recording = new Recording()) {
+      // given
+      recording.enable(HashEvent.NAME).withThreshold(Duration.ZERO);
+      recording.start();
+
+      // when
+      spongeHash.hashAll(List.of(new byte[200], new byte[10]));
+      spongeHash.hash("Hello");
+      recording.stop();
+
+      // then
+      final List<RecordedEvent> events = hashEvents(recording);
+      assertAll(
+          () -> assertEquals(2, events.size()),
+          () -> assertEquals("hashAll", events.get(0).getString("operation")),
+          () -> assertEquals(210, events.get(0).getLong("messageSize")),
+          () -> assertEquals("hashString", events.get(1).getString("operation")),
+          () -> assertEquals(5, events.get(1).getLong("messageSize")),
+          () -> assertEquals(1, events.get(1).getLong("blocks")));
+    }
+  }
+
+  @Test
+  @DisplayName("Hash events should not be recorded by default")
+  void testEventsDisabledByDefault() throws IOException {
+    try (final Recording recording = new Recording()) {
+      // given
+      recording.start();
+
+      // when
+      spongeHashKeccak1600.hash(new long[40]);
+      recording.stop();
+
+      // then
+      assertTrue(hashEvents(recording).isEmpty());
+    }
+  }
+}
@@ -0,0 +1,129 @@
+package io.github.destroyerofcode.keccak1600output256;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import io.github.destroyerofcode.hasher.HashingInputStream;
+import io.github.destroyerofcode.hasher.HashingOutputStream;
+import io.github.destroyerofcode.hasher.HashingReadableByteChannel;
+import io.github.destroyerofcode.hasher.HashingWritableByteChannel;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class HashingStreamsTest {
+
+  private SpongeHashKeccak1600Output256Impl spongeHashKeccak1600;
+  private byte[] message;
+  private long[] expected;
+
+  @BeforeEach
+  void setUp() {
+    spongeHashKeccak1600 = new SpongeHashKeccak1600Output256Impl(new PermutationImpl());
+    message = new byte[10_007];
+    for (int i = 0; i < message.length; i++) {
+      message[i] = (byte) (i * 13);
+    }
+    expected = spongeHashKeccak1600.hash(new ByteArrayInputStream(message)).digest();
+  }
+
+  @Test
+  @DisplayName("Streams should hash the bytes passing through with any read and write sizes")
+  void testStreamsHashPassingBytes() throws IOException {
+    // given
+    final ByteArrayOutputStream copy = new ByteArrayOutputStream();
+    final HashingInputStream<long[]> in =
+        new HashingInputStream<>(
+            spongeHashKeccak1600.newHasher(), new ByteArrayInputStream(message));
+    final HashingOutputStream<long[]> out =
+        new HashingOutputStream<>(spongeHashKeccak1600.newHasher(), copy);
+
+    // when
+    final byte[] buffer = new byte[300];
+    int size = 1;
+    for (int read = in.read(buffer, 0, size); read >= 0; read = in.read(buffer, 0, size)) {
+      out.write(buffer, 0, read);
+      size = size % 293 + 7;
+      final int single = in.read();
+      if (single >= 0) {
+        out.write(single);
+      }
+    }
+    final long outBytes = out.bytesHashed();
+    in.close();
+    out.close();
+
+    // then
+    assertAll(
+        () -> assertArrayEquals(expected, in.digest()),
+        () -> assertArrayEquals(message, copy.toByteArray()),
+        () -> assertArrayEquals(expected, out.digest()),
+        () -> assertEquals(message.length, outBytes),
+        () -> assertEquals(message.length, in.bytesHashed()));
+  }
+
+  @Test
+  @DisplayName("Channels should hash only the bytes read or accepted by the underlying channel")
+  void testChannelsHashTransferredBytes() throws IOException {
+    // given
+    final ByteArrayOutputStream copy = new ByteArrayOutputStream();
+    final WritableByteChannel target = Channels.newChannel(copy);
+    final WritableByteChannel partial =
+        new WritableByteChannel() {
+          @Override
+          public int write(final ByteBuffer source) throws IOException {
+            // accept at most 100 bytes per write
+            final ByteBuffer part = source.duplicate();
+            part.limit(Math.min(source.limit(), source.position() + 100));
+            final int written = target.write(part);
+            source.position(source.position() + written);
+            return written;
+          }
+
+          @Override
+          public boolean isOpen() {
+            return target.isOpen();
+          }
+
+          @Override
+          public void close() throws IOException {
+            target.close();
+          }
+        };
+    final HashingReadableByteChannel<long[]> in =
+        new HashingReadableByteChannel<>(
+            spongeHashKeccak1600.newHasher(),
+            Channels.newChannel(new ByteArrayInputStream(message)));
+    final HashingWritableByteChannel<long[]> out =
+        new HashingWritableByteChannel<>(spongeHashKeccak1600.newHasher(), partial);
+
+    // when
+    final ByteBuffer buffer = ByteBuffer.allocateDirect(1000);
+    while (in.read(buffer) >= 0) {
+      buffer.flip();
+      out.write(buffer);
+      buffer.compact();
+    }
+    buffer.flip();
+    while (buffer.hasRemaining()) {
+      out.write(buffer);
+    }
+
+    // then
+    assertThrows(IllegalStateException.class, out::digest);
+    in.close();
+    out.close();
+    assertAll(
+        () -> assertArrayEquals(expected, in.digest()),
+        () -> assertArrayEquals(message, copy.toByteArray()),
+        () -> assertArrayEquals(expected, out.digest()));
+  }
+}
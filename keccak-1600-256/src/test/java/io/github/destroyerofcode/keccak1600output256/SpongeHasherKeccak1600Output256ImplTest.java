@@ -0,0 +1,192 @@
+package io.github.destroyerofcode.keccak1600output256;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import io.github.destroyerofcode.exception.SpongeException;
+import io.github.destroyerofcode.hasher.Funnel;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class SpongeHasherKeccak1600Output256ImplTest {
+
+  private SpongeHashKeccak1600Output256Impl spongeHashKeccak1600;
+
+  @BeforeEach
+  void setUp() {
+    spongeHashKeccak1600 = new SpongeHashKeccak1600Output256Impl(new PermutationImpl());
+  }
+
+  private long[] streamHash(final byte[] bytes) {
+    return spongeHashKeccak1600.hash(new ByteArrayInputStream(bytes)).digest();
+  }
+
+  private static byte[] message(final int length) {
+    final byte[] message = new byte[length];
+    for (int i = 0; i < length; i++) {
+      message[i] = (byte) (i * 31 + 7);
+    }
+    return message;
+  }
+
+  @Test
+  @DisplayName("Bytes written in pieces should hash the same as the whole stream")
+  void testPiecesMatchStreamHash() {
+    // given
+    final SpongeHasherKeccak1600Output256Impl hasher = spongeHashKeccak1600.newHasher();
+
+    for (final int length : new int[] {0, 1, 7, 8, 135, 136, 137, 300, 1000}) {
+      final byte[] message = message(length);
+
+      // when
+      hasher.putBytes(message, 0, length / 3);
+      for (int i = length / 3; i < length / 2; i++) {
+        hasher.putByte(message[i]);
+      }
+      hasher.putBytes(message, length / 2, length - length / 2);
+      final long bytesAbsorbed = hasher.bytesAbsorbed();
+
+      // then
+      assertAll(
+          () -> assertEquals(length, bytesAbsorbed),
+          () -> assertArrayEquals(streamHash(message), hasher.digest()));
+    }
+  }
+
+  @Test
+  @DisplayName("A string should hash the same as its UTF-8 bytes")
+  void testStringMatchesUtf8Bytes() {
+    // given
+    final String ascii = "The quick brown fox jumps over the lazy dog. ".repeat(7);
+    final String mixed = "Zażółć gęślą jaźń, 日本語, 😀 and ☃. ".repeat(9);
+    final String unpaired = "a\uD800b\uDC00c\uD83D";
+
+    // when / then
+    assertAll(
+        () ->
+            assertArrayEquals(
+                streamHash(ascii.getBytes(StandardCharsets.UTF_8)),
+                spongeHashKeccak1600.hash(ascii)),
+        () ->
+            assertArrayEquals(
+                streamHash(mixed.getBytes(StandardCharsets.UTF_8)),
+                spongeHashKeccak1600.hash(mixed)),
+        () ->
+            assertArrayEquals(
+                streamHash(unpaired.getBytes(StandardCharsets.UTF_8)),
+                spongeHashKeccak1600.hash(new StringBuilder(unpaired))),
+        () -> assertArrayEquals(streamHash(new byte[0]), spongeHashKeccak1600.hash("")));
+  }
+
+  @Test
+  @DisplayName("Record fields should hash the same as their serialized bytes")
+  void testFieldsMatchSerializedRecord() {
+    // given
+    final byte[] payload = message(50);
+    final String note = "naïve café ☕";
+    final byte[] noteBytes = note.getBytes(StandardCharsets.UTF_8);
+    final Funnel<byte[]> funnel =
+        (bytes, into) ->
+            into.putLong(0x0123456789ABCDEFL)
+                .putInt(-42)
+                .putDouble(Math.PI)
+                .putBoolean(true)
+                .putPrefixedBytes(bytes)
+                .putPrefixedString(note)
+                .putLong(Long.MIN_VALUE);
+    final ByteBuffer expected = ByteBuffer.allocate(87 + noteBytes.length);
+    expected.putLong(0x0123456789ABCDEFL).putInt(-42).putDouble(Math.PI).put((byte) 1);
+    expected.putInt(payload.length).put(payload).putInt(noteBytes.length).put(noteBytes);
+    expected.putLong(Long.MIN_VALUE);
+
+    // when
+    final long[] digest = spongeHashKeccak1600.newHasher().putObject(payload, funnel).digest();
+
+    // then
+    assertArrayEquals(streamHash(expected.array()), digest);
+  }
+
+  @Test
+  @DisplayName("Equal doubles, zeros of both signs and all NaNs should hash the same")
+  void testEqualDoublesHashTheSame() {
+    // given
+    final double otherNaN = Double.longBitsToDouble(0x7FF0000000000001L);
+
+    // when
+    final long[] zero = spongeHashKeccak1600.newHasher().putDouble(0.0).digest();
+    final long[] negativeZero = spongeHashKeccak1600.newHasher().putDouble(-0.0).digest();
+    final long[] nan = spongeHashKeccak1600.newHasher().putDouble(Double.NaN).digest();
+    final long[] otherNaNDigest = spongeHashKeccak1600.newHasher().putDouble(otherNaN).digest();
+
+    // then
+    assertAll(
+        () -> assertArrayEquals(zero, negativeZero),
+        () -> assertArrayEquals(nan, otherNaNDigest));
+  }
+
+  @Test
+  @DisplayName("A hash resumed from a checkpoint should equal the uninterrupted hash")
+  void testResumedHashMatchesUninterruptedHash() throws IOException {
+    // given
+    final byte[] message = message(5000);
+    final Path file = Files.createTempFile("hasher", ".checkpoint");
+
+    try {
+      // when
+      final SpongeHasherKeccak1600Output256Impl interrupted = spongeHashKeccak1600.newHasher();
+      final long read = interrupted.putStream(new ByteArrayInputStream(message), 2999);
+      try (final DataOutputStream out = new DataOutputStream(Files.newOutputStream(file))) {
+        interrupted.writeCheckpoint(out);
+      }
+      final SpongeHasherKeccak1600Output256Impl resumed = spongeHashKeccak1600.newHasher();
+      try (final DataInputStream in = new DataInputStream(Files.newInputStream(file))) {
+        resumed.restore(in);
+      }
+      final long resumedBytes = resumed.bytesAbsorbed();
+      resumed.putBytes(message, 2999, message.length - 2999);
+
+      // then
+      assertAll(
+          () -> assertEquals(2999, read),
+          () -> assertEquals(2999, resumedBytes),
+          () -> assertEquals(4 + 1 + 2 + 8 + 200 + 2999 % 136, Files.size(file)),
+          () -> assertArrayEquals(streamHash(message), resumed.digest()));
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+
+  @Test
+  @DisplayName("Checkpoints of another rate, another version or truncated should be rejected")
+  void testInvalidCheckpointsRejected() {
+    // given
+    final byte[] foreign = spongeHashKeccak1600.newHasher().putLong(1L).checkpoint();
+    foreign[6] = 21; // the rate of Keccak-200
+    final byte[] newerVersion = spongeHashKeccak1600.newHasher().putLong(1L).checkpoint();
+    newerVersion[4]++;
+    final byte[] truncated = spongeHashKeccak1600.newHasher().putLong(1L).checkpoint();
+    final SpongeHasherKeccak1600Output256Impl hasher = spongeHashKeccak1600.newHasher();
+
+    // when / then
+    assertAll(
+        () -> assertThrows(SpongeException.class, () -> hasher.restore(foreign)),
+        () -> assertThrows(SpongeException.class, () -> hasher.restore(newerVersion)),
+        () ->
+            assertThrows(
+                SpongeException.class,
+                () -> hasher.restore(Arrays.copyOf(truncated, truncated.length - 1))),
+        () -> assertEquals(0, hasher.bytesAbsorbed()));
+  }
+}
@@ -0,0 +1,164 @@
+package io.github.destroyerofcode.keccak1600output256;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.github.destroyerofcode.api.SpongeHash;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class SpongeMacKeccak1600Output256ImplTest {
+
+  private SpongeHash<long[]> spongeHashKeccak1600;
+  private SpongeMacKeccak1600Output256Impl mac;
+
+  @BeforeEach
+  void setUp() {
+    spongeHashKeccak1600 = new SpongeHashKeccak1600Output256Impl(new PermutationImpl());
+    mac = new SpongeMacKeccak1600Output256Impl(spongeHashKeccak1600, 4);
+  }
+
+  private static long[] message(final int length) {
+    final long[] message = new long[length];
+    for (int i = 0; i < length; i++) {
+      message[i] = i * 0x9E3779B97F4A7C15L;
+    }
+    return message;
+  }
+
+  @Test
+  @DisplayName("The tag should be the hash of the padded key, message and their lengths")
+  void testTagMatchesHashOfKeyBlocksAndMessage() {
+    // given
+    final long[] key = {1L, 2L, 3L};
+    final long[] message = message(40);
+    // one key block and three message blocks, each length in the last lane of its final block
+    final long[] keyedMessage = new long[4 * Constants.LONGS_IN_r];
+    System.arraycopy(key, 0, keyedMessage, 0, key.length);
+    keyedMessage[Constants.LONGS_IN_r - 1] = key.length;
+    System.arraycopy(message, 0, keyedMessage, Constants.LONGS_IN_r, message.length);
+    keyedMessage[keyedMessage.length - 1] = message.length;
+
+    // when
+    final long[] tag = mac.tag(key, message);
+    final long[] cachedTag = mac.tag(key.clone(), message);
+
+    // then
+    assertAll(
+        () -> assertArrayEquals(spongeHashKeccak1600.hash(keyedMessage), tag),
+        () -> assertArrayEquals(tag, cachedTag),
+        () -> assertEquals(1, mac.cachedKeys()));
+  }
+
+  @Test
+  @DisplayName("A message with room for its length should cost one permutation, a full one two")
+  void testPermutationsPerMessage() {
+    // given
+    final AtomicInteger permutations = new AtomicInteger();
+    final SpongeMacKeccak1600Output256Impl countingMac =
+        new SpongeMacKeccak1600Output256Impl(
+            new SpongeHashKeccak1600Output256Impl(
+                new PermutationImpl() {
+                  @Override
+                  public void permute(final long[] state) {
+                    permutations.incrementAndGet();
+                    super.permute(state);
+                  }
+                }));
+    final long[] key = {42L};
+    countingMac.tag(key, message(1));
+
+    // when
+    permutations.set(0);
+    countingMac.tag(key, message(Constants.LONGS_IN_r - 1));
+    final int shortMessage = permutations.getAndSet(0);
+    countingMac.tag(key, message(Constants.LONGS_IN_r));
+    final int fullMessage = permutations.getAndSet(0);
+    countingMac.tag(key, new long[0]);
+    final int emptyMessage = permutations.get();
+
+    // then
+    assertAll(
+        () -> assertEquals(1, shortMessage),
+        () -> assertEquals(2, fullMessage),
+        () -> assertEquals(1, emptyMessage));
+  }
+
+  @Test
+  @DisplayName("Keys differing only in trailing zeros should give different tags")
+  void testTrailingZerosChangeTheTag() {
+    // given
+    final long[] message = message(5);
+
+    // when
+    final long[] tag = mac.tag(new long[] {7L}, message);
+    final long[] zeroExtendedTag = mac.tag(new long[] {7L, 0L}, message);
+
+    // then
+    assertFalse(Arrays.equals(tag, zeroExtendedTag));
+  }
+
+  @Test
+  @DisplayName("A message extended with zeros should not verify with the tag of the message")
+  void testZeroExtendedMessageRejected() {
+    // given
+    final long[] key = {42L};
+    final long[] message = message(5);
+    final long[] tag = mac.tag(key, message);
+
+    // when & then
+    assertAll(
+        () -> assertFalse(mac.verify(key, Arrays.copyOf(message, 6), tag)),
+        () -> assertFalse(mac.verify(key, Arrays.copyOf(message, Constants.LONGS_IN_r - 1), tag)),
+        () -> assertFalse(mac.verify(key, Arrays.copyOf(message, Constants.LONGS_IN_r), tag)));
+  }
+
+  @Test
+  @DisplayName("Verify should accept the tag of the message only")
+  void testVerify() {
+    // given
+    final long[] key = {42L};
+    final long[] message = message(20);
+    final long[] tag = mac.tag(key, message);
+    final long[] forgedTag = tag.clone();
+    forgedTag[3] ^= 1;
+
+    // when & then
+    assertAll(
+        () -> assertTrue(mac.verify(key, message, tag)),
+        () -> assertFalse(mac.verify(key, message, forgedTag)),
+        () -> assertFalse(mac.verify(new long[] {43L}, message, tag)),
+        () -> assertFalse(mac.verify(key, message, Arrays.copyOf(tag, 3))));
+  }
+
+  @Test
+  @DisplayName("The key cache should stay bounded and tags should not depend on evictions")
+  void testCacheIsBounded() {
+    // given
+    final long[] message = message(3);
+    final long[] firstTag = mac.tag(new long[] {0L}, message);
+
+    // when
+    for (long key = 1; key < 100; key++) {
+      mac.tag(new long[] {key}, message);
+    }
+
+    // then
+    assertAll(
+        () -> assertTrue(mac.cachedKeys() <= 4),
+        () -> assertArrayEquals(firstTag, mac.tag(new long[] {0L}, message)));
+  }
+
+  @Test
+  @DisplayName("Empty keys should be rejected")
+  void testEmptyKeyRejected() {
+    assertThrows(IllegalArgumentException.class, () -> mac.tag(new long[0], message(1)));
+  }
+}
@@ -0,0 +1,177 @@
+package io.github.destroyerofcode.keccak1600output256.chunking;
+
+import static io.github.destroyerofcode.TestUtils.byteArrayToLongArray;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.github.destroyerofcode.api.SpongeHash;
+import io.github.destroyerofcode.keccak1600output256.PermutationImpl;
+import io.github.destroyerofcode.keccak1600output256.SpongeHashKeccak1600Output256Impl;
+import java.io.ByteArrayInputStream;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+public class ContentDefinedChunkerTest {
+
+  private static final int MIN = 256;
+  private static final int AVERAGE = 1024;
+  private static final int MAX = 4096;
+
+  private SpongeHash<long[]> spongeHash;
+  private ContentDefinedChunker chunker;
+
+  @BeforeEach
+  void setUp() {
+    spongeHash = new SpongeHashKeccak1600Output256Impl(new PermutationImpl());
+    chunker = new ContentDefinedChunker(spongeHash, MIN, AVERAGE, MAX, ForkJoinPool.commonPool());
+  }
+
+  private static byte[] randomBytes(final int size, final long seed) {
+    final byte[] bytes = new byte[size];
+    new Random(seed).nextBytes(bytes);
+    return bytes;
+  }
+
+  @Nested
+  @DisplayName("Chunk boundary tests")
+  class ChunkBoundaryTests {
+    @Test
+    @DisplayName("Chunks should cover the whole message contiguously within the size limits")
+    void testChunksCoverMessage() {
+      // given
+      final byte[] message = randomBytes(200_000, 1);
+
+      // when
+      final ChunkList chunks = chunker.chunk(new ByteArrayInputStream(message));
+
+      // then
+      long expectedOffset = 0;
+      for (int i = 0; i < chunks.size(); i++) {
+        assertEquals(expectedOffset, chunks.offset(i));
+        assertTrue(chunks.length(i) <= MAX);
+        if (i < chunks.size() - 1) {
+          assertTrue(chunks.length(i) >= MIN);
+        }
+        expectedOffset += chunks.length(i);
+      }
+      assertEquals(message.length, chunks.totalLength());
+    }
+
+    @Test
+    @DisplayName("Chunk digests should equal the hash of the chunk bytes")
+    void testChunkDigestsMatchHash() {
+      // given
+      final byte[] message = randomBytes(50_000, 2);
+
+      // when
+      final ChunkList chunks = chunker.chunk(new ByteArrayInputStream(message));
+
+      // then
+      for (final Chunk chunk : chunks) {
+        final byte[] bytes =
+            Arrays.copyOfRange(
+                message, (int) chunk.offset(), (int) chunk.offset() + chunk.length());
+        assertArrayEquals(spongeHash.hash(byteArrayToLongArray(bytes)), chunk.digest());
+      }
+    }
+
+    @Test
+    @DisplayName("Content without boundaries should be cut at the maximum chunk size")
+    void testZeroContentCutAtMaximum() {
+      // given
+      final byte[] message = new byte[MAX * 3 + 10];
+
+      // when
+      final ChunkList chunks = chunker.chunk(new ByteArrayInputStream(message));
+
+      // then
+      assertAll(
+          () -> assertEquals(4, chunks.size()),
+          () -> assertEquals(MAX, chunks.length(0)),
+          () -> assertEquals(10, chunks.length(3)));
+    }
+
+    @Test
+    @DisplayName("An empty stream should produce no chunks")
+    void testEmptyStream() {
+      assertEquals(0, chunker.chunk(new ByteArrayInputStream(new byte[0])).size());
+    }
+
+    @Test
+    @DisplayName("Invalid chunk sizes should be rejected")
+    void testInvalidSizes() {
+      assertAll(
+          () ->
+              assertThrows(
+                  IllegalArgumentException.class,
+                  () -> new ContentDefinedChunker(spongeHash, 10, 1000, 4096, Runnable::run)),
+          () ->
+              assertThrows(
+                  IllegalArgumentException.class,
+                  () -> new ContentDefinedChunker(spongeHash, 2048, 1024, 4096, Runnable::run)));
+    }
+  }
+
+  @Nested
+  @DisplayName("Chunk diff tests")
+  class ChunkDiffTests {
+    @Test
+    @DisplayName("Identical messages should have no changed chunks")
+    void testIdenticalMessages() {
+      // given
+      final byte[] message = randomBytes(100_000, 3);
+
+      // when
+      final ChunkDiff diff =
+          ChunkDiff.compare(
+              chunker.chunk(new ByteArrayInputStream(message)),
+              chunker.chunk(new ByteArrayInputStream(message)));
+
+      // then
+      assertAll(
+          () -> assertFalse(diff.hasChanges()),
+          () -> assertEquals(0, diff.bytesToTransfer()));
+    }
+
+    @Test
+    @DisplayName("An insertion should only change the chunks around it")
+    void testInsertionChangesFewChunks() {
+      // given
+      final byte[] base = randomBytes(100_000, 4);
+      final byte[] target = new byte[base.length + 7];
+      System.arraycopy(base, 0, target, 0, 50_000);
+      System.arraycopy(randomBytes(7, 5), 0, target, 50_000, 7);
+      System.arraycopy(base, 50_000, target, 50_007, base.length - 50_000);
+
+      // when
+      final ChunkList targetChunks = chunker.chunk(new ByteArrayInputStream(target));
+      final ChunkDiff diff =
+          ChunkDiff.compare(chunker.chunk(new ByteArrayInputStream(base)), targetChunks);
+
+      // then
+      assertAll(
+          () -> assertTrue(diff.hasChanges()),
+          () -> assertTrue(diff.changed().size() <= 3),
+          () -> assertEquals(targetChunks.size(), diff.changed().size() + diff.reused().size()),
+          () -> {
+            for (final ChunkDiff.Reuse reuse : diff.reused()) {
+              final int from = (int) reuse.baseOffset();
+              final int length = reuse.target().length();
+              final int targetFrom = (int) reuse.target().offset();
+              assertArrayEquals(
+                  Arrays.copyOfRange(base, from, from + length),
+                  Arrays.copyOfRange(target, targetFrom, targetFrom + length));
+            }
+          });
+    }
+  }
+}
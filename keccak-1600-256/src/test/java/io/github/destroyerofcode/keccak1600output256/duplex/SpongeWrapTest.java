@@ -0,0 +1,158 @@
+package io.github.destroyerofcode.keccak1600output256.duplex;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.github.destroyerofcode.api.SpongePermutation;
+import io.github.destroyerofcode.keccak1600output256.PermutationImpl;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class SpongeWrapTest {
+
+  private static final byte[] KEY = "0123456789abcdef".getBytes();
+  private static final byte[] NONCE = {1, 2, 3, 4, 5, 6, 7, 8};
+  private static final byte[] AD = "header".getBytes();
+
+  private SpongePermutation<long[]> permutation;
+
+  @BeforeEach
+  void setUp() {
+    permutation = new PermutationImpl();
+  }
+
+  private static byte[] randomBytes(final int size, final long seed) {
+    final byte[] bytes = new byte[size];
+    new Random(seed).nextBytes(bytes);
+    return bytes;
+  }
+
+  private byte[] seal(final byte[] plaintext, final byte[] ciphertext) {
+    System.arraycopy(plaintext, 0, ciphertext, 0, plaintext.length);
+    final SpongeWrap wrap = SpongeWrap.encrypting(permutation, KEY, NONCE);
+    wrap.associatedData(AD, 0, AD.length);
+    wrap.process(ciphertext, 0, ciphertext.length);
+    return wrap.tag();
+  }
+
+  private boolean open(final byte[] ciphertext, final byte[] tag) {
+    final SpongeWrap wrap = SpongeWrap.decrypting(permutation, KEY, NONCE);
+    wrap.associatedData(AD, 0, AD.length);
+    wrap.process(ciphertext, 0, ciphertext.length);
+    return wrap.verifyTag(tag);
+  }
+
+  @Test
+  @DisplayName("Opening a sealed message should restore the plaintext and accept the tag")
+  void testRoundTrip() {
+    for (final int size : new int[] {0, 1, 7, 8, 133, 134, 135, 268, 1000, 10_001}) {
+      // given
+      final byte[] plaintext = randomBytes(size, size);
+      final byte[] data = new byte[size];
+
+      // when
+      final byte[] tag = seal(plaintext, data);
+      final boolean differs = size >= 8 && !Arrays.equals(plaintext, data);
+      final boolean authentic = open(data, tag);
+
+      // then
+      assertAll(
+          () -> assertEquals(SpongeWrap.TAG_LENGTH_BYTES, tag.length),
+          () -> assertTrue(size < 8 || differs),
+          () -> assertTrue(authentic),
+          () -> assertArrayEquals(plaintext, data));
+    }
+  }
+
+  @Test
+  @DisplayName("Splitting the payload into chunks should not change the ciphertext or the tag")
+  void testChunkingInvariance() {
+    // given
+    final byte[] plaintext = randomBytes(5000, 3);
+    final byte[] whole = new byte[plaintext.length];
+    final byte[] chunked = plaintext.clone();
+    final byte[] wholeTag = seal(plaintext, whole);
+    final SpongeWrap wrap = SpongeWrap.encrypting(permutation, KEY, NONCE);
+    wrap.associatedData(AD, 0, 2);
+    wrap.associatedData(AD, 2, AD.length - 2);
+
+    // when
+    int offset = 0;
+    for (int step = 1; offset < chunked.length; step = step * 3 % 301 + 1) {
+      final int length = Math.min(step, chunked.length - offset);
+      wrap.process(chunked, offset, length);
+      offset += length;
+    }
+
+    // then
+    assertAll(
+        () -> assertArrayEquals(whole, chunked), () -> assertArrayEquals(wholeTag, wrap.tag()));
+  }
+
+  @Test
+  @DisplayName("Direct buffers should be processed like arrays")
+  void testDirectBuffer() {
+    // given
+    final byte[] plaintext = randomBytes(1001, 4);
+    final byte[] sealed = new byte[plaintext.length];
+    final byte[] tag = seal(plaintext, sealed);
+    final ByteBuffer buffer = ByteBuffer.allocateDirect(plaintext.length + 3);
+    buffer.position(3);
+    buffer.put(plaintext).position(3);
+    final SpongeWrap wrap = SpongeWrap.encrypting(permutation, KEY, NONCE);
+    wrap.associatedData(AD, 0, AD.length);
+
+    // when
+    wrap.process(buffer);
+
+    // then
+    final byte[] bufferCiphertext = new byte[plaintext.length];
+    buffer.get(3, bufferCiphertext);
+    assertAll(
+        () -> assertEquals(buffer.limit(), buffer.position()),
+        () -> assertArrayEquals(sealed, bufferCiphertext),
+        () -> assertArrayEquals(tag, wrap.tag()));
+  }
+
+  @Test
+  @DisplayName("Tampering with the ciphertext, the tag or trailing zeros should be detected")
+  void testTamperingDetected() {
+    // given
+    final byte[] plaintext = randomBytes(300, 5);
+    final byte[] ciphertext = new byte[plaintext.length];
+    final byte[] tag = seal(plaintext, ciphertext);
+    final byte[] flipped = ciphertext.clone();
+    flipped[150] ^= 1;
+    final byte[] badTag = tag.clone();
+    badTag[0] ^= 1;
+    final byte[] extended = Arrays.copyOf(ciphertext, ciphertext.length + 1);
+
+    // when & then
+    assertAll(
+        () -> assertFalse(open(flipped, tag)),
+        () -> assertFalse(open(ciphertext.clone(), badTag)),
+        () -> assertFalse(open(extended, tag)),
+        () -> assertTrue(open(ciphertext.clone(), tag)));
+  }
+
+  @Test
+  @DisplayName("Associated data should not be accepted after the payload")
+  void testPhaseOrder() {
+    // given
+    final SpongeWrap wrap = SpongeWrap.encrypting(permutation, KEY, NONCE);
+    wrap.process(new byte[10], 0, 10);
+
+    // when & then
+    assertThrows(IllegalStateException.class, () -> wrap.associatedData(AD, 0, AD.length));
+    wrap.tag();
+    assertThrows(IllegalStateException.class, wrap::tag);
+  }
+}
@@ -0,0 +1,104 @@
+package io.github.destroyerofcode.keccak1600output256.pow;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.github.destroyerofcode.keccak1600output256.PermutationImpl;
+import io.github.destroyerofcode.keccak1600output256.SpongeHashKeccak1600Output256Impl;
+import java.util.OptionalLong;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class NonceSearchTest {
+
+  private SpongeHashKeccak1600Output256Impl spongeHashKeccak1600;
+  private NonceSearch nonceSearch;
+
+  @BeforeEach
+  void setUp() {
+    spongeHashKeccak1600 = new SpongeHashKeccak1600Output256Impl(new PermutationImpl());
+    nonceSearch = new NonceSearch(spongeHashKeccak1600, 3);
+  }
+
+  @AfterEach
+  void tearDown() {
+    nonceSearch.close();
+  }
+
+  private static byte[] prefix(final int length) {
+    final byte[] prefix = new byte[length];
+    for (int i = 0; i < length; i++) {
+      prefix[i] = (byte) (i * 17 + 1);
+    }
+    return prefix;
+  }
+
+  @Test
+  @DisplayName("Found nonces should pass the verifier for prefixes ending anywhere in a block")
+  void testFoundNoncesVerify() {
+    for (final int length : new int[] {0, 5, 128, 130, 135, 136, 300}) {
+      // given
+      final byte[] prefix = prefix(length);
+
+      // when
+      final OptionalLong nonce = nonceSearch.search(prefix, 8);
+
+      // then
+      assertAll(
+          () -> assertTrue(nonce.isPresent()),
+          () -> assertTrue(nonceSearch.verify(prefix, nonce.getAsLong(), 8), "length " + length));
+    }
+  }
+
+  @Test
+  @DisplayName("The search should agree with the verifier on every nonce of a range")
+  void testSearchAgreesWithVerifier() {
+    // given
+    final byte[] prefix = prefix(131);
+    long expected = -1;
+    for (long nonce = 1000; nonce < 1000 + 4096 && expected < 0; nonce++) {
+      if (nonceSearch.verify(prefix, nonce, 6)) {
+        expected = nonce;
+      }
+    }
+
+    // when
+    final OptionalLong none = nonceSearch.search(prefix, 6, 1000, expected - 1000);
+    final OptionalLong single;
+    try (NonceSearch sequential = new NonceSearch(spongeHashKeccak1600, 1)) {
+      single = sequential.search(prefix, 6, 1000, 4096);
+    }
+
+    // then
+    final long found = expected;
+    assertAll(
+        () -> assertTrue(found >= 0),
+        () -> assertFalse(none.isPresent()),
+        () -> assertEquals(found, single.getAsLong()));
+  }
+
+  @Test
+  @DisplayName("Negative attempts, overflowing ranges and closed searches should be rejected")
+  void testInvalidSearchesRejected() {
+    // given
+    final byte[] prefix = prefix(10);
+
+    // when & then
+    assertAll(
+        () ->
+            assertThrows(
+                IllegalArgumentException.class, () -> nonceSearch.search(prefix, 4, 0, -1)),
+        () ->
+            assertThrows(
+                IllegalArgumentException.class,
+                () -> nonceSearch.search(prefix, 4, Long.MAX_VALUE - 10, 11)),
+        () -> assertFalse(nonceSearch.search(prefix, 256, Long.MAX_VALUE - 10, 10).isPresent()));
+    nonceSearch.close();
+    assertThrows(IllegalStateException.class, () -> nonceSearch.search(prefix, 4));
+  }
+}
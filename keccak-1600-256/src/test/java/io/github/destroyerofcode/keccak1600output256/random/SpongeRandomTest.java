@@ -0,0 +1,95 @@
+package io.github.destroyerofcode.keccak1600output256.random;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.github.destroyerofcode.keccak1600output256.PermutationImpl;
+import java.nio.ByteBuffer;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class SpongeRandomTest {
+
+  private static final byte[] SEED = "test data seed".getBytes();
+
+  @Test
+  @DisplayName("The same seed should give the same output")
+  void testDeterministic() {
+    // given
+    final SpongeRandom first = new SpongeRandom(new PermutationImpl(), SEED);
+    final SpongeRandom second = new SpongeRandom(new PermutationImpl(), SEED);
+    final SpongeRandom other = new SpongeRandom(new PermutationImpl(), "other seed".getBytes());
+
+    // when
+    final long[] firstLongs = first.longs(100).toArray();
+    final long[] secondLongs = second.longs(100).toArray();
+    final long[] otherLongs = other.longs(100).toArray();
+
+    // then
+    assertAll(
+        () -> assertArrayEquals(firstLongs, secondLongs),
+        () -> assertFalse(Arrays.equals(firstLongs, otherLongs)));
+  }
+
+  @Test
+  @DisplayName("Bulk bytes should be the big-endian bytes of the same longs")
+  void testBulkBytesMatchLongs() {
+    // given
+    final SpongeRandom longs = new SpongeRandom(new PermutationImpl(), SEED);
+    final SpongeRandom bytes = new SpongeRandom(new PermutationImpl(), SEED);
+    final ByteBuffer expected = ByteBuffer.allocate(1000 * Long.BYTES);
+    for (int i = 0; i < 1000; i++) {
+      expected.putLong(longs.nextLong());
+    }
+    final byte[] actual = new byte[1000 * Long.BYTES - 3];
+
+    // when
+    bytes.nextBytes(actual);
+
+    // then
+    assertAll(
+        () -> assertArrayEquals(Arrays.copyOf(expected.array(), actual.length), actual),
+        () -> assertEquals(longs.nextLong(), bytes.nextLong()));
+  }
+
+  @Test
+  @DisplayName("Reseeding should change the output that follows")
+  void testReseed() {
+    // given
+    final SpongeRandom reseeded = new SpongeRandom(new PermutationImpl(), SEED);
+    final SpongeRandom plain = new SpongeRandom(new PermutationImpl(), SEED);
+
+    // when
+    reseeded.reseed(new byte[] {0});
+
+    // then
+    assertNotEquals(plain.nextLong(), reseeded.nextLong());
+  }
+
+  @Test
+  @DisplayName("Per-thread and striped generators should serve many threads")
+  void testPerThreadAndStriped() {
+    // given
+    final StripedSpongeRandom striped = new StripedSpongeRandom(3, new SecureRandom());
+
+    // when
+    final SpongeRandom otherThread = CompletableFuture.supplyAsync(SpongeRandom::current).join();
+    final long[] stripedLongs =
+        CompletableFuture.supplyAsync(() -> striped.longs(1000).toArray()).join();
+
+    // then
+    assertAll(
+        () -> assertSame(SpongeRandom.current(), SpongeRandom.current()),
+        () -> assertTrue(otherThread != SpongeRandom.current()),
+        () -> assertEquals(4, striped.stripes()),
+        () -> assertEquals(1000, Arrays.stream(stripedLongs).distinct().count()));
+  }
+}
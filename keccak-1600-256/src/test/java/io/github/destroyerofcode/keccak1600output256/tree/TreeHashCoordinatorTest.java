@@ -0,0 +1,205 @@
+package io.github.destroyerofcode.keccak1600output256.tree;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import io.github.destroyerofcode.exception.SpongeException;
+import io.github.destroyerofcode.hasher.SpongeHasher;
+import io.github.destroyerofcode.keccak1600output256.PermutationImpl;
+import io.github.destroyerofcode.keccak1600output256.SpongeHashKeccak1600Output256Impl;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class TreeHashCoordinatorTest {
+
+  private static final int CHUNK_SIZE = 1000;
+
+  @TempDir Path directory;
+
+  private SpongeHashKeccak1600Output256Impl spongeHashKeccak1600;
+  private TreeHashWorker first;
+  private TreeHashWorker second;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    spongeHashKeccak1600 = new SpongeHashKeccak1600Output256Impl(new PermutationImpl());
+    first = TreeHashWorker.start(spongeHashKeccak1600, 0);
+    second = TreeHashWorker.start(spongeHashKeccak1600, 0);
+  }
+
+  @AfterEach
+  void tearDown() throws IOException {
+    first.close();
+    second.close();
+  }
+
+  private Path file(final int size) throws IOException {
+    final byte[] bytes = new byte[size];
+    for (int i = 0; i < size; i++) {
+      bytes[i] = (byte) (i * 31 + 7);
+    }
+    return Files.write(directory.resolve("archive-" + size), bytes);
+  }
+
+  @Test
+  @DisplayName("The distributed hash should equal the single-process tree hash")
+  void testMatchesTreeHash() throws IOException {
+    try (TreeHashCoordinator coordinator =
+        new TreeHashCoordinator(
+            spongeHashKeccak1600, List.of(first.address(), second.address()), CHUNK_SIZE, 3)) {
+      for (final int size : new int[] {0, 999, 1000, 4321, 7000}) {
+        // given
+        final Path file = file(size);
+
+        // when
+        final long[] digest = coordinator.hash(file);
+
+        // then
+        assertArrayEquals(TreeHash.hash(spongeHashKeccak1600, file, CHUNK_SIZE), digest);
+      }
+    }
+  }
+
+  @Test
+  @DisplayName("The single chunk root should be the root over the leaf of the whole file")
+  void testSingleChunkEncoding() throws IOException {
+    // given
+    final Path file = file(10);
+    final long[] leaf =
+        spongeHashKeccak1600
+            .newHasher()
+            .putByte((byte) 0)
+            .putLong(0)
+            .putBytes(Files.readAllBytes(file))
+            .digest();
+    final SpongeHasher<long[]> root =
+        spongeHashKeccak1600.newHasher().putByte((byte) 2).putLong(10).putInt(64);
+    for (final long lane : leaf) {
+      root.putLong(lane);
+    }
+
+    // when
+    final long[] digest = TreeHash.hash(spongeHashKeccak1600, file, 64);
+
+    // then
+    assertArrayEquals(root.digest(), digest);
+  }
+
+  @Test
+  @DisplayName("Chunks should be retried on live workers and not be sent again once done")
+  void testRetriesAndCache() throws IOException {
+    // given
+    final Path file = file(9500);
+    final InetSocketAddress dead = second.address();
+    second.close();
+
+    try (TreeHashCoordinator coordinator =
+        new TreeHashCoordinator(
+            spongeHashKeccak1600, List.of(dead, first.address()), CHUNK_SIZE, 3)) {
+      // when
+      final long[] digest = coordinator.hash(file);
+      final long sent = coordinator.chunksHashed();
+      final long[] cached = coordinator.hash(file);
+      first.close();
+      final long[] stillCached = coordinator.hash(file);
+
+      // then
+      final long[] expected = TreeHash.hash(spongeHashKeccak1600, file, CHUNK_SIZE);
+      assertAll(
+          () -> assertArrayEquals(expected, digest),
+          () -> assertEquals(10, sent),
+          () -> assertArrayEquals(expected, cached),
+          () -> assertArrayEquals(expected, stillCached),
+          () -> assertEquals(10, coordinator.chunksHashed()));
+      Files.write(file, new byte[] {1}, StandardOpenOption.APPEND);
+      assertThrows(SpongeException.class, () -> coordinator.hash(file));
+    }
+  }
+
+  @Test
+  @DisplayName("A file changed while it is hashed should fail the hash and drop its chunks")
+  void testFileChangedDuringHash() throws IOException {
+    // given
+    final Path file = file(5000);
+    final AtomicBoolean changed = new AtomicBoolean();
+
+    try (ServerSocket relay = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+        TreeHashCoordinator coordinator =
+            new TreeHashCoordinator(
+                spongeHashKeccak1600,
+                List.of((InetSocketAddress) relay.getLocalSocketAddress()),
+                CHUNK_SIZE,
+                3)) {
+      // the file is appended to when the coordinator connects, before any chunk is read
+      final Thread relayThread =
+          new Thread(
+              () -> {
+                try {
+                  while (true) {
+                    final Socket client = relay.accept();
+                    if (changed.compareAndSet(false, true)) {
+                      Files.write(file, new byte[] {1}, StandardOpenOption.APPEND);
+                    }
+                    final Socket upstream = new Socket();
+                    upstream.connect(first.address());
+                    pipe(client.getInputStream(), upstream.getOutputStream(), client, upstream);
+                    pipe(upstream.getInputStream(), client.getOutputStream(), client, upstream);
+                  }
+                } catch (IOException e) {
+                  // the relay is closed
+                }
+              });
+      relayThread.setDaemon(true);
+      relayThread.start();
+
+      // when
+      assertThrows(SpongeException.class, () -> coordinator.hash(file));
+      final long sent = coordinator.chunksHashed();
+      final long[] digest = coordinator.hash(file);
+
+      // then
+      assertAll(
+          () -> assertEquals(5, sent),
+          () -> assertEquals(11, coordinator.chunksHashed()),
+          () -> assertArrayEquals(TreeHash.hash(spongeHashKeccak1600, file, CHUNK_SIZE), digest));
+    }
+  }
+
+  private static void pipe(
+      final InputStream from, final OutputStream to, final Socket client, final Socket upstream) {
+    final Thread thread =
+        new Thread(
+            () -> {
+              try {
+                from.transferTo(to);
+              } catch (IOException e) {
+                // one side closed the connection
+              }
+              try {
+                client.close();
+                upstream.close();
+              } catch (IOException e) {
+                // the connection is dropped either way
+              }
+            });
+    thread.setDaemon(true);
+    thread.start();
+  }
+}
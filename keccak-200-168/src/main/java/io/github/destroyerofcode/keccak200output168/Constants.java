@@ -19,9 +19,18 @@ public class Constants {
   // this value is up to debate. It is also the output size.
   public static final int r = 168;
   public static final int BYTES_IN_r = r / BITS_IN_BYTE;
+  // streams are read in chunks of the whole blocks that fit into 64 KiB
+  public static final int STREAM_CHUNK_BYTES = (64 * 1024 / BYTES_IN_r) * BYTES_IN_r;
   // capacity
   public static final int c = b - r; // 32
 
+  // random 25 bytes the state starts from, shared by the array and the primitive hash. Never
+  // modified, clone it to get a state
+  public static final byte[] INIT_STATE = {
+    113, -77, 65, -26, -43, -17, 83, -4, -15, -24, -116, -16, 120, -82, -89, -57, -39, 93, 59, 10,
+    -92, 16, -119, -91, 1
+  };
+
   // size 25
   public static byte[] KECCAK_200_PI_LANE = {
     10, 7, 11, 17, 18, 3, 5, 16, 8, 21, 24, 4, 15, 23, 19, 13, 12, 2, 20, 14, 22, 9, 6, 1
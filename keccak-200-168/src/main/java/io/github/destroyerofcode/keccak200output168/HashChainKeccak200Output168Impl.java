@@ -0,0 +1,34 @@
+package io.github.destroyerofcode.keccak200output168;
+
+import io.github.destroyerofcode.api.SpongeHash;
+import io.github.destroyerofcode.chain.HashChain;
+
+/**
+ * Hash chain of Keccak-200 digests. Every step hashes the 21 digest bytes as a single block, the
+ * same as {@link SpongeHash#hash(Object)} of the digest.
+ */
+public class HashChainKeccak200Output168Impl extends HashChain<byte[]> {
+
+  /**
+   * @param spongeHash The Keccak-200 hash the chain is computed with.
+   * @param seed The first element of the chain, {@link Constants#OUTPUT_LENGTH_BYTES} bytes.
+   * @param length The index of the last element of the chain.
+   * @param checkpointInterval The number of steps between checkpoints.
+   */
+  public HashChainKeccak200Output168Impl(
+      final SpongeHash<byte[]> spongeHash,
+      final byte[] seed,
+      final long length,
+      final int checkpointInterval) {
+    super(spongeHash, seed, length, checkpointInterval, Constants.OUTPUT_LENGTH_BYTES, byte[]::new);
+  }
+
+  @Override
+  protected boolean isEqual(final byte[] expected, final byte[] actual, final int offset) {
+    int difference = 0;
+    for (int i = 0; i < Constants.OUTPUT_LENGTH_BYTES; i++) {
+      difference |= expected[i] ^ actual[offset + i];
+    }
+    return difference == 0;
+  }
+}
@@ -2,12 +2,24 @@ package io.github.destroyerofcode.keccak200output168;
 
 import static io.github.destroyerofcode.common.Utils.nearestGreaterMultiple;
 import static io.github.destroyerofcode.keccak200output168.Constants.BYTES_IN_r;
+import static io.github.destroyerofcode.keccak200output168.Constants.INIT_STATE;
+import static io.github.destroyerofcode.keccak200output168.Constants.STREAM_CHUNK_BYTES;
 
 import io.github.destroyerofcode.api.SpongeHash;
 import io.github.destroyerofcode.api.SpongePermutation;
+import io.github.destroyerofcode.api.StreamDigest;
+import io.github.destroyerofcode.bulk.BulkHash;
 import io.github.destroyerofcode.exception.SpongeException;
+import io.github.destroyerofcode.hasher.SpongeHasher;
+import io.github.destroyerofcode.jfr.HashEvent;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
 
 /**
  * Implements the SpongeHash interface for Keccak-200 with an output of 168 bits. This class
@@ -33,26 +45,46 @@ public class SpongeHashKeccak200Output168Impl implements SpongeHash<byte[]> {
    * @return The hashed byte array.
    */
   @Override
-  public byte[] hash(byte[] message) {
+  public byte[] hash(final byte[] message) {
+    return hash(message, 0, message.length);
+  }
+
+  /**
+   * Hashes a range of a byte array using the Keccak-200 sponge construction. Full blocks are
+   * absorbed straight from the array and the last partial block is absorbed as if it was padded
+   * with 0s, so the message is never copied.
+   *
+   * @param message The array holding the message.
+   * @param offset The index of the first byte of the message.
+   * @param length The number of bytes of the message.
+   * @return The hashed byte array.
+   */
+  @Override
+  public byte[] hash(final byte[] message, final int offset, final int length) {
+    Objects.checkFromIndexSize(offset, length, message.length);
+    final HashEvent event = new HashEvent();
+    event.begin();
+
     /* b is size in bits, 8 is size of byte on every architecture.
     So if b=200, it allocates 25 bytes */
     final byte[] state = initState();
-    final byte[] messageBlock = new byte[BYTES_IN_r];
 
-    message = applyPadding(message);
-
-    for (int i = 0; i < message.length; i += BYTES_IN_r) {
+    try {
       // message block is the 168 bits (21 bytes)
-      // from the original message copy 168 bits to the message block
-      System.arraycopy(message, i, messageBlock, 0, BYTES_IN_r);
-      absorb(state, messageBlock);
-    }
+      for (int i = 0; i < length; i += BYTES_IN_r) {
+        absorb(state, message, offset + i, Math.min(BYTES_IN_r, length - i));
+      }
 
-    return squeeze(state);
+      return squeeze(state);
+    } finally {
+      event.end(getClass(), "hash", length, (length + BYTES_IN_r - 1) / BYTES_IN_r);
+    }
   }
 
   /**
-   * Hashes data from an InputStream using the Keccak-200 sponge construction.
+   * Hashes data from an InputStream using the Keccak-200 sponge construction. The stream is read
+   * in large chunks, and if it ends before messageSizeBytes bytes the missing bytes are hashed as
+   * 0s.
    *
    * @param message The InputStream containing the data to hash.
    * @param messageSizeBytes The size of the data in bytes.
@@ -63,26 +95,109 @@ public class SpongeHashKeccak200Output168Impl implements SpongeHash<byte[]> {
   public byte[] hash(final InputStream message, final int messageSizeBytes) {
     /* b is size in bits, 8 is size of byte on every architecture.
     So if b=200, it allocates 25 bytes */
+    final HashEvent event = new HashEvent();
+    event.begin();
+
     final byte[] state = initState();
 
     try {
-      // message block is the 168 bits (21 bytes)
-      // from the original message copy 168 bits to the message block
-      for (int i = 0; messageSizeBytes > i; i += BYTES_IN_r) {
-        byte[] messageBlock = new byte[BYTES_IN_r];
-        final int readBytes = message.readNBytes(messageBlock, 0, BYTES_IN_r);
-
-        if (readBytes < BYTES_IN_r) {
-          messageBlock = applyPadding(messageBlock);
-        }
-        absorb(state, messageBlock);
-      }
+      absorbStream(state, message, messageSizeBytes, true);
       return squeeze(state);
     } catch (IOException e) {
       throw new SpongeException("An error has occurred when hashing: ", e);
+    } finally {
+      event.end(
+          getClass(),
+          "hashStream",
+          messageSizeBytes,
+          (messageSizeBytes + BYTES_IN_r - 1) / BYTES_IN_r);
+    }
+  }
+
+  /**
+   * Hashes data from an InputStream until its end using the Keccak-200 sponge construction.
+   *
+   * @param message The InputStream containing the data to hash.
+   * @return The hashed byte array and the number of bytes read.
+   * @throws SpongeException If an I/O error occurs.
+   */
+  @Override
+  public StreamDigest<byte[]> hash(final InputStream message) {
+    final HashEvent event = new HashEvent();
+    event.begin();
+
+    final byte[] state = initState();
+    long bytesRead = 0;
+
+    try {
+      bytesRead = absorbStream(state, message, Long.MAX_VALUE, false);
+      return new StreamDigest<>(squeeze(state), bytesRead);
+    } catch (IOException e) {
+      throw new SpongeException("An error has occurred when hashing: ", e);
+    } finally {
+      event.end(getClass(), "hashStream", bytesRead, (bytesRead + BYTES_IN_r - 1) / BYTES_IN_r);
+    }
+  }
+
+  /**
+   * Hashes the UTF-8 encoding of a string. The characters are encoded straight into a block buffer
+   * which is absorbed whenever it fills, so the encoded string is never held in full.
+   *
+   * @param message The string to hash.
+   * @return The same hash as {@link #hash(byte[])} of the UTF-8 bytes of the string.
+   */
+  public byte[] hash(final CharSequence message) {
+    final HashEvent event = new HashEvent();
+    event.begin();
+
+    final SpongeHasher<byte[]> hasher = newHasher().putString(message);
+    final long bytes = hasher.bytesAbsorbed();
+    try {
+      return hasher.digest();
+    } finally {
+      event.end(getClass(), "hashString", bytes, (bytes + BYTES_IN_r - 1) / BYTES_IN_r);
     }
   }
 
+  /**
+   * @return a new incremental hasher starting from the initial state.
+   */
+  public SpongeHasherKeccak200Output168Impl newHasher() {
+    return new SpongeHasherKeccak200Output168Impl(this);
+  }
+
+  /**
+   * Hashes many messages on the common {@link ForkJoinPool}, the work split by their sizes.
+   *
+   * @param messages The messages.
+   * @return the digests in one array, message i at index i times {@link
+   *     Constants#OUTPUT_LENGTH_BYTES}.
+   */
+  public byte[] hashAll(final List<byte[]> messages) {
+    return bulkHash().hashAll(messages);
+  }
+
+  /**
+   * Hashes the remaining bytes of many buffers on the common {@link ForkJoinPool}. The buffer
+   * positions are not moved.
+   *
+   * @param messages The messages.
+   * @return the digests in one array, in the order of the stream.
+   */
+  public byte[] hashAll(final Stream<ByteBuffer> messages) {
+    return bulkHash().hashAll(messages);
+  }
+
+  private BulkHash<byte[]> bulkHash() {
+    return new BulkHash<>(
+        getClass(),
+        this::newHasher,
+        byte[]::new,
+        Constants.OUTPUT_LENGTH_BYTES,
+        BYTES_IN_r,
+        ForkJoinPool.commonPool());
+  }
+
   /**
    * Applies padding to the message to fit the sponge construction requirements.
    *
@@ -107,11 +222,7 @@ public class SpongeHashKeccak200Output168Impl implements SpongeHash<byte[]> {
    */
   @Override
   public byte[] initState() {
-    // random 25 bytes
-    return new byte[] {
-      113, -77, 65, -26, -43, -17, 83, -4, -15, -24, -116, -16, 120, -82, -89, -57, -39, 93, 59, 10,
-      -92, 16, -119, -91, 1
-    };
+    return INIT_STATE.clone();
   }
 
   /**
@@ -122,7 +233,20 @@ public class SpongeHashKeccak200Output168Impl implements SpongeHash<byte[]> {
    */
   @Override
   public void absorb(final byte[] state, final byte[] message) {
-    mixStateAndMessage(state, message);
+    absorb(state, message, 0, message.length);
+  }
+
+  /**
+   * Absorbs one block of a larger message into the state, reading it straight from the message.
+   *
+   * @param state The current state of the sponge construction.
+   * @param message The array holding the message.
+   * @param offset The index of the first byte of the block.
+   * @param length The number of bytes of the block. A shorter block than r is padded with 0s.
+   */
+  @Override
+  public void absorb(final byte[] state, final byte[] message, final int offset, final int length) {
+    mixStateAndMessage(state, message, offset, Math.min(length, BYTES_IN_r));
     spongePermutation.permute(state);
   }
 
@@ -153,11 +277,52 @@ public class SpongeHashKeccak200Output168Impl implements SpongeHash<byte[]> {
    * of the message. 168 bits because that is the length of r of the message.
    *
    * @param state The current state of the sponge construction.
-   * @param message The message block to be mixed with the state.
+   * @param message The message to be mixed with the state.
+   * @param offset The index of the first byte of the block in the message.
+   * @param length The number of bytes of the block, the rest of the rate is left as is.
    */
-  private static void mixStateAndMessage(byte[] state, byte[] message) {
-    for (int i = 0; i < message.length; i++) {
-      state[i] = (byte) (message[i] ^ state[i]);
+  private static void mixStateAndMessage(
+      final byte[] state, final byte[] message, final int offset, final int length) {
+    for (int i = 0; i < length; i++) {
+      state[i] = (byte) (message[offset + i] ^ state[i]);
+    }
+  }
+
+  /**
+   * Absorbs a stream in chunks of whole blocks, every chunk is read into the same buffer and
+   * absorbed straight from it. Only the last chunk can be shorter, its last block is padded with
+   * 0s.
+   *
+   * @param state The current state of the sponge construction.
+   * @param message The stream to absorb.
+   * @param maxBytes The number of bytes to absorb at most.
+   * @param zeroFill Whether to absorb 0s for the bytes missing when the stream ends early.
+   * @return the number of bytes absorbed.
+   * @throws IOException If reading the stream fails.
+   */
+  private long absorbStream(
+      final byte[] state, final InputStream message, final long maxBytes, final boolean zeroFill)
+      throws IOException {
+    final byte[] chunk = new byte[STREAM_CHUNK_BYTES];
+    long absorbed = 0;
+
+    while (absorbed < maxBytes) {
+      final int wanted = (int) Math.min(chunk.length, maxBytes - absorbed);
+      int read = message.readNBytes(chunk, 0, wanted);
+      if (zeroFill && read < wanted) {
+        Arrays.fill(chunk, read, wanted, (byte) 0);
+        read = wanted;
+      }
+
+      for (int i = 0; i < read; i += BYTES_IN_r) {
+        absorb(state, chunk, i, Math.min(BYTES_IN_r, read - i));
+      }
+
+      absorbed += read;
+      if (read < wanted) {
+        break;
+      }
     }
+    return absorbed;
   }
 }
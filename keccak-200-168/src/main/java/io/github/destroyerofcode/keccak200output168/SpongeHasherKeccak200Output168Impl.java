@@ -0,0 +1,41 @@
+package io.github.destroyerofcode.keccak200output168;
+
+import io.github.destroyerofcode.api.SpongeHash;
+import io.github.destroyerofcode.hasher.SpongeHasher;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Incremental Keccak-200 hashing of bytes. Blocks are absorbed straight from the block buffer or
+ * the caller's array, as the state is made of bytes too.
+ */
+public class SpongeHasherKeccak200Output168Impl extends SpongeHasher<byte[]> {
+
+  /**
+   * @param spongeHash The Keccak-200 hash whose states are updated.
+   */
+  public SpongeHasherKeccak200Output168Impl(final SpongeHash<byte[]> spongeHash) {
+    super(spongeHash, Constants.BYTES_IN_r);
+  }
+
+  @Override
+  protected void absorbBlock(final byte[] source, final int offset, final int length) {
+    spongeHash.absorb(state, source, offset, length);
+  }
+
+  @Override
+  protected void copyDigest(final byte[] out, final int offset) {
+    System.arraycopy(state, 0, out, offset, Constants.OUTPUT_LENGTH_BYTES);
+  }
+
+  @Override
+  protected void writeState(final DataOutput out) throws IOException {
+    out.write(state);
+  }
+
+  @Override
+  protected void readState(final DataInput in) throws IOException {
+    in.readFully(state);
+  }
+}
@@ -0,0 +1,42 @@
+package io.github.destroyerofcode.keccak200output168;
+
+import io.github.destroyerofcode.api.SpongeHash;
+import io.github.destroyerofcode.mac.SpongeMac;
+import java.security.MessageDigest;
+
+/**
+ * Keyed message authentication with Keccak-200 and 168-bit tags. Keys, messages and tags are byte
+ * arrays. A length is written as a big-endian int in the last 4 bytes of the rate.
+ */
+public class SpongeMacKeccak200Output168Impl extends SpongeMac<byte[]> {
+
+  /**
+   * Constructs a MAC caching the states of up to {@link #DEFAULT_MAX_CACHED_KEYS} keys.
+   *
+   * @param spongeHash The Keccak-200 hash the tags are computed with.
+   */
+  public SpongeMacKeccak200Output168Impl(final SpongeHash<byte[]> spongeHash) {
+    this(spongeHash, DEFAULT_MAX_CACHED_KEYS);
+  }
+
+  /**
+   * @param spongeHash The Keccak-200 hash the tags are computed with.
+   * @param maxCachedKeys The number of keys whose absorbed states are cached.
+   */
+  public SpongeMacKeccak200Output168Impl(
+      final SpongeHash<byte[]> spongeHash, final int maxCachedKeys) {
+    super(spongeHash, Constants.BYTES_IN_r, Integer.BYTES, maxCachedKeys);
+  }
+
+  @Override
+  protected void putLength(final byte[] block, final int offset, final int length) {
+    for (int i = 0; i < Integer.BYTES; i++) {
+      block[offset + i] = (byte) (length >>> ((Integer.BYTES - 1 - i) * Byte.SIZE));
+    }
+  }
+
+  @Override
+  protected boolean isEqual(final byte[] expected, final byte[] actual) {
+    return MessageDigest.isEqual(expected, actual);
+  }
+}
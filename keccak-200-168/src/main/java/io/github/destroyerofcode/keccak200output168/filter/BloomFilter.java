@@ -0,0 +1,143 @@
+package io.github.destroyerofcode.keccak200output168.filter;
+
+import io.github.destroyerofcode.api.SpongeHash;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.List;
+
+/**
+ * Bloom filter hashing every key once with Keccak-200 and deriving its k bit positions from the
+ * digest, see {@link Probes}. The bits are packed into a long[] and set with atomic ORs, so
+ * concurrent {@link #put(byte[])} and {@link #mightContain(byte[])} calls do not lock.
+ */
+public class BloomFilter {
+
+  private static final VarHandle WORDS = MethodHandles.arrayElementVarHandle(long[].class);
+
+  private final SpongeHash<byte[]> spongeHash;
+  private final long[] words;
+  private final long bits;
+  private final int hashFunctions;
+
+  /**
+   * Constructs a filter sized for a number of keys and a false positive probability.
+   *
+   * @param spongeHash The Keccak-200 hash the keys are hashed with.
+   * @param expectedInsertions The number of keys the filter is sized for.
+   * @param falsePositiveProbability The probability of a false positive once the filter holds the
+   *     expected number of keys, between 0 and 1 exclusive.
+   */
+  public BloomFilter(
+      final SpongeHash<byte[]> spongeHash,
+      final long expectedInsertions,
+      final double falsePositiveProbability) {
+    if (expectedInsertions <= 0) {
+      throw new IllegalArgumentException("Expected insertions must be greater than 0.");
+    }
+    if (!(falsePositiveProbability > 0 && falsePositiveProbability < 1)) {
+      throw new IllegalArgumentException("False positive probability must be between 0 and 1.");
+    }
+    final double ln2 = Math.log(2);
+    final long optimalBits =
+        (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveProbability) / (ln2 * ln2));
+    final long wordCount = (optimalBits + Long.SIZE - 1) / Long.SIZE;
+    if (wordCount > Integer.MAX_VALUE - 8) {
+      throw new IllegalArgumentException("The filter would not fit into an array.");
+    }
+    this.spongeHash = spongeHash;
+    this.words = new long[(int) wordCount];
+    this.bits = wordCount * Long.SIZE;
+    this.hashFunctions = Math.max(1, (int) Math.round((double) bits / expectedInsertions * ln2));
+  }
+
+  /**
+   * Adds a key.
+   *
+   * @param key The key.
+   * @return true if the key was not in the filter before, false if it might have been.
+   */
+  public boolean put(final byte[] key) {
+    final byte[] digest = spongeHash.hash(key);
+    return put(Probes.h1(digest), Probes.h2(digest));
+  }
+
+  public boolean mightContain(final byte[] key) {
+    final byte[] digest = spongeHash.hash(key);
+    return mightContain(Probes.h1(digest), Probes.h2(digest));
+  }
+
+  /**
+   * Adds keys, hashing all of them before setting any bit.
+   *
+   * @param keys The keys.
+   * @return the number of keys that were not in the filter before.
+   */
+  public int putAll(final List<byte[]> keys) {
+    final long[] seeds = Probes.seeds(spongeHash, keys);
+    int added = 0;
+    for (int i = 0; i < seeds.length; i += 2) {
+      if (put(seeds[i], seeds[i + 1])) {
+        added++;
+      }
+    }
+    return added;
+  }
+
+  /**
+   * Checks keys, hashing all of them before probing any bit.
+   *
+   * @param keys The keys.
+   * @return true if every key might be in the filter, false if at least one is not.
+   */
+  public boolean mightContainAll(final List<byte[]> keys) {
+    final long[] seeds = Probes.seeds(spongeHash, keys);
+    for (int i = 0; i < seeds.length; i += 2) {
+      if (!mightContain(seeds[i], seeds[i + 1])) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  public long bitSize() {
+    return bits;
+  }
+
+  public int hashFunctions() {
+    return hashFunctions;
+  }
+
+  /**
+   * @return the probability of a false positive given the bits set so far.
+   */
+  public double expectedFalsePositiveProbability() {
+    long set = 0;
+    for (int i = 0; i < words.length; i++) {
+      set += Long.bitCount((long) WORDS.getOpaque(words, i));
+    }
+    return Math.pow((double) set / bits, hashFunctions);
+  }
+
+  private boolean put(final long h1, final long h2) {
+    boolean changed = false;
+    for (int i = 0; i < hashFunctions; i++) {
+      final long index = Probes.index(h1, h2, i, bits);
+      final long mask = 1L << index;
+      final int word = (int) (index >>> 6);
+      if (((long) WORDS.getOpaque(words, word) & mask) == 0) {
+        changed |= ((long) WORDS.getAndBitwiseOr(words, word, mask) & mask) == 0;
+      }
+    }
+    return changed;
+  }
+
+  private boolean mightContain(final long h1, final long h2) {
+    for (int i = 0; i < hashFunctions; i++) {
+      final long index = Probes.index(h1, h2, i, bits);
+      if (((long) WORDS.getOpaque(words, (int) (index >>> 6)) & (1L << index)) == 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
@@ -0,0 +1,104 @@
+package io.github.destroyerofcode.keccak200output168.filter;
+
+import io.github.destroyerofcode.api.SpongeHash;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.List;
+
+/**
+ * Count-min sketch hashing every key once with Keccak-200 and deriving its counter in every row
+ * from the digest, see {@link Probes}. The counters of all rows live in one long[] and are
+ * incremented atomically, so concurrent updates do not lock. Estimates never undercount and
+ * overcount by at most e / width of the total count with probability 1 - e^-depth.
+ */
+public class CountMinSketch {
+
+  private static final VarHandle COUNTERS = MethodHandles.arrayElementVarHandle(long[].class);
+
+  private final SpongeHash<byte[]> spongeHash;
+  private final long[] counters;
+  private final int width;
+  private final int depth;
+
+  /**
+   * @param spongeHash The Keccak-200 hash the keys are hashed with.
+   * @param width The number of counters per row.
+   * @param depth The number of rows.
+   */
+  public CountMinSketch(final SpongeHash<byte[]> spongeHash, final int width, final int depth) {
+    if (width <= 0 || depth <= 0) {
+      throw new IllegalArgumentException("Width and depth must be greater than 0.");
+    }
+    if ((long) width * depth > Integer.MAX_VALUE - 8) {
+      throw new IllegalArgumentException("The sketch would not fit into an array.");
+    }
+    this.spongeHash = spongeHash;
+    this.counters = new long[width * depth];
+    this.width = width;
+    this.depth = depth;
+  }
+
+  /**
+   * Constructs a sketch whose estimates are off by at most epsilon times the total count with
+   * probability 1 - delta.
+   *
+   * @param spongeHash The Keccak-200 hash the keys are hashed with.
+   * @param epsilon The relative error.
+   * @param delta The probability of exceeding the error.
+   * @return the sketch.
+   */
+  public static CountMinSketch withError(
+      final SpongeHash<byte[]> spongeHash, final double epsilon, final double delta) {
+    return new CountMinSketch(
+        spongeHash, (int) Math.ceil(Math.E / epsilon), (int) Math.ceil(Math.log(1 / delta)));
+  }
+
+  public void add(final byte[] key, final long count) {
+    final byte[] digest = spongeHash.hash(key);
+    add(Probes.h1(digest), Probes.h2(digest), count);
+  }
+
+  /**
+   * Counts every key once, hashing all of them before updating any counter.
+   *
+   * @param keys The keys.
+   */
+  public void addAll(final List<byte[]> keys) {
+    final long[] seeds = Probes.seeds(spongeHash, keys);
+    for (int i = 0; i < seeds.length; i += 2) {
+      add(seeds[i], seeds[i + 1], 1);
+    }
+  }
+
+  /**
+   * @return the smallest counter of the key, which is at least the count added for it.
+   */
+  public long estimateCount(final byte[] key) {
+    final byte[] digest = spongeHash.hash(key);
+    final long h1 = Probes.h1(digest);
+    final long h2 = Probes.h2(digest);
+    long estimate = Long.MAX_VALUE;
+    for (int row = 0; row < depth; row++) {
+      estimate = Math.min(estimate, (long) COUNTERS.getOpaque(counters, counter(h1, h2, row)));
+    }
+    return estimate;
+  }
+
+  public int width() {
+    return width;
+  }
+
+  public int depth() {
+    return depth;
+  }
+
+  private void add(final long h1, final long h2, final long count) {
+    for (int row = 0; row < depth; row++) {
+      COUNTERS.getAndAdd(counters, counter(h1, h2, row), count);
+    }
+  }
+
+  private int counter(final long h1, final long h2, final int row) {
+    return row * width + (int) Probes.index(h1, h2, row, width);
+  }
+}
@@ -0,0 +1,46 @@
+package io.github.destroyerofcode.keccak200output168.filter;
+
+import io.github.destroyerofcode.api.SpongeHash;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * Derives any number of probe indices from a single digest by double hashing: probe i of a key is
+ * h1 + i * h2, where h1 and h2 are the first two 64-bit words of the 168-bit digest. h2 is made odd
+ * so the probes of a key never collapse onto one index. Each key therefore costs one hash, one
+ * permutation for short keys, however many probes are taken.
+ */
+final class Probes {
+
+  private Probes() {}
+
+  /**
+   * Hashes keys into pairs of probe seeds, all keys first so the probing loops run on plain longs.
+   *
+   * @return h1 at even and h2 at odd indices, 2 longs per key.
+   */
+  static long[] seeds(final SpongeHash<byte[]> spongeHash, final List<byte[]> keys) {
+    final long[] seeds = new long[2 * keys.size()];
+    for (int i = 0; i < keys.size(); i++) {
+      final ByteBuffer digest = ByteBuffer.wrap(spongeHash.hash(keys.get(i)));
+      seeds[2 * i] = digest.getLong(0);
+      seeds[2 * i + 1] = digest.getLong(Long.BYTES) | 1;
+    }
+    return seeds;
+  }
+
+  static long h1(final byte[] digest) {
+    return ByteBuffer.wrap(digest).getLong(0);
+  }
+
+  static long h2(final byte[] digest) {
+    return ByteBuffer.wrap(digest).getLong(Long.BYTES) | 1;
+  }
+
+  /**
+   * @return probe i reduced to [0, size).
+   */
+  static long index(final long h1, final long h2, final int i, final long size) {
+    return Long.remainderUnsigned(h1 + i * h2, size);
+  }
+}
@@ -0,0 +1,80 @@
+package io.github.destroyerofcode.keccak200output168.primitive;
+
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Adapts {@link Keccak200PrimitiveHash} to key-hashing and partitioning code. It is a {@link
+ * ToLongFunction} and a {@link ToIntFunction} of byte[] keys, and maps keys to partitions, either
+ * evenly for a fixed partition count or with jump consistent hashing, which moves only 1/n of the
+ * keys when growing to n buckets. Nothing is allocated per key.
+ */
+public final class Keccak200Partitioner implements ToLongFunction<byte[]>, ToIntFunction<byte[]> {
+
+  public static final Keccak200Partitioner INSTANCE = new Keccak200Partitioner();
+
+  private Keccak200Partitioner() {}
+
+  @Override
+  public long applyAsLong(final byte[] key) {
+    return Keccak200PrimitiveHash.hashToLong(key);
+  }
+
+  @Override
+  public int applyAsInt(final byte[] key) {
+    return Keccak200PrimitiveHash.hashToInt(key);
+  }
+
+  /**
+   * Maps a key evenly onto a fixed number of partitions, with a multiplication instead of a
+   * division.
+   *
+   * @param key The key.
+   * @param partitions The number of partitions.
+   * @return the partition of the key, in [0, partitions).
+   */
+  public int partition(final byte[] key, final int partitions) {
+    checkBuckets(partitions);
+    final long hash = Keccak200PrimitiveHash.hashToLong(key) >>> Integer.SIZE;
+    return (int) ((hash * partitions) >>> Integer.SIZE);
+  }
+
+  /**
+   * Maps a key onto buckets with jump consistent hashing (Lamping and Veach). Going from n - 1 to
+   * n buckets moves a key to bucket n - 1 or not at all.
+   *
+   * @param key The key.
+   * @param buckets The number of buckets.
+   * @return the bucket of the key, in [0, buckets).
+   */
+  public int bucket(final byte[] key, final int buckets) {
+    checkBuckets(buckets);
+    return jumpConsistentHash(Keccak200PrimitiveHash.hashToLong(key), buckets);
+  }
+
+  /**
+   * @see #bucket(byte[], int)
+   */
+  public int bucket(final long key, final int buckets) {
+    checkBuckets(buckets);
+    return jumpConsistentHash(Keccak200PrimitiveHash.hashToLong(key), buckets);
+  }
+
+  static int jumpConsistentHash(final long hash, final int buckets) {
+    long key = hash;
+    long bucket = -1;
+    long next = 0;
+    while (next < buckets) {
+      bucket = next;
+      key = key * 2862933555777941757L + 1;
+      next = (long) ((bucket + 1) * ((double) (1L << 31) / (double) ((key >>> 33) + 1)));
+    }
+    return (int) bucket;
+  }
+
+  private static void checkBuckets(final int buckets) {
+    if (buckets <= 0) {
+      throw new IllegalArgumentException("The number of buckets must be greater than 0.");
+    }
+  }
+}
@@ -0,0 +1,331 @@
+package io.github.destroyerofcode.keccak200output168.primitive;
+
+import static io.github.destroyerofcode.common.Utils.rol8;
+import static io.github.destroyerofcode.keccak200output168.Constants.BYTES_IN_r;
+import static io.github.destroyerofcode.keccak200output168.Constants.INIT_STATE;
+import static io.github.destroyerofcode.keccak200output168.Constants.KECCAK_200_ROUND_CONSTANTS;
+import static io.github.destroyerofcode.keccak200output168.Constants.ROUNDS;
+
+import io.github.destroyerofcode.keccak200output168.SpongeHashKeccak200Output168Impl;
+import java.util.Objects;
+
+/**
+ * Keccak-200 hashing to primitives for hash tables and partitioning. The state is held in 25 local
+ * variables and the steps of a round are written out over them, the rounds themselves being a
+ * loop, so a call allocates nothing: no state, no padded message, no block buffer and no digest
+ * array.
+ *
+ * <p>The results are the leading bytes of {@link SpongeHashKeccak200Output168Impl#hash(byte[])},
+ * big-endian: {@code hashToLong(message)} is its first 8 bytes and {@code hashToInt(message)} its
+ * first 4. Primitive keys are hashed as their big-endian bytes.
+ */
+public final class Keccak200PrimitiveHash {
+
+  private Keccak200PrimitiveHash() {}
+
+  public static long hashToLong(final byte[] message) {
+    return hash(message, 0, message.length, 0);
+  }
+
+  /**
+   * Hashes a range of a byte array.
+   *
+   * @param message The array holding the message.
+   * @param offset The index of the first byte of the message.
+   * @param length The number of bytes of the message.
+   * @return the first 8 bytes of the digest.
+   * @throws IndexOutOfBoundsException If the range is out of the bounds of the array.
+   */
+  public static long hashToLong(final byte[] message, final int offset, final int length) {
+    Objects.checkFromIndexSize(offset, length, message.length);
+    return hash(message, offset, length, 0);
+  }
+
+  /**
+   * @return the first 8 bytes of the digest of the 8 big-endian bytes of the value.
+   */
+  public static long hashToLong(final long value) {
+    return hash(null, 0, Long.BYTES, value);
+  }
+
+  /**
+   * @return the first 8 bytes of the digest of the 4 big-endian bytes of the value.
+   */
+  public static long hashToLong(final int value) {
+    return hash(null, 0, Integer.BYTES, value);
+  }
+
+  public static int hashToInt(final byte[] message) {
+    return (int) (hashToLong(message) >>> Integer.SIZE);
+  }
+
+  public static int hashToInt(final byte[] message, final int offset, final int length) {
+    return (int) (hashToLong(message, offset, length) >>> Integer.SIZE);
+  }
+
+  public static int hashToInt(final long value) {
+    return (int) (hashToLong(value) >>> Integer.SIZE);
+  }
+
+  public static int hashToInt(final int value) {
+    return (int) (hashToLong(value) >>> Integer.SIZE);
+  }
+
+  /**
+   * Runs the sponge over the message, or over the big-endian bytes of value if message is null.
+   */
+  private static long hash(
+      final byte[] message, final int offset, final int length, final long value) {
+    byte s0 = INIT_STATE[0];
+    byte s1 = INIT_STATE[1];
+    byte s2 = INIT_STATE[2];
+    byte s3 = INIT_STATE[3];
+    byte s4 = INIT_STATE[4];
+    byte s5 = INIT_STATE[5];
+    byte s6 = INIT_STATE[6];
+    byte s7 = INIT_STATE[7];
+    byte s8 = INIT_STATE[8];
+    byte s9 = INIT_STATE[9];
+    byte s10 = INIT_STATE[10];
+    byte s11 = INIT_STATE[11];
+    byte s12 = INIT_STATE[12];
+    byte s13 = INIT_STATE[13];
+    byte s14 = INIT_STATE[14];
+    byte s15 = INIT_STATE[15];
+    byte s16 = INIT_STATE[16];
+    byte s17 = INIT_STATE[17];
+    byte s18 = INIT_STATE[18];
+    byte s19 = INIT_STATE[19];
+    byte s20 = INIT_STATE[20];
+    byte s21 = INIT_STATE[21];
+    byte s22 = INIT_STATE[22];
+    byte s23 = INIT_STATE[23];
+    byte s24 = INIT_STATE[24];
+
+    for (int block = 0; block < length; block += BYTES_IN_r) {
+      // a block shorter than r is padded with 0s
+      final int end = Math.min(length, block + BYTES_IN_r);
+      s0 ^= at(message, offset, length, value, block + 0, end);
+      s1 ^= at(message, offset, length, value, block + 1, end);
+      s2 ^= at(message, offset, length, value, block + 2, end);
+      s3 ^= at(message, offset, length, value, block + 3, end);
+      s4 ^= at(message, offset, length, value, block + 4, end);
+      s5 ^= at(message, offset, length, value, block + 5, end);
+      s6 ^= at(message, offset, length, value, block + 6, end);
+      s7 ^= at(message, offset, length, value, block + 7, end);
+      s8 ^= at(message, offset, length, value, block + 8, end);
+      s9 ^= at(message, offset, length, value, block + 9, end);
+      s10 ^= at(message, offset, length, value, block + 10, end);
+      s11 ^= at(message, offset, length, value, block + 11, end);
+      s12 ^= at(message, offset, length, value, block + 12, end);
+      s13 ^= at(message, offset, length, value, block + 13, end);
+      s14 ^= at(message, offset, length, value, block + 14, end);
+      s15 ^= at(message, offset, length, value, block + 15, end);
+      s16 ^= at(message, offset, length, value, block + 16, end);
+      s17 ^= at(message, offset, length, value, block + 17, end);
+      s18 ^= at(message, offset, length, value, block + 18, end);
+      s19 ^= at(message, offset, length, value, block + 19, end);
+      s20 ^= at(message, offset, length, value, block + 20, end);
+
+      for (int round = 0; round < ROUNDS; round++) {
+        // theta
+        final byte c0 = (byte) (s0 ^ s5 ^ s10 ^ s15 ^ s20);
+        final byte c1 = (byte) (s1 ^ s6 ^ s11 ^ s16 ^ s21);
+        final byte c2 = (byte) (s2 ^ s7 ^ s12 ^ s17 ^ s22);
+        final byte c3 = (byte) (s3 ^ s8 ^ s13 ^ s18 ^ s23);
+        final byte c4 = (byte) (s4 ^ s9 ^ s14 ^ s19 ^ s24);
+        final byte d0 = (byte) (c4 ^ rol8(c1, 1));
+        final byte d1 = (byte) (c0 ^ rol8(c2, 1));
+        final byte d2 = (byte) (c1 ^ rol8(c3, 1));
+        final byte d3 = (byte) (c2 ^ rol8(c4, 1));
+        final byte d4 = (byte) (c3 ^ rol8(c0, 1));
+        s0 ^= d0;
+        s5 ^= d0;
+        s10 ^= d0;
+        s15 ^= d0;
+        s20 ^= d0;
+        s1 ^= d1;
+        s6 ^= d1;
+        s11 ^= d1;
+        s16 ^= d1;
+        s21 ^= d1;
+        s2 ^= d2;
+        s7 ^= d2;
+        s12 ^= d2;
+        s17 ^= d2;
+        s22 ^= d2;
+        s3 ^= d3;
+        s8 ^= d3;
+        s13 ^= d3;
+        s18 ^= d3;
+        s23 ^= d3;
+        s4 ^= d4;
+        s9 ^= d4;
+        s14 ^= d4;
+        s19 ^= d4;
+        s24 ^= d4;
+
+        // rho and pi
+        byte t = s1;
+        byte u;
+        u = s10;
+        s10 = rol8(t, 1);
+        t = u;
+        u = s7;
+        s7 = rol8(t, 3);
+        t = u;
+        u = s11;
+        s11 = rol8(t, 6);
+        t = u;
+        u = s17;
+        s17 = rol8(t, 10);
+        t = u;
+        u = s18;
+        s18 = rol8(t, 15);
+        t = u;
+        u = s3;
+        s3 = rol8(t, 21);
+        t = u;
+        u = s5;
+        s5 = rol8(t, 28);
+        t = u;
+        u = s16;
+        s16 = rol8(t, 36);
+        t = u;
+        u = s8;
+        s8 = rol8(t, 45);
+        t = u;
+        u = s21;
+        s21 = rol8(t, 55);
+        t = u;
+        u = s24;
+        s24 = rol8(t, 2);
+        t = u;
+        u = s4;
+        s4 = rol8(t, 14);
+        t = u;
+        u = s15;
+        s15 = rol8(t, 27);
+        t = u;
+        u = s23;
+        s23 = rol8(t, 41);
+        t = u;
+        u = s19;
+        s19 = rol8(t, 56);
+        t = u;
+        u = s13;
+        s13 = rol8(t, 8);
+        t = u;
+        u = s12;
+        s12 = rol8(t, 25);
+        t = u;
+        u = s2;
+        s2 = rol8(t, 43);
+        t = u;
+        u = s20;
+        s20 = rol8(t, 62);
+        t = u;
+        u = s14;
+        s14 = rol8(t, 18);
+        t = u;
+        u = s22;
+        s22 = rol8(t, 39);
+        t = u;
+        u = s9;
+        s9 = rol8(t, 61);
+        t = u;
+        u = s6;
+        s6 = rol8(t, 20);
+        t = u;
+        s1 = rol8(t, 44);
+
+        // chi
+        byte b0;
+        byte b1;
+        byte b2;
+        byte b3;
+        byte b4;
+        b0 = s0;
+        b1 = s1;
+        b2 = s2;
+        b3 = s3;
+        b4 = s4;
+        s0 = (byte) (b0 ^ (~b1 & b2));
+        s1 = (byte) (b1 ^ (~b2 & b3));
+        s2 = (byte) (b2 ^ (~b3 & b4));
+        s3 = (byte) (b3 ^ (~b4 & b0));
+        s4 = (byte) (b4 ^ (~b0 & b1));
+        b0 = s5;
+        b1 = s6;
+        b2 = s7;
+        b3 = s8;
+        b4 = s9;
+        s5 = (byte) (b0 ^ (~b1 & b2));
+        s6 = (byte) (b1 ^ (~b2 & b3));
+        s7 = (byte) (b2 ^ (~b3 & b4));
+        s8 = (byte) (b3 ^ (~b4 & b0));
+        s9 = (byte) (b4 ^ (~b0 & b1));
+        b0 = s10;
+        b1 = s11;
+        b2 = s12;
+        b3 = s13;
+        b4 = s14;
+        s10 = (byte) (b0 ^ (~b1 & b2));
+        s11 = (byte) (b1 ^ (~b2 & b3));
+        s12 = (byte) (b2 ^ (~b3 & b4));
+        s13 = (byte) (b3 ^ (~b4 & b0));
+        s14 = (byte) (b4 ^ (~b0 & b1));
+        b0 = s15;
+        b1 = s16;
+        b2 = s17;
+        b3 = s18;
+        b4 = s19;
+        s15 = (byte) (b0 ^ (~b1 & b2));
+        s16 = (byte) (b1 ^ (~b2 & b3));
+        s17 = (byte) (b2 ^ (~b3 & b4));
+        s18 = (byte) (b3 ^ (~b4 & b0));
+        s19 = (byte) (b4 ^ (~b0 & b1));
+        b0 = s20;
+        b1 = s21;
+        b2 = s22;
+        b3 = s23;
+        b4 = s24;
+        s20 = (byte) (b0 ^ (~b1 & b2));
+        s21 = (byte) (b1 ^ (~b2 & b3));
+        s22 = (byte) (b2 ^ (~b3 & b4));
+        s23 = (byte) (b3 ^ (~b4 & b0));
+        s24 = (byte) (b4 ^ (~b0 & b1));
+
+        // iota
+        s0 ^= KECCAK_200_ROUND_CONSTANTS[round];
+      }
+    }
+
+    return (s0 & 0xFFL) << 56
+        | (s1 & 0xFFL) << 48
+        | (s2 & 0xFFL) << 40
+        | (s3 & 0xFFL) << 32
+        | (s4 & 0xFFL) << 24
+        | (s5 & 0xFFL) << 16
+        | (s6 & 0xFFL) << 8
+        | (s7 & 0xFFL);
+  }
+
+  /**
+   * @return byte i of the message, or 0 from the end of the current block on.
+   */
+  private static byte at(
+      final byte[] message,
+      final int offset,
+      final int length,
+      final long value,
+      final int i,
+      final int end) {
+    if (i >= end) {
+      return 0;
+    }
+    return message != null
+        ? message[offset + i]
+        : (byte) (value >>> ((length - 1 - i) * Byte.SIZE));
+  }
+}
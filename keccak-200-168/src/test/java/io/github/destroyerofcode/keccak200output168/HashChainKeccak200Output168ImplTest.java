@@ -0,0 +1,45 @@
+package io.github.destroyerofcode.keccak200output168;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.github.destroyerofcode.api.SpongeHash;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class HashChainKeccak200Output168ImplTest {
+
+  @Test
+  @DisplayName("Every element should be the hash of the previous one and verify in parallel")
+  void testElementsMatchRepeatedHashing() {
+    // given
+    final SpongeHash<byte[]> spongeHashKeccak200 =
+        new SpongeHashKeccak200Output168Impl(new PermutationImpl());
+    final byte[] seed = new byte[Constants.OUTPUT_LENGTH_BYTES];
+    seed[0] = 42;
+    final HashChainKeccak200Output168Impl chain =
+        new HashChainKeccak200Output168Impl(spongeHashKeccak200, seed, 50, 5);
+    final byte[] expected = seed.clone();
+    for (int i = 0; i < 23; i++) {
+      System.arraycopy(spongeHashKeccak200.hash(expected), 0, expected, 0, expected.length);
+    }
+
+    // when
+    final byte[] element = chain.element(23);
+    final boolean[] valid =
+        chain.verifyAll(new long[] {23, 0}, concat(chain.element(23), chain.element(0)));
+
+    // then
+    assertAll(
+        () -> assertArrayEquals(expected, element),
+        () -> assertTrue(valid[0] && valid[1]));
+  }
+
+  private static byte[] concat(final byte[] first, final byte[] second) {
+    final byte[] both = new byte[first.length + second.length];
+    System.arraycopy(first, 0, both, 0, first.length);
+    System.arraycopy(second, 0, both, first.length, second.length);
+    return both;
+  }
+}
@@ -0,0 +1,102 @@
+package io.github.destroyerofcode.keccak200output168;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import io.github.destroyerofcode.hasher.HashingInputStream;
+import io.github.destroyerofcode.hasher.HashingOutputStream;
+import io.github.destroyerofcode.hasher.HashingReadableByteChannel;
+import io.github.destroyerofcode.hasher.HashingWritableByteChannel;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class HashingStreamsTest {
+
+  private SpongeHashKeccak200Output168Impl spongeHashKeccak200;
+  private byte[] message;
+  private byte[] expected;
+
+  @BeforeEach
+  void setUp() {
+    spongeHashKeccak200 = new SpongeHashKeccak200Output168Impl(new PermutationImpl());
+    message = new byte[1_009];
+    for (int i = 0; i < message.length; i++) {
+      message[i] = (byte) (i * 13);
+    }
+    expected = spongeHashKeccak200.hash(new ByteArrayInputStream(message)).digest();
+  }
+
+  @Test
+  @DisplayName("Streams should hash the bytes passing through with reads across the blocks")
+  void testStreamsHashPassingBytes() throws IOException {
+    // given
+    final ByteArrayOutputStream copy = new ByteArrayOutputStream();
+    final HashingInputStream<byte[]> in =
+        new HashingInputStream<>(
+            spongeHashKeccak200.newHasher(), new ByteArrayInputStream(message));
+    final HashingOutputStream<byte[]> out =
+        new HashingOutputStream<>(spongeHashKeccak200.newHasher(), copy);
+
+    // when
+    final byte[] buffer = new byte[64];
+    int size = 1;
+    for (int read = in.read(buffer, 0, size); read >= 0; read = in.read(buffer, 0, size)) {
+      out.write(buffer, 0, read);
+      // sizes below, at and above the 21-byte block
+      size = size % 47 + 5;
+    }
+    in.close();
+    out.close();
+
+    // then
+    assertAll(
+        () -> assertArrayEquals(expected, in.digest()),
+        () -> assertArrayEquals(message, copy.toByteArray()),
+        () -> assertArrayEquals(expected, out.digest()),
+        () -> assertEquals(message.length, in.bytesHashed()));
+  }
+
+  @Test
+  @DisplayName("Channels should hash the bytes passing through from heap and direct buffers")
+  void testChannelsHashTransferredBytes() throws IOException {
+    // given
+    final ByteArrayOutputStream copy = new ByteArrayOutputStream();
+    final HashingReadableByteChannel<byte[]> in =
+        new HashingReadableByteChannel<>(
+            spongeHashKeccak200.newHasher(),
+            Channels.newChannel(new ByteArrayInputStream(message)));
+    final HashingWritableByteChannel<byte[]> out =
+        new HashingWritableByteChannel<>(
+            spongeHashKeccak200.newHasher(), Channels.newChannel(copy));
+
+    // when
+    final ByteBuffer heap = ByteBuffer.allocate(64);
+    final ByteBuffer direct = ByteBuffer.allocateDirect(37);
+    for (boolean useHeap = true; ; useHeap = !useHeap) {
+      final ByteBuffer buffer = useHeap ? heap : direct;
+      buffer.clear();
+      if (in.read(buffer) < 0) {
+        break;
+      }
+      buffer.flip();
+      while (buffer.hasRemaining()) {
+        out.write(buffer);
+      }
+    }
+    in.close();
+    out.close();
+
+    // then
+    assertAll(
+        () -> assertArrayEquals(expected, in.digest()),
+        () -> assertArrayEquals(message, copy.toByteArray()),
+        () -> assertArrayEquals(expected, out.digest()));
+  }
+}
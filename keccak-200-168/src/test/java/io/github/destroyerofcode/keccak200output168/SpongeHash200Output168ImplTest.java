@@ -7,6 +7,7 @@ import static io.github.destroyerofcode.TestUtils.verifyArraysAreEqual;
 import static io.github.destroyerofcode.keccak200output168.Constants.BYTES_IN_r;
 import static io.github.destroyerofcode.keccak200output168.Constants.OUTPUT_LENGTH_BYTES;
 import static io.github.destroyerofcode.keccak200output168.Constants.ROUNDS;
+import static io.github.destroyerofcode.keccak200output168.Constants.STREAM_CHUNK_BYTES;
 import static io.github.destroyerofcode.keccak200output168.Constants.r;
 import static org.junit.jupiter.api.Assertions.assertAll;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -21,6 +22,7 @@ import static org.mockito.Mockito.when;
 
 import io.github.destroyerofcode.api.SpongeHash;
 import io.github.destroyerofcode.api.SpongePermutation;
+import io.github.destroyerofcode.api.StreamDigest;
 import io.github.destroyerofcode.exception.SpongeException;
 import java.io.ByteArrayInputStream;
 import java.io.FileInputStream;
@@ -30,6 +32,7 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Arrays;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -379,6 +382,51 @@ public class SpongeHash200Output168ImplTest {
       }
     }
 
+    @Tag("arrayVersion")
+    @Test
+    @DisplayName("Hashing a range of an array should match hashing a copy of the range")
+    void testHashingArrayRangeMatchesCopy() {
+      // given
+      final byte[] message = new byte[100];
+      for (int i = 0; i < message.length; i++) {
+        message[i] = (byte) (i * 31);
+      }
+      final int offset = 7;
+      final int length = 50;
+      final int absorbIterationsCount = calculateNumberOfAbsorbIterations(length, r) * 2;
+
+      // when
+      final byte[] hashedRange = spongeHashKeccak200.hash(message, offset, length);
+      final byte[] hashedCopy =
+          spongeHashKeccak200.hash(Arrays.copyOfRange(message, offset, offset + length));
+
+      // then
+      verifyHash(hashedRange, hashedCopy, absorbIterationsCount);
+    }
+
+    @Tag("streamVersion")
+    @Tag("arrayVersion")
+    @Test
+    @DisplayName("Hashing a stream of unknown length should read it up to its end")
+    void testHashingStreamToEndMatchesArrayHashing() throws IOException {
+      // given
+      final byte[] message = new byte[STREAM_CHUNK_BYTES + 100];
+      for (int i = 0; i < message.length; i++) {
+        message[i] = (byte) (i * 7);
+      }
+      final int absorbIterationsCount = calculateNumberOfAbsorbIterations(message.length, r) * 2;
+      try (final InputStream is = new ByteArrayInputStream(message)) {
+
+        // when
+        final StreamDigest<byte[]> streamDigest = spongeHashKeccak200.hash(is);
+        final byte[] hashedArrayMessage = spongeHashKeccak200.hash(message);
+
+        // then
+        assertEquals(message.length, streamDigest.bytesRead());
+        verifyHash(streamDigest.digest(), hashedArrayMessage, absorbIterationsCount);
+      }
+    }
+
     @Test
     @DisplayName("Hashing should correctly throw exception on InputStream error")
     void testHashingHandlesInputStreamExceptionsCorrectly() throws IOException {
@@ -400,7 +448,9 @@ public class SpongeHash200Output168ImplTest {
           verifyArraysAreEqual(hashedStreamMessage, hashedArrayMessage),
           hashAndAssertOutputSize(hashedStreamMessage, OUTPUT_LENGTH_BYTES),
           hashAndAssertOutputSize(hashedArrayMessage, OUTPUT_LENGTH_BYTES),
-          () -> verify(spongeHashKeccak200, times(absorbIterationsCount)).absorb(any(), any()),
+          () ->
+              verify(spongeHashKeccak200, times(absorbIterationsCount))
+                  .absorb(any(), any(), anyInt(), anyInt()),
           () -> verifyPermFuncsGetCalledNTimesRoundTimes(absorbIterationsCount));
     }
   }
@@ -0,0 +1,152 @@
+package io.github.destroyerofcode.keccak200output168;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import io.github.destroyerofcode.hasher.Funnel;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class SpongeHasherKeccak200Output168ImplTest {
+
+  private SpongeHashKeccak200Output168Impl spongeHashKeccak200;
+
+  @BeforeEach
+  void setUp() {
+    spongeHashKeccak200 = new SpongeHashKeccak200Output168Impl(new PermutationImpl());
+  }
+
+  private static byte[] message(final int length) {
+    final byte[] message = new byte[length];
+    for (int i = 0; i < length; i++) {
+      message[i] = (byte) (i * 31 + 7);
+    }
+    return message;
+  }
+
+  @Test
+  @DisplayName("Bytes written in pieces should hash the same as the whole message")
+  void testPiecesMatchHash() {
+    // given
+    final SpongeHasherKeccak200Output168Impl hasher = spongeHashKeccak200.newHasher();
+
+    for (final int length : new int[] {0, 1, 20, 21, 22, 42, 100, 500}) {
+      final byte[] message = message(length);
+
+      // when
+      hasher.putBytes(message, 0, length / 3);
+      for (int i = length / 3; i < length / 2; i++) {
+        hasher.putByte(message[i]);
+      }
+      hasher.putBytes(message, length / 2, length - length / 2);
+      final long bytesAbsorbed = hasher.bytesAbsorbed();
+
+      // then
+      assertAll(
+          () -> assertEquals(length, bytesAbsorbed),
+          () -> assertArrayEquals(spongeHashKeccak200.hash(message), hasher.digest()));
+    }
+  }
+
+  @Test
+  @DisplayName("A string should hash the same as its UTF-8 bytes")
+  void testStringMatchesUtf8Bytes() {
+    // given
+    final String ascii = "The quick brown fox jumps over the lazy dog. ".repeat(3);
+    final String mixed = "Zażółć gęślą jaźń, 日本語, 😀 and ☃. ".repeat(4);
+    final String unpaired = "a\uD800b\uDC00c\uD83D";
+
+    // when / then
+    assertAll(
+        () ->
+            assertArrayEquals(
+                spongeHashKeccak200.hash(ascii.getBytes(StandardCharsets.UTF_8)),
+                spongeHashKeccak200.hash(ascii)),
+        () ->
+            assertArrayEquals(
+                spongeHashKeccak200.hash(mixed.getBytes(StandardCharsets.UTF_8)),
+                spongeHashKeccak200.hash(mixed)),
+        () ->
+            assertArrayEquals(
+                spongeHashKeccak200.hash(unpaired.getBytes(StandardCharsets.UTF_8)),
+                spongeHashKeccak200.hash(new StringBuilder(unpaired))));
+  }
+
+  @Test
+  @DisplayName("Record fields should hash the same as their serialized bytes")
+  void testFieldsMatchSerializedRecord() {
+    // given
+    final byte[] payload = message(50);
+    final String note = "naïve café ☕";
+    final byte[] noteBytes = note.getBytes(StandardCharsets.UTF_8);
+    final Funnel<byte[]> funnel =
+        (bytes, into) ->
+            into.putLong(0x0123456789ABCDEFL)
+                .putInt(-42)
+                .putDouble(Math.PI)
+                .putBoolean(true)
+                .putPrefixedBytes(bytes)
+                .putPrefixedString(note)
+                .putLong(Long.MIN_VALUE);
+    final ByteBuffer expected = ByteBuffer.allocate(87 + noteBytes.length);
+    expected.putLong(0x0123456789ABCDEFL).putInt(-42).putDouble(Math.PI).put((byte) 1);
+    expected.putInt(payload.length).put(payload).putInt(noteBytes.length).put(noteBytes);
+    expected.putLong(Long.MIN_VALUE);
+
+    // when
+    final byte[] digest = spongeHashKeccak200.newHasher().putObject(payload, funnel).digest();
+
+    // then
+    assertArrayEquals(spongeHashKeccak200.hash(expected.array()), digest);
+  }
+
+  @Test
+  @DisplayName("A hash resumed from a checkpoint should equal the uninterrupted hash")
+  void testResumedHashMatchesUninterruptedHash() {
+    // given
+    final byte[] message = message(500);
+    final byte[] checkpoint =
+        spongeHashKeccak200.newHasher().putBytes(message, 0, 250).checkpoint();
+
+    // when
+    final SpongeHasherKeccak200Output168Impl resumed = spongeHashKeccak200.newHasher();
+    resumed.restore(checkpoint).putBytes(message, 250, 250);
+
+    // then
+    assertAll(
+        () -> assertEquals(4 + 1 + 2 + 8 + 25 + 250 % 21, checkpoint.length),
+        () -> assertArrayEquals(spongeHashKeccak200.hash(message), resumed.digest()));
+  }
+
+  @Test
+  @DisplayName("Bulk digests should be in input order and equal the digests of single messages")
+  void testHashAllInInputOrder() {
+    // given
+    final List<byte[]> messages = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      messages.add(message(i % 100 == 3 ? 20_000 : i % 30));
+    }
+
+    // when
+    final byte[] digests = spongeHashKeccak200.hashAll(messages);
+
+    // then
+    assertEquals(messages.size() * Constants.OUTPUT_LENGTH_BYTES, digests.length);
+    for (int i = 0; i < messages.size(); i++) {
+      assertArrayEquals(
+          spongeHashKeccak200.hash(messages.get(i)),
+          Arrays.copyOfRange(
+              digests,
+              i * Constants.OUTPUT_LENGTH_BYTES,
+              (i + 1) * Constants.OUTPUT_LENGTH_BYTES),
+          "message " + i);
+    }
+  }
+}
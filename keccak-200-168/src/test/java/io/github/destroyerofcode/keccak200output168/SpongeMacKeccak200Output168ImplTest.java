@@ -0,0 +1,38 @@
+package io.github.destroyerofcode.keccak200output168;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class SpongeMacKeccak200Output168ImplTest {
+
+  private SpongeMacKeccak200Output168Impl mac;
+
+  @BeforeEach
+  void setUp() {
+    mac =
+        new SpongeMacKeccak200Output168Impl(
+            new SpongeHashKeccak200Output168Impl(new PermutationImpl()));
+  }
+
+  @Test
+  @DisplayName("A message extended with zeros should not verify with the tag of the message")
+  void testZeroExtendedMessageRejected() {
+    // given
+    final byte[] key = "key".getBytes(StandardCharsets.UTF_8);
+    final byte[] message = "message".getBytes(StandardCharsets.UTF_8);
+    final byte[] tag = mac.tag(key, message);
+
+    // when & then
+    assertAll(
+        () -> assertTrue(mac.verify(key, message, tag)),
+        () -> assertFalse(mac.verify(key, Arrays.copyOf(message, message.length + 1), tag)),
+        () -> assertFalse(mac.verify(key, Arrays.copyOf(message, Constants.BYTES_IN_r), tag)));
+  }
+}
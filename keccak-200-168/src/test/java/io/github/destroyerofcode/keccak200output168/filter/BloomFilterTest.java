@@ -0,0 +1,77 @@
+package io.github.destroyerofcode.keccak200output168.filter;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.github.destroyerofcode.keccak200output168.PermutationImpl;
+import io.github.destroyerofcode.keccak200output168.SpongeHashKeccak200Output168Impl;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class BloomFilterTest {
+
+  private BloomFilter filter;
+
+  @BeforeEach
+  void setUp() {
+    filter =
+        new BloomFilter(new SpongeHashKeccak200Output168Impl(new PermutationImpl()), 1000, 0.01);
+  }
+
+  private static List<byte[]> keys(final String prefix, final int count) {
+    final List<byte[]> keys = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      keys.add((prefix + i).getBytes(StandardCharsets.UTF_8));
+    }
+    return keys;
+  }
+
+  @Test
+  @DisplayName("The filter should be sized from the expected insertions and probability")
+  void testSizing() {
+    assertAll(
+        () -> assertEquals(9600, filter.bitSize()),
+        () -> assertEquals(7, filter.hashFunctions()));
+  }
+
+  @Test
+  @DisplayName("Added keys should always be found and new keys reported once")
+  void testNoFalseNegatives() {
+    // given
+    final List<byte[]> keys = keys("event-", 1000);
+
+    // when
+    final int added = filter.putAll(keys);
+
+    // then
+    assertAll(
+        () -> assertTrue(added > 990),
+        () -> assertTrue(filter.mightContainAll(keys)),
+        () -> assertFalse(filter.put(keys.get(500))),
+        () -> keys.forEach(key -> assertTrue(filter.mightContain(key))));
+  }
+
+  @Test
+  @DisplayName("The false positive rate should stay close to the configured probability")
+  void testFalsePositiveRate() {
+    // given
+    filter.putAll(keys("event-", 1000));
+
+    // when
+    int falsePositives = 0;
+    for (final byte[] key : keys("other-", 10_000)) {
+      if (filter.mightContain(key)) {
+        falsePositives++;
+      }
+    }
+
+    // then
+    assertTrue(falsePositives < 300, "false positives: " + falsePositives);
+  }
+}
@@ -0,0 +1,49 @@
+package io.github.destroyerofcode.keccak200output168.filter;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.github.destroyerofcode.keccak200output168.PermutationImpl;
+import io.github.destroyerofcode.keccak200output168.SpongeHashKeccak200Output168Impl;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class CountMinSketchTest {
+
+  @Test
+  @DisplayName("Estimates should never undercount and stay within the error bound")
+  void testEstimates() {
+    // given
+    final CountMinSketch sketch =
+        CountMinSketch.withError(
+            new SpongeHashKeccak200Output168Impl(new PermutationImpl()), 0.001, 0.01);
+    final List<byte[]> keys = new ArrayList<>();
+    for (int i = 0; i < 2000; i++) {
+      keys.add(("event-" + i % 200).getBytes(StandardCharsets.UTF_8));
+    }
+    final byte[] heavy = "heavy".getBytes(StandardCharsets.UTF_8);
+
+    // when
+    sketch.addAll(keys);
+    sketch.add(heavy, 500);
+
+    // then
+    final long bound = (long) Math.ceil(0.001 * 2500);
+    assertAll(
+        () -> assertEquals(2719, sketch.width()),
+        () -> assertEquals(5, sketch.depth()),
+        () -> assertTrue(sketch.estimateCount(heavy) >= 500),
+        () -> assertTrue(sketch.estimateCount(heavy) <= 500 + bound),
+        () -> {
+          for (int i = 0; i < 200; i++) {
+            final long estimate =
+                sketch.estimateCount(("event-" + i).getBytes(StandardCharsets.UTF_8));
+            assertTrue(estimate >= 10 && estimate <= 10 + bound, "estimate: " + estimate);
+          }
+        });
+  }
+}
@@ -0,0 +1,89 @@
+package io.github.destroyerofcode.keccak200output168.primitive;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.github.destroyerofcode.api.SpongeHash;
+import io.github.destroyerofcode.keccak200output168.PermutationImpl;
+import io.github.destroyerofcode.keccak200output168.SpongeHashKeccak200Output168Impl;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class Keccak200PrimitiveHashTest {
+
+  private SpongeHash<byte[]> spongeHashKeccak200;
+
+  @BeforeEach
+  void setUp() {
+    spongeHashKeccak200 = new SpongeHashKeccak200Output168Impl(new PermutationImpl());
+  }
+
+  private long leadingLong(final byte[] message) {
+    return ByteBuffer.wrap(spongeHashKeccak200.hash(message)).getLong();
+  }
+
+  @Test
+  @DisplayName("Primitive hashes should be the leading bytes of the digest")
+  void testMatchesDigest() {
+    final Random random = new Random(1);
+    for (int size = 0; size < 100; size++) {
+      // given
+      final byte[] message = new byte[size + 6];
+      random.nextBytes(message);
+      final byte[] range = Arrays.copyOfRange(message, 3, 3 + size);
+
+      // when
+      final long hash = Keccak200PrimitiveHash.hashToLong(message, 3, size);
+      final int intHash = Keccak200PrimitiveHash.hashToInt(range);
+
+      // then
+      assertEquals(leadingLong(range), hash, "size " + size);
+      assertEquals((int) (hash >>> 32), intHash, "size " + size);
+    }
+  }
+
+  @Test
+  @DisplayName("Primitive keys should hash like their big-endian bytes")
+  void testPrimitiveKeys() {
+    // given
+    final long longKey = 0x0123456789ABCDEFL;
+    final int intKey = -42;
+
+    // when & then
+    assertAll(
+        () ->
+            assertEquals(
+                leadingLong(ByteBuffer.allocate(8).putLong(longKey).array()),
+                Keccak200PrimitiveHash.hashToLong(longKey)),
+        () ->
+            assertEquals(
+                leadingLong(ByteBuffer.allocate(4).putInt(intKey).array()),
+                Keccak200PrimitiveHash.hashToLong(intKey)));
+  }
+
+  @Test
+  @DisplayName("Growing the buckets should only move keys to the new bucket")
+  void testConsistentBuckets() {
+    // given
+    final Keccak200Partitioner partitioner = Keccak200Partitioner.INSTANCE;
+    int moved = 0;
+
+    // when & then
+    for (long key = 0; key < 10_000; key++) {
+      final int before = partitioner.bucket(key, 10);
+      final int after = partitioner.bucket(key, 11);
+      assertTrue(after == before || after == 10);
+      if (after != before) {
+        moved++;
+      }
+      final int partition = partitioner.partition(Long.toString(key).getBytes(), 7);
+      assertTrue(partition >= 0 && partition < 7);
+    }
+    assertTrue(moved > 600 && moved < 1200, "moved " + moved);
+  }
+}
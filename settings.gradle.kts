@@ -2,3 +2,7 @@ rootProject.name = "sponge_hash"
 include("keccak-200-168")
 include("keccak-1600-256")
 include("sponge-api")
+include("sponge-store")
+include("sponge-benchmarks")
+include("sponge-jca")
+include("sponge-log")
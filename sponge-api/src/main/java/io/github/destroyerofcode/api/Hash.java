@@ -1,5 +1,9 @@
 package io.github.destroyerofcode.api;
 
+import io.github.destroyerofcode.common.Utils;
+import io.github.destroyerofcode.exception.SpongeException;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.InputStream;
 
 /**
@@ -16,5 +20,39 @@ public interface Hash<T> {
    */
   T hash(T message);
 
+  /**
+   * Hashes a range of a message. The default implementation hashes a copy of the range,
+   * implementations override it to read the range in place.
+   *
+   * @param message The array holding the message.
+   * @param offset The index of the first element of the message.
+   * @param length The number of elements of the message.
+   * @return the same hash as {@link #hash(Object)} of a copy of the range.
+   * @throws IndexOutOfBoundsException If the range is out of the bounds of the array.
+   */
+  default T hash(T message, int offset, int length) {
+    return hash(Utils.copyOfRange(message, offset, length));
+  }
+
   T hash(final InputStream message, final int messageSize);
+
+  /**
+   * Hashes a stream of unknown length, reading it until its end. The stream is not closed. The
+   * default implementation reads the whole stream into memory first, implementations override it
+   * to absorb the stream chunk by chunk.
+   *
+   * @param message The stream to hash.
+   * @return the digest and the number of bytes read. The digest is the same as {@link
+   *     #hash(InputStream, int)} with that number of bytes would return.
+   * @throws SpongeException If an I/O error occurs.
+   */
+  default StreamDigest<T> hash(final InputStream message) {
+    final byte[] bytes;
+    try {
+      bytes = message.readAllBytes();
+    } catch (IOException e) {
+      throw new SpongeException("An error has occurred when hashing: ", e);
+    }
+    return new StreamDigest<>(hash(new ByteArrayInputStream(bytes), bytes.length), bytes.length);
+  }
 }
@@ -1,5 +1,7 @@
 package io.github.destroyerofcode.api;
 
+import io.github.destroyerofcode.common.Utils;
+
 /**
  * Interface defining the SpongeHash operations. It extends the Hash interface and includes
  * additional methods specific to sponge construction.
@@ -29,6 +31,20 @@ public interface SpongeHash<T> extends Hash<T> {
    */
   void absorb(final T state, final T message);
 
+  /**
+   * Absorbs one block of a larger message into the state. A block shorter than the rate is
+   * absorbed as if it was padded with 0s. The default implementation absorbs a copy of the block,
+   * implementations override it to read the block straight from the message array.
+   *
+   * @param state The current state of the hash function.
+   * @param message The array holding the message.
+   * @param offset The index of the first element of the block.
+   * @param length The number of elements of the block, at most the rate.
+   */
+  default void absorb(final T state, final T message, final int offset, final int length) {
+    absorb(state, Utils.copyOfRange(message, offset, length));
+  }
+
   /**
    * Squeezes the hash value out of the given state.
    *
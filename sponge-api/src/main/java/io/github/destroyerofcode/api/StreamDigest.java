@@ -0,0 +1,10 @@
+package io.github.destroyerofcode.api;
+
+/**
+ * The digest of a stream that was hashed up to its end, together with the number of bytes read.
+ *
+ * @param digest The hashed output.
+ * @param bytesRead The number of bytes read from the stream and absorbed.
+ * @param <T> The type of the digest.
+ */
+public record StreamDigest<T>(T digest, long bytesRead) {}
@@ -0,0 +1,165 @@
+package io.github.destroyerofcode.bulk;
+
+import io.github.destroyerofcode.hasher.SpongeHasher;
+import io.github.destroyerofcode.jfr.HashEvent;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntFunction;
+import java.util.function.IntUnaryOperator;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Hashes many independent messages on a {@link ForkJoinPool}. The digests are written in input
+ * order into one array, message i at index i times the digest length.
+ *
+ * <p>The work is split by the cumulative number of rate blocks of the messages rather than by
+ * their count, so a few large messages among many small ones do not leave one task with most of
+ * the work. Every leaf task hashes its messages with one {@link SpongeHasher}, reused from message
+ * to message, and copies the digests straight into the output array. One {@link HashEvent} covers
+ * the whole batch.
+ *
+ * @param <T> The type of the digests of the sponge hash.
+ */
+public final class BulkHash<T> {
+
+  /** The number of rate blocks below which a range of messages is hashed in a single task. */
+  static final int LEAF_BLOCKS = 256;
+
+  private final Class<?> engine;
+  private final Supplier<? extends SpongeHasher<T>> hashers;
+  private final IntFunction<T> digestArrays;
+  private final int digestLength;
+  private final int rateBytes;
+  private final ForkJoinPool pool;
+
+  /**
+   * @param engine The class of the sponge hash implementation, recorded in the {@link HashEvent}.
+   * @param hashers Creates the hasher of every task.
+   * @param digestArrays Allocates the output array of the given length.
+   * @param digestLength The number of array elements of a digest.
+   * @param rateBytes The size of a rate block in bytes.
+   * @param pool The pool the tasks run on.
+   */
+  public BulkHash(
+      final Class<?> engine,
+      final Supplier<? extends SpongeHasher<T>> hashers,
+      final IntFunction<T> digestArrays,
+      final int digestLength,
+      final int rateBytes,
+      final ForkJoinPool pool) {
+    this.engine = engine;
+    this.hashers = hashers;
+    this.digestArrays = digestArrays;
+    this.digestLength = digestLength;
+    this.rateBytes = rateBytes;
+    this.pool = pool;
+  }
+
+  /**
+   * Hashes every message, the same as the incremental hasher of each on its own.
+   *
+   * @param messages The messages.
+   * @return the digests, message i at index i times the digest length.
+   */
+  public T hashAll(final List<byte[]> messages) {
+    return hashAll(
+        messages.size(),
+        i -> messages.get(i).length,
+        (hasher, i) -> hasher.putBytes(messages.get(i)));
+  }
+
+  /**
+   * Hashes the remaining bytes of every buffer. The buffer positions are not moved. The stream is
+   * collected first, as the work is split by the sizes of all buffers.
+   *
+   * @param messages The messages.
+   * @return the digests, in the order of the stream.
+   */
+  public T hashAll(final Stream<ByteBuffer> messages) {
+    final List<ByteBuffer> buffers = messages.toList();
+    return hashAll(
+        buffers.size(),
+        i -> buffers.get(i).remaining(),
+        (hasher, i) -> hasher.putBytes(buffers.get(i)));
+  }
+
+  private T hashAll(final int count, final IntUnaryOperator sizes, final MessageWriter<T> writer) {
+    final HashEvent event = new HashEvent();
+    event.begin();
+
+    // the number of blocks of the messages before each index, an empty message counting as one
+    // block for its squeeze
+    final long[] blocks = new long[count + 1];
+    long bytes = 0;
+    for (int i = 0; i < count; i++) {
+      final int size = sizes.applyAsInt(i);
+      blocks[i + 1] = blocks[i] + size / rateBytes + 1;
+      bytes += size;
+    }
+
+    try {
+      final T digests = digestArrays.apply(Math.multiplyExact(count, digestLength));
+      if (count > 0) {
+        pool.invoke(new HashTask<>(this, blocks, writer, digests, 0, count));
+      }
+      return digests;
+    } finally {
+      event.end(engine, "hashAll", bytes, blocks[count]);
+    }
+  }
+
+  @FunctionalInterface
+  private interface MessageWriter<T> {
+    void write(SpongeHasher<T> hasher, int index);
+  }
+
+  private static final class HashTask<T> extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    private final BulkHash<T> bulkHash;
+    private final long[] blocks;
+    private final MessageWriter<T> writer;
+    private final T digests;
+    private final int from;
+    private final int to;
+
+    HashTask(
+        final BulkHash<T> bulkHash,
+        final long[] blocks,
+        final MessageWriter<T> writer,
+        final T digests,
+        final int from,
+        final int to) {
+      this.bulkHash = bulkHash;
+      this.blocks = blocks;
+      this.writer = writer;
+      this.digests = digests;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from == 1 || blocks[to] - blocks[from] <= LEAF_BLOCKS) {
+        final SpongeHasher<T> hasher = bulkHash.hashers.get();
+        for (int i = from; i < to; i++) {
+          writer.write(hasher, i);
+          hasher.digestInto(digests, i * bulkHash.digestLength);
+        }
+        return;
+      }
+      // split where half of the blocks of the range are done
+      final long middle = blocks[from] + (blocks[to] - blocks[from]) / 2;
+      final int found = Arrays.binarySearch(blocks, from + 1, to, middle);
+      final int split = Math.min(to - 1, Math.max(from + 1, found >= 0 ? found : -found - 1));
+      invokeAll(
+          new HashTask<>(bulkHash, blocks, writer, digests, from, split),
+          new HashTask<>(bulkHash, blocks, writer, digests, split, to));
+    }
+  }
+}
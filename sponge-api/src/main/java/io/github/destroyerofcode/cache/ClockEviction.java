@@ -0,0 +1,91 @@
+package io.github.destroyerofcode.cache;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Second-chance (clock) eviction over a concurrent map, bounding it by the number of keys. The
+ * hand is an iterator over the map that is kept from one eviction to the next and restarted at the
+ * end of the map, so every entry gets the same chance. An entry used since the hand last passed it
+ * is spared once, so frequently used entries stay in the map.
+ *
+ * <p>Lookups do not lock. Evictions are serialized by a lock and every eviction checks the size
+ * again, so concurrent misses do not evict more entries than needed to get back to the capacity.
+ *
+ * @param <K> The type of the keys.
+ * @param <E> The type of the entries.
+ */
+public final class ClockEviction<K, E extends ClockEviction.Entry> {
+
+  private final ConcurrentMap<K, E> entries;
+  private final int capacity;
+  private final ReentrantLock lock = new ReentrantLock();
+  private Iterator<Map.Entry<K, E>> hand;
+
+  /**
+   * @param entries The map to evict entries from.
+   * @param capacity The number of entries kept at most.
+   */
+  public ClockEviction(final ConcurrentMap<K, E> entries, final int capacity) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("Capacity must be greater than 0.");
+    }
+    this.entries = entries;
+    this.capacity = capacity;
+  }
+
+  /**
+   * Moves the hand until the map is back within its capacity, to be called after an entry was
+   * added. The hand turns twice at most, the first turn may only clear the referenced bits, so
+   * entries that cannot be evicted do not keep it turning.
+   *
+   * @return the number of entries evicted.
+   */
+  public int evict() {
+    if (entries.size() <= capacity) {
+      return 0;
+    }
+    lock.lock();
+    try {
+      int evicted = 0;
+      for (long steps = 2L * entries.size(); steps > 0 && entries.size() > capacity; steps--) {
+        if (hand == null || !hand.hasNext()) {
+          hand = entries.entrySet().iterator();
+          if (!hand.hasNext()) {
+            break;
+          }
+        }
+        final Map.Entry<K, E> next = hand.next();
+        final Entry entry = next.getValue();
+        if (entry.referenced) {
+          entry.referenced = false;
+        } else if (entry.evictable() && entries.remove(next.getKey(), entry)) {
+          evicted++;
+        }
+      }
+      return evicted;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** An entry of the map, with the referenced bit of the clock. */
+  public abstract static class Entry {
+
+    private volatile boolean referenced;
+
+    /** Marks the entry as used, so the hand spares it the next time it passes. */
+    public final void touch() {
+      referenced = true;
+    }
+
+    /**
+     * @return whether the entry may be evicted, e.g. false while its value is being computed.
+     */
+    protected boolean evictable() {
+      return true;
+    }
+  }
+}
@@ -0,0 +1,141 @@
+package io.github.destroyerofcode.cache;
+
+import io.github.destroyerofcode.exception.SpongeException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Concurrent memoizing cache of digests in front of a hash, bounded by the number of keys.
+ * Concurrent requests for a key that is not cached yet are coalesced: the first one computes the
+ * digest and the others wait for it, so a burst of requests for the same payload hashes it once.
+ *
+ * <p>Lookups of cached keys do not lock. Eviction is a {@link ClockEviction}, as in the key state
+ * cache of the MACs: a key used since the hand last passed it is spared once, so frequently used
+ * keys stay cached. Digests still being computed are never evicted. A failed computation is
+ * not cached, its waiters get the same exception.
+ *
+ * @param <K> The type of the keys, e.g. artifact IDs.
+ * @param <T> The type of the digests.
+ */
+public final class SingleFlightCache<K, T> {
+
+  private final Function<? super K, ? extends T> digester;
+  private final ConcurrentMap<K, Entry<T>> entries = new ConcurrentHashMap<>();
+  private final ClockEviction<K, Entry<T>> clock;
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder coalesced = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  /**
+   * @param digester Computes the digest of a key, e.g. by loading and hashing its payload.
+   * @param capacity The number of digests cached at most.
+   */
+  public SingleFlightCache(final Function<? super K, ? extends T> digester, final int capacity) {
+    this.digester = digester;
+    this.clock = new ClockEviction<>(entries, capacity);
+  }
+
+  /**
+   * Returns the digest of a key, computing it unless it is cached or being computed by another
+   * thread, which is then awaited.
+   *
+   * @param key The key.
+   * @return the digest, which must not be modified as it is shared by all callers.
+   * @throws RuntimeException The exception of the digester, to the request that computed the digest
+   *     and to the requests that waited for it.
+   */
+  public T get(final K key) {
+    final Entry<T> cached = entries.get(key);
+    if (cached != null) {
+      return await(cached);
+    }
+
+    final Entry<T> created = new Entry<>();
+    final Entry<T> existing = entries.putIfAbsent(key, created);
+    if (existing != null) {
+      return await(existing);
+    }
+    misses.increment();
+    try {
+      final T digest = digester.apply(key);
+      created.future.complete(digest);
+    } catch (RuntimeException | Error e) {
+      entries.remove(key, created);
+      created.future.completeExceptionally(e);
+      throw e;
+    }
+    evictions.add(clock.evict());
+    return created.future.join();
+  }
+
+  /**
+   * Drops the digest of a key, e.g. when its payload was replaced. A computation in progress is not
+   * interrupted, its waiters still get its digest.
+   */
+  public void invalidate(final K key) {
+    entries.remove(key);
+  }
+
+  public int size() {
+    return entries.size();
+  }
+
+  /**
+   * @return the number of requests answered from the cache.
+   */
+  public long hits() {
+    return hits.sum();
+  }
+
+  /**
+   * @return the number of requests that computed a digest.
+   */
+  public long misses() {
+    return misses.sum();
+  }
+
+  /**
+   * @return the number of requests that waited for a digest computed by another request.
+   */
+  public long coalesced() {
+    return coalesced.sum();
+  }
+
+  public long evictions() {
+    return evictions.sum();
+  }
+
+  private T await(final Entry<T> entry) {
+    entry.touch();
+    if (entry.future.isDone()) {
+      hits.increment();
+    } else {
+      coalesced.increment();
+    }
+    try {
+      return entry.future.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      }
+      if (e.getCause() instanceof Error error) {
+        throw error;
+      }
+      throw new SpongeException("An error has occurred when computing the digest: ", e);
+    }
+  }
+
+  private static final class Entry<T> extends ClockEviction.Entry {
+    private final CompletableFuture<T> future = new CompletableFuture<>();
+
+    @Override
+    protected boolean evictable() {
+      return future.isDone();
+    }
+  }
+}
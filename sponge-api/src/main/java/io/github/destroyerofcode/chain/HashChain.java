@@ -0,0 +1,308 @@
+package io.github.destroyerofcode.chain;
+
+import io.github.destroyerofcode.api.SpongeHash;
+import java.lang.reflect.Array;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+
+/**
+ * A hash chain H^0(seed) = seed, H^(i+1)(seed) = hash(H^i(seed)) up to a fixed length, as used by
+ * one-time passwords and audit trails. Every element is a digest, hashed as a single block.
+ *
+ * <p>The chain is computed once on construction on a single state: the digest in the first lanes
+ * is fed back as the next block without allocating a state or an output array per step. Every
+ * k-th element is kept as a checkpoint, so any element is recomputed from the checkpoint before it
+ * in less than k steps, for n / k digests of memory. Checkpoints are evenly spaced rather than in a
+ * pebbling layout, as the bound on random access is the same for every index.
+ *
+ * <p>Instances are immutable once constructed and thread-safe: every lookup walks from its
+ * checkpoint on a state of its own, and every task of {@link #verifyAll} on one state for all its
+ * indices.
+ *
+ * @param <T> The array type of the seed, states and digests.
+ */
+public abstract class HashChain<T> {
+
+  /** The number of indices below which a verification batch runs in a single task. */
+  static final int LEAF_INDICES = 16;
+
+  private final SpongeHash<T> spongeHash;
+  private final IntFunction<T> digestArrays;
+  private final int digestLength;
+  private final long length;
+  private final int checkpointInterval;
+  private final T initState;
+  private final T checkpoints;
+  private final T last;
+
+  /**
+   * Computes the chain and its checkpoints.
+   *
+   * @param spongeHash The sponge hash the chain is computed with.
+   * @param seed The first element of the chain, as long as a digest.
+   * @param length The index of the last element of the chain.
+   * @param checkpointInterval The number of steps between checkpoints.
+   * @param digestLength The number of array elements of a digest.
+   * @param digestArrays Allocates an array of the given length.
+   * @throws IllegalArgumentException If the seed is not as long as a digest, the length is
+   *     negative, the interval is not positive or the checkpoints do not fit in an array.
+   */
+  protected HashChain(
+      final SpongeHash<T> spongeHash,
+      final T seed,
+      final long length,
+      final int checkpointInterval,
+      final int digestLength,
+      final IntFunction<T> digestArrays) {
+    if (Array.getLength(seed) != digestLength) {
+      throw new IllegalArgumentException("The seed must be as long as a digest.");
+    }
+    if (length < 0) {
+      throw new IllegalArgumentException("Length must not be negative.");
+    }
+    if (checkpointInterval <= 0) {
+      throw new IllegalArgumentException("Checkpoint interval must be greater than 0.");
+    }
+    final long checkpointCount = length / checkpointInterval + 1;
+    if (checkpointCount > Integer.MAX_VALUE / digestLength) {
+      throw new IllegalArgumentException("Too many checkpoints, the interval is too small.");
+    }
+    this.spongeHash = spongeHash;
+    this.digestArrays = digestArrays;
+    this.digestLength = digestLength;
+    this.length = length;
+    this.checkpointInterval = checkpointInterval;
+    this.initState = spongeHash.initState();
+    this.checkpoints = digestArrays.apply((int) checkpointCount * digestLength);
+
+    final Walker<T> walker = new Walker<>(this);
+    System.arraycopy(seed, 0, walker.digest, 0, digestLength);
+    System.arraycopy(seed, 0, checkpoints, 0, digestLength);
+    for (long i = 1; i <= length; i++) {
+      walker.step();
+      if (i % checkpointInterval == 0) {
+        System.arraycopy(
+            walker.digest,
+            0,
+            checkpoints,
+            (int) (i / checkpointInterval) * digestLength,
+            digestLength);
+      }
+    }
+    this.last = digestArrays.apply(digestLength);
+    System.arraycopy(walker.digest, 0, last, 0, digestLength);
+  }
+
+  /**
+   * @return the index of the last element of the chain.
+   */
+  public long length() {
+    return length;
+  }
+
+  /**
+   * @return the number of steps between checkpoints.
+   */
+  public int checkpointInterval() {
+    return checkpointInterval;
+  }
+
+  /**
+   * @return a copy of the last element of the chain, the one published in one-time password
+   *     schemes.
+   */
+  public T last() {
+    final T copy = digestArrays.apply(digestLength);
+    System.arraycopy(last, 0, copy, 0, digestLength);
+    return copy;
+  }
+
+  /**
+   * Recomputes an element from the checkpoint before it.
+   *
+   * @param index The index of the element, from 0 to {@link #length()}.
+   * @return the element.
+   * @throws IndexOutOfBoundsException If the index is out of the chain.
+   */
+  public T element(final long index) {
+    final T element = digestArrays.apply(digestLength);
+    elementInto(index, element, 0);
+    return element;
+  }
+
+  /**
+   * Recomputes an element from the checkpoint before it into an array.
+   *
+   * @param index The index of the element, from 0 to {@link #length()}.
+   * @param out The array the element is copied to.
+   * @param offset The index in the array of the first element of the digest.
+   * @throws IndexOutOfBoundsException If the index is out of the chain.
+   */
+  public void elementInto(final long index, final T out, final int offset) {
+    Objects.checkIndex(index, length + 1);
+    final Walker<T> walker = new Walker<>(this);
+    walker.seek(index);
+    System.arraycopy(walker.digest, 0, out, offset, digestLength);
+  }
+
+  /**
+   * Checks that a value is the element at an index. The comparison takes the same time wherever
+   * the digests differ.
+   *
+   * @param index The index of the element, from 0 to {@link #length()}.
+   * @param value The value to check.
+   * @return true if the value is the element.
+   * @throws IndexOutOfBoundsException If the index is out of the chain.
+   */
+  public boolean verify(final long index, final T value) {
+    if (Array.getLength(value) != digestLength) {
+      return false;
+    }
+    Objects.checkIndex(index, length + 1);
+    final Walker<T> walker = new Walker<>(this);
+    walker.seek(index);
+    return isEqual(walker.digest, value, 0);
+  }
+
+  /**
+   * Checks many values on the common {@link ForkJoinPool}.
+   *
+   * @see #verifyAll(long[], Object, ForkJoinPool)
+   */
+  public boolean[] verifyAll(final long[] indices, final T values) {
+    return verifyAll(indices, values, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Checks many values in parallel. The indices are visited in increasing order within every
+   * task, so an index a few steps after the previous one continues from it instead of going back
+   * to its checkpoint.
+   *
+   * @param indices The indices of the elements, from 0 to {@link #length()}.
+   * @param values The values, value i at index i times the digest length.
+   * @param pool The pool the tasks run on.
+   * @return for every index whether its value is the element.
+   * @throws IllegalArgumentException If the values are not as many as the indices.
+   * @throws IndexOutOfBoundsException If an index is out of the chain.
+   */
+  public boolean[] verifyAll(final long[] indices, final T values, final ForkJoinPool pool) {
+    if ((long) indices.length * digestLength != Array.getLength(values)) {
+      throw new IllegalArgumentException("There must be one value per index.");
+    }
+    for (final long index : indices) {
+      Objects.checkIndex(index, length + 1);
+    }
+    final int[] order =
+        IntStream.range(0, indices.length)
+            .boxed()
+            .sorted((a, b) -> Long.compare(indices[a], indices[b]))
+            .mapToInt(Integer::intValue)
+            .toArray();
+    final boolean[] valid = new boolean[indices.length];
+    if (indices.length > 0) {
+      pool.invoke(new VerifyTask<>(this, indices, values, order, valid, 0, order.length));
+    }
+    return valid;
+  }
+
+  /**
+   * Compares a digest with one of an array in time independent of their contents.
+   *
+   * @param expected The digest.
+   * @param actual The array holding the other digest.
+   * @param offset The index in the array of the first element of the other digest.
+   * @return true if both digests have the same elements.
+   */
+  protected abstract boolean isEqual(final T expected, final T actual, final int offset);
+
+  /** A state and the element it is at, moved along the chain. */
+  private static final class Walker<T> {
+
+    private final HashChain<T> chain;
+    private final T state;
+    private final T digest;
+    private long position;
+
+    Walker(final HashChain<T> chain) {
+      this.chain = chain;
+      this.state = chain.spongeHash.initState();
+      this.digest = chain.digestArrays.apply(chain.digestLength);
+      seekCheckpoint(0);
+    }
+
+    /** Moves to an index, from the current position when it is not further than the checkpoint. */
+    void seek(final long index) {
+      final long stepsFromCheckpoint = index % chain.checkpointInterval;
+      if (position > index || index - position > stepsFromCheckpoint) {
+        seekCheckpoint((int) (index / chain.checkpointInterval));
+      }
+      while (position < index) {
+        step();
+      }
+    }
+
+    private void seekCheckpoint(final int checkpoint) {
+      System.arraycopy(
+          chain.checkpoints, checkpoint * chain.digestLength, digest, 0, chain.digestLength);
+      position = (long) checkpoint * chain.checkpointInterval;
+    }
+
+    /** Hashes the digest as a single block and keeps the first lanes as the next digest. */
+    void step() {
+      System.arraycopy(chain.initState, 0, state, 0, Array.getLength(state));
+      chain.spongeHash.absorb(state, digest, 0, chain.digestLength);
+      System.arraycopy(state, 0, digest, 0, chain.digestLength);
+      position++;
+    }
+  }
+
+  private static final class VerifyTask<T> extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    private final HashChain<T> chain;
+    private final long[] indices;
+    private final T values;
+    private final int[] order;
+    private final boolean[] valid;
+    private final int from;
+    private final int to;
+
+    VerifyTask(
+        final HashChain<T> chain,
+        final long[] indices,
+        final T values,
+        final int[] order,
+        final boolean[] valid,
+        final int from,
+        final int to) {
+      this.chain = chain;
+      this.indices = indices;
+      this.values = values;
+      this.order = order;
+      this.valid = valid;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from <= LEAF_INDICES) {
+        final Walker<T> walker = new Walker<>(chain);
+        for (int i = from; i < to; i++) {
+          final int value = order[i];
+          walker.seek(indices[value]);
+          valid[value] = chain.isEqual(walker.digest, values, value * chain.digestLength);
+        }
+        return;
+      }
+      final int split = (from + to) >>> 1;
+      invokeAll(
+          new VerifyTask<>(chain, indices, values, order, valid, from, split),
+          new VerifyTask<>(chain, indices, values, order, valid, split, to));
+    }
+  }
+}
@@ -1,5 +1,14 @@
 package io.github.destroyerofcode.common;
 
+import static io.github.destroyerofcode.common.Constants.BITS_IN_BYTE;
+import static io.github.destroyerofcode.common.Constants.BITS_IN_LONG;
+import static io.github.destroyerofcode.common.Constants.BYTES_IN_LONG;
+
+import java.lang.reflect.Array;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Objects;
+
 public class Utils {
   /**
    * Performs a left bit rotation on a byte.
@@ -44,5 +53,64 @@ public class Utils {
     return multiple;
   }
 
+  /**
+   * Packs bytes big-endian into longs, the same way a byte stream is read into the lanes of a
+   * 1600-bit state. The last long is zero padded.
+   *
+   * @param bytes The bytes to pack, from position to limit. The buffer position is not moved.
+   * @return the packed longs.
+   */
+  public static long[] bytesToLongs(final ByteBuffer bytes) {
+    final ByteBuffer buffer = bytes.duplicate().order(ByteOrder.BIG_ENDIAN);
+    final long[] longs = new long[(buffer.remaining() + BYTES_IN_LONG - 1) / BYTES_IN_LONG];
+
+    int i = 0;
+    while (buffer.remaining() >= BYTES_IN_LONG) {
+      longs[i++] = buffer.getLong();
+    }
+    for (int shift = BITS_IN_LONG - BITS_IN_BYTE; buffer.hasRemaining(); shift -= BITS_IN_BYTE) {
+      longs[i] |= (buffer.get() & 0xFFL) << shift;
+    }
+    return longs;
+  }
+
+  /**
+   * Packs a range of a byte array big-endian into longs.
+   *
+   * @see #bytesToLongs(ByteBuffer)
+   */
+  public static long[] bytesToLongs(final byte[] bytes, final int offset, final int length) {
+    return bytesToLongs(ByteBuffer.wrap(bytes, offset, length));
+  }
+
+  /**
+   * Copies a range of an array of any element type, e.g. a long[] or a byte[].
+   *
+   * @param array The array holding the range.
+   * @param offset The index of the first element of the range.
+   * @param length The number of elements of the range.
+   * @return a new array of the same type holding the range.
+   * @throws IndexOutOfBoundsException If the range is out of the bounds of the array.
+   */
+  @SuppressWarnings("unchecked")
+  public static <T> T copyOfRange(final T array, final int offset, final int length) {
+    Objects.checkFromIndexSize(offset, length, Array.getLength(array));
+    final T copy = (T) Array.newInstance(array.getClass().getComponentType(), length);
+    System.arraycopy(array, offset, copy, 0, length);
+    return copy;
+  }
+
+  /**
+   * Unpacks longs big-endian into a byte array, the inverse of {@link #bytesToLongs(ByteBuffer)}.
+   *
+   * @param longs The longs to unpack.
+   * @return a byte array 8 times as long as the given array.
+   */
+  public static byte[] longsToBytes(final long[] longs) {
+    final ByteBuffer buffer = ByteBuffer.allocate(longs.length * BYTES_IN_LONG);
+    buffer.asLongBuffer().put(longs);
+    return buffer.array();
+  }
+
   public static final byte[] MOD_5 = {0, 1, 2, 3, 4, 0, 1, 2, 3, 4};
 }
@@ -0,0 +1,21 @@
+package io.github.destroyerofcode.hasher;
+
+/**
+ * Writes the fields of an object into a {@link SpongeHasher}, so records are hashed without being
+ * serialized into a byte array first. A funnel should write variable-length fields with their
+ * length, e.g. with {@link SpongeHasher#putPrefixedString}, so different records never write the
+ * same bytes.
+ *
+ * <pre>{@code
+ * Funnel<Order> funnel =
+ *     (order, into) ->
+ *         into.putLong(order.id()).putLong(order.timestamp()).putPrefixedString(order.note());
+ * }</pre>
+ *
+ * @param <R> The type of the objects.
+ */
+@FunctionalInterface
+public interface Funnel<R> {
+
+  void funnel(R from, SpongeHasher<?> into);
+}
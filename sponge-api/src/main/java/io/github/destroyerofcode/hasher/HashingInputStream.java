@@ -0,0 +1,107 @@
+package io.github.destroyerofcode.hasher;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Input stream hashing the bytes read through it, e.g. while copying a download to disk, so the
+ * data does not have to be read again to be hashed. Bytes are written into the {@link
+ * SpongeHasher}, which only copies them into its block buffer while a block is incomplete.
+ *
+ * <p>Skipped bytes are read and hashed too. Mark and reset are not supported, as bytes read again
+ * would be hashed twice.
+ *
+ * @param <T> The type of the digest.
+ */
+public class HashingInputStream<T> extends FilterInputStream {
+
+  private final SpongeHasher<T> hasher;
+  private T digest;
+  private long bytesHashedAtClose;
+
+  /**
+   * @param hasher The hasher, reset before the first byte is read.
+   * @param in The stream the bytes are read from.
+   */
+  public HashingInputStream(final SpongeHasher<T> hasher, final InputStream in) {
+    super(in);
+    this.hasher = hasher;
+    hasher.reset();
+  }
+
+  @Override
+  public int read() throws IOException {
+    final int read = in.read();
+    if (read >= 0) {
+      hasher.putByte((byte) read);
+    }
+    return read;
+  }
+
+  @Override
+  public int read(final byte[] bytes, final int offset, final int length) throws IOException {
+    final int read = in.read(bytes, offset, length);
+    if (read > 0) {
+      hasher.putBytes(bytes, offset, read);
+    }
+    return read;
+  }
+
+  @Override
+  public long skip(final long count) throws IOException {
+    final byte[] skipped = new byte[(int) Math.min(8192, Math.max(0, count))];
+    long total = 0;
+    while (total < count) {
+      final int read = read(skipped, 0, (int) Math.min(skipped.length, count - total));
+      if (read < 0) {
+        break;
+      }
+      total += read;
+    }
+    return total;
+  }
+
+  @Override
+  public boolean markSupported() {
+    return false;
+  }
+
+  @Override
+  public synchronized void mark(final int readLimit) {
+    // not supported, see markSupported()
+  }
+
+  @Override
+  public synchronized void reset() throws IOException {
+    throw new IOException("Mark and reset are not supported by a hashing stream");
+  }
+
+  /**
+   * @return the number of bytes read so far.
+   */
+  public long bytesHashed() {
+    return digest == null ? hasher.bytesAbsorbed() : bytesHashedAtClose;
+  }
+
+  /** Closes the underlying stream and computes the digest of the bytes read. */
+  @Override
+  public void close() throws IOException {
+    if (digest == null) {
+      bytesHashedAtClose = hasher.bytesAbsorbed();
+      digest = hasher.digest();
+    }
+    super.close();
+  }
+
+  /**
+   * @return the digest of the bytes read.
+   * @throws IllegalStateException If the stream is not closed yet.
+   */
+  public T digest() {
+    if (digest == null) {
+      throw new IllegalStateException("The digest is computed when the stream is closed.");
+    }
+    return digest;
+  }
+}
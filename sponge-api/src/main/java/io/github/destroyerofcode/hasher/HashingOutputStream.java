@@ -0,0 +1,70 @@
+package io.github.destroyerofcode.hasher;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Output stream hashing the bytes written through it, e.g. while writing an upload to disk, so the
+ * data does not have to be read back to be hashed. Bytes are passed on as they are and written
+ * into the {@link SpongeHasher}, which only copies them into its block buffer while a block is
+ * incomplete.
+ *
+ * @param <T> The type of the digest.
+ */
+public class HashingOutputStream<T> extends FilterOutputStream {
+
+  private final SpongeHasher<T> hasher;
+  private T digest;
+  private long bytesHashedAtClose;
+
+  /**
+   * @param hasher The hasher, reset before the first byte is written.
+   * @param out The stream the bytes are written to.
+   */
+  public HashingOutputStream(final SpongeHasher<T> hasher, final OutputStream out) {
+    super(out);
+    this.hasher = hasher;
+    hasher.reset();
+  }
+
+  @Override
+  public void write(final int value) throws IOException {
+    out.write(value);
+    hasher.putByte((byte) value);
+  }
+
+  @Override
+  public void write(final byte[] bytes, final int offset, final int length) throws IOException {
+    out.write(bytes, offset, length);
+    hasher.putBytes(bytes, offset, length);
+  }
+
+  /**
+   * @return the number of bytes written so far.
+   */
+  public long bytesHashed() {
+    return digest == null ? hasher.bytesAbsorbed() : bytesHashedAtClose;
+  }
+
+  /** Flushes and closes the underlying stream and computes the digest of the bytes written. */
+  @Override
+  public void close() throws IOException {
+    if (digest == null) {
+      bytesHashedAtClose = hasher.bytesAbsorbed();
+      digest = hasher.digest();
+    }
+    super.close();
+  }
+
+  /**
+   * @return the digest of the bytes written.
+   * @throws IllegalStateException If the stream is not closed yet.
+   */
+  public T digest() {
+    if (digest == null) {
+      throw new IllegalStateException("The digest is computed when the stream is closed.");
+    }
+    return digest;
+  }
+}
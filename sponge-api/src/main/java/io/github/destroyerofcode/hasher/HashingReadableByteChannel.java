@@ -0,0 +1,73 @@
+package io.github.destroyerofcode.hasher;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * Channel hashing the bytes read through it. The bytes a read put into the destination buffer are
+ * written into the {@link SpongeHasher} straight from that buffer, whatever the size of the read.
+ *
+ * @param <T> The type of the digest.
+ */
+public class HashingReadableByteChannel<T> implements ReadableByteChannel {
+
+  private final SpongeHasher<T> hasher;
+  private final ReadableByteChannel channel;
+  private T digest;
+  private long bytesHashedAtClose;
+
+  /**
+   * @param hasher The hasher, reset before the first byte is read.
+   * @param channel The channel the bytes are read from.
+   */
+  public HashingReadableByteChannel(
+      final SpongeHasher<T> hasher, final ReadableByteChannel channel) {
+    this.hasher = hasher;
+    this.channel = channel;
+    hasher.reset();
+  }
+
+  @Override
+  public int read(final ByteBuffer destination) throws IOException {
+    final int start = destination.position();
+    final int read = channel.read(destination);
+    if (read > 0) {
+      hasher.putBytes(destination.duplicate().position(start).limit(start + read));
+    }
+    return read;
+  }
+
+  @Override
+  public boolean isOpen() {
+    return channel.isOpen();
+  }
+
+  /**
+   * @return the number of bytes read so far.
+   */
+  public long bytesHashed() {
+    return digest == null ? hasher.bytesAbsorbed() : bytesHashedAtClose;
+  }
+
+  /** Closes the underlying channel and computes the digest of the bytes read. */
+  @Override
+  public void close() throws IOException {
+    if (digest == null) {
+      bytesHashedAtClose = hasher.bytesAbsorbed();
+      digest = hasher.digest();
+    }
+    channel.close();
+  }
+
+  /**
+   * @return the digest of the bytes read.
+   * @throws IllegalStateException If the channel is not closed yet.
+   */
+  public T digest() {
+    if (digest == null) {
+      throw new IllegalStateException("The digest is computed when the channel is closed.");
+    }
+    return digest;
+  }
+}
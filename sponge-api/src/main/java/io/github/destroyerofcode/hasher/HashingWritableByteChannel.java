@@ -0,0 +1,74 @@
+package io.github.destroyerofcode.hasher;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Channel hashing the bytes written through it. Only the bytes the underlying channel accepted are
+ * hashed, straight from the source buffer, so partial writes are hashed once when the rest is
+ * written again.
+ *
+ * @param <T> The type of the digest.
+ */
+public class HashingWritableByteChannel<T> implements WritableByteChannel {
+
+  private final SpongeHasher<T> hasher;
+  private final WritableByteChannel channel;
+  private T digest;
+  private long bytesHashedAtClose;
+
+  /**
+   * @param hasher The hasher, reset before the first byte is written.
+   * @param channel The channel the bytes are written to.
+   */
+  public HashingWritableByteChannel(
+      final SpongeHasher<T> hasher, final WritableByteChannel channel) {
+    this.hasher = hasher;
+    this.channel = channel;
+    hasher.reset();
+  }
+
+  @Override
+  public int write(final ByteBuffer source) throws IOException {
+    final int start = source.position();
+    final int written = channel.write(source);
+    if (written > 0) {
+      hasher.putBytes(source.duplicate().position(start).limit(start + written));
+    }
+    return written;
+  }
+
+  @Override
+  public boolean isOpen() {
+    return channel.isOpen();
+  }
+
+  /**
+   * @return the number of bytes written so far.
+   */
+  public long bytesHashed() {
+    return digest == null ? hasher.bytesAbsorbed() : bytesHashedAtClose;
+  }
+
+  /** Closes the underlying channel and computes the digest of the bytes written. */
+  @Override
+  public void close() throws IOException {
+    if (digest == null) {
+      bytesHashedAtClose = hasher.bytesAbsorbed();
+      digest = hasher.digest();
+    }
+    channel.close();
+  }
+
+  /**
+   * @return the digest of the bytes written.
+   * @throws IllegalStateException If the channel is not closed yet.
+   */
+  public T digest() {
+    if (digest == null) {
+      throw new IllegalStateException("The digest is computed when the channel is closed.");
+    }
+    return digest;
+  }
+}
@@ -0,0 +1,530 @@
+package io.github.destroyerofcode.hasher;
+
+import static io.github.destroyerofcode.common.Constants.BYTES_IN_LONG;
+
+import io.github.destroyerofcode.api.SpongeHash;
+import io.github.destroyerofcode.exception.SpongeException;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.lang.reflect.Array;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Objects;
+
+/**
+ * Incremental hashing of a byte stream fed in pieces. Bytes are written into a buffer of one rate
+ * block, which is absorbed whenever it fills, so no input is ever collected into a full-length
+ * array. The digest equals the digest of the concatenated bytes through the byte stream entry
+ * point of the same {@link SpongeHash}, including the padding of the last block with 0s.
+ *
+ * <p>Records are hashed field by field with the primitive writes, which store their big-endian
+ * bytes straight into the block, or with a {@link Funnel} describing the fields. Variable-length
+ * fields should be written with the length-prefixed variants, so that the boundaries between
+ * fields are part of the hashed bytes.
+ *
+ * <p>A hash in progress can be saved with {@link #checkpoint()} and continued later, e.g. after a
+ * restart, with {@link #restore(byte[])} on a hasher of the same module. The checkpoint holds the
+ * state lanes, the pending bytes of the block and the byte count, a few hundred bytes at most.
+ *
+ * <p>{@link #digest()} absorbs the pending bytes, squeezes the digest and resets the hasher, so one
+ * instance can hash many messages. Instances are not thread-safe.
+ *
+ * @param <T> The type of the states and digests of the sponge hash.
+ */
+public abstract class SpongeHasher<T> {
+
+  private static final VarHandle LONGS =
+      MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+  private static final VarHandle INTS =
+      MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+
+  private static final int CHECKPOINT_MAGIC = 0x53504843; // "SPHC"
+  private static final byte CHECKPOINT_VERSION = 1;
+  private static final int STREAM_CHUNK_BYTES = 64 * 1024;
+
+  protected final SpongeHash<T> spongeHash;
+  protected T state;
+  private final T initialState;
+  private final byte[] block;
+  private int position;
+  private long bytesAbsorbed;
+
+  /**
+   * @param spongeHash The sponge hash whose states are updated.
+   * @param rateBytes The size of a rate block in bytes.
+   */
+  protected SpongeHasher(final SpongeHash<T> spongeHash, final int rateBytes) {
+    this.spongeHash = spongeHash;
+    this.state = spongeHash.initState();
+    this.initialState = spongeHash.initState();
+    this.block = new byte[rateBytes];
+  }
+
+  /**
+   * Absorbs one block into {@link #state}, permutation included.
+   *
+   * @param source The array holding the block.
+   * @param offset The index of the first byte of the block.
+   * @param length The number of bytes of the block, less than the rate only for the last block,
+   *     which is absorbed as if padded with 0s.
+   */
+  protected abstract void absorbBlock(final byte[] source, final int offset, final int length);
+
+  /**
+   * Copies the digest out of {@link #state}, after the last block was absorbed.
+   *
+   * @param out The array receiving the digest.
+   * @param offset The index of the first element of the digest in out.
+   */
+  protected abstract void copyDigest(final T out, final int offset);
+
+  /**
+   * Writes the lanes of {@link #state} for a checkpoint.
+   *
+   * @param out The checkpoint output.
+   * @throws IOException If writing fails.
+   */
+  protected abstract void writeState(final DataOutput out) throws IOException;
+
+  /**
+   * Reads the lanes written by {@link #writeState} into {@link #state}.
+   *
+   * @param in The checkpoint input.
+   * @throws IOException If reading fails.
+   */
+  protected abstract void readState(final DataInput in) throws IOException;
+
+  public SpongeHasher<T> putByte(final byte value) {
+    block[position++] = value;
+    if (position == block.length) {
+      flushBlock();
+    }
+    return this;
+  }
+
+  public SpongeHasher<T> putBytes(final byte[] bytes) {
+    return putBytes(bytes, 0, bytes.length);
+  }
+
+  /**
+   * Writes a range of bytes. Whole blocks are absorbed straight from the array while the block
+   * buffer is empty.
+   *
+   * @param bytes The array holding the bytes.
+   * @param offset The index of the first byte.
+   * @param length The number of bytes.
+   * @return this hasher.
+   */
+  public SpongeHasher<T> putBytes(final byte[] bytes, final int offset, final int length) {
+    Objects.checkFromIndexSize(offset, length, bytes.length);
+    int i = offset;
+    final int end = offset + length;
+    if (position > 0) {
+      final int copied = Math.min(block.length - position, length);
+      System.arraycopy(bytes, i, block, position, copied);
+      position += copied;
+      i += copied;
+      if (position == block.length) {
+        flushBlock();
+      }
+    }
+    for (; end - i >= block.length; i += block.length) {
+      absorbBlock(bytes, i, block.length);
+      bytesAbsorbed += block.length;
+    }
+    System.arraycopy(bytes, i, block, position, end - i);
+    position += end - i;
+    return this;
+  }
+
+  /**
+   * Writes the remaining bytes of a buffer. The position of the buffer is not moved.
+   *
+   * @param bytes The bytes, from position to limit.
+   * @return this hasher.
+   */
+  public SpongeHasher<T> putBytes(final ByteBuffer bytes) {
+    if (bytes.hasArray()) {
+      return putBytes(bytes.array(), bytes.arrayOffset() + bytes.position(), bytes.remaining());
+    }
+    for (int i = bytes.position(); i < bytes.limit(); ) {
+      final int copied = Math.min(block.length - position, bytes.limit() - i);
+      bytes.get(i, block, position, copied);
+      position += copied;
+      i += copied;
+      if (position == block.length) {
+        flushBlock();
+      }
+    }
+    return this;
+  }
+
+  /**
+   * Writes the UTF-8 encoding of a string, encoded straight into the block buffer. Runs of ASCII
+   * characters are copied without branching on the encoding. Unpaired surrogates are written as
+   * '?', the same as {@link String#getBytes(java.nio.charset.Charset)} does.
+   *
+   * @param chars The characters.
+   * @return this hasher.
+   */
+  public SpongeHasher<T> putString(final CharSequence chars) {
+    final int length = chars.length();
+    int i = 0;
+    while (i < length) {
+      // ASCII fast path, bounded by the room left in the block
+      final int end = Math.min(length, i + block.length - position);
+      char c;
+      while (i < end && (c = chars.charAt(i)) < 0x80) {
+        block[position++] = (byte) c;
+        i++;
+      }
+      if (position == block.length) {
+        flushBlock();
+      }
+      if (i < end) {
+        i = putNonAscii(chars, i, length);
+      }
+    }
+    return this;
+  }
+
+  /**
+   * Writes the 8 big-endian bytes of a long. For Keccak-1600, a long written at a multiple of 8
+   * bytes fills exactly one lane.
+   *
+   * @param value The value.
+   * @return this hasher.
+   */
+  public SpongeHasher<T> putLong(final long value) {
+    if (block.length - position >= BYTES_IN_LONG) {
+      LONGS.set(block, position, value);
+      position += BYTES_IN_LONG;
+      if (position == block.length) {
+        flushBlock();
+      }
+      return this;
+    }
+    for (int shift = Long.SIZE - Byte.SIZE; shift >= 0; shift -= Byte.SIZE) {
+      putByte((byte) (value >>> shift));
+    }
+    return this;
+  }
+
+  /**
+   * Writes the 4 big-endian bytes of an int.
+   *
+   * @param value The value.
+   * @return this hasher.
+   */
+  public SpongeHasher<T> putInt(final int value) {
+    if (block.length - position >= Integer.BYTES) {
+      INTS.set(block, position, value);
+      position += Integer.BYTES;
+      if (position == block.length) {
+        flushBlock();
+      }
+      return this;
+    }
+    for (int shift = Integer.SIZE - Byte.SIZE; shift >= 0; shift -= Byte.SIZE) {
+      putByte((byte) (value >>> shift));
+    }
+    return this;
+  }
+
+  /**
+   * Writes the bits of a double as a long. -0.0 is written as 0.0 and all NaNs as the canonical
+   * NaN, so doubles that are equal by {@code ==}, and NaNs, hash the same.
+   *
+   * @param value The value.
+   * @return this hasher.
+   */
+  public SpongeHasher<T> putDouble(final double value) {
+    return putLong(Double.doubleToLongBits(value == 0.0 ? 0.0 : value));
+  }
+
+  public SpongeHasher<T> putBoolean(final boolean value) {
+    return putByte((byte) (value ? 1 : 0));
+  }
+
+  /**
+   * Writes the length of a byte range as an int followed by the bytes.
+   *
+   * @param bytes The array holding the bytes.
+   * @param offset The index of the first byte.
+   * @param length The number of bytes.
+   * @return this hasher.
+   */
+  public SpongeHasher<T> putPrefixedBytes(final byte[] bytes, final int offset, final int length) {
+    Objects.checkFromIndexSize(offset, length, bytes.length);
+    return putInt(length).putBytes(bytes, offset, length);
+  }
+
+  public SpongeHasher<T> putPrefixedBytes(final byte[] bytes) {
+    return putPrefixedBytes(bytes, 0, bytes.length);
+  }
+
+  /**
+   * Writes the length of the UTF-8 encoding of a string as an int followed by the encoding. The
+   * length is counted in a first pass over the characters, so nothing is allocated.
+   *
+   * @param chars The characters.
+   * @return this hasher.
+   */
+  public SpongeHasher<T> putPrefixedString(final CharSequence chars) {
+    return putInt(utf8Length(chars)).putString(chars);
+  }
+
+  /**
+   * Writes an object through a funnel describing its fields.
+   *
+   * @param object The object.
+   * @param funnel The funnel writing the fields of the object.
+   * @param <R> The type of the object.
+   * @return this hasher.
+   */
+  public <R> SpongeHasher<T> putObject(final R object, final Funnel<? super R> funnel) {
+    funnel.funnel(object, this);
+    return this;
+  }
+
+  /**
+   * Writes the bytes of a stream until its end, or until maxBytes bytes. The stream is read in
+   * chunks of 64 KiB.
+   *
+   * @param in The stream.
+   * @param maxBytes The number of bytes to read at most.
+   * @return the number of bytes read.
+   * @throws IOException If reading the stream fails.
+   */
+  public long putStream(final InputStream in, final long maxBytes) throws IOException {
+    final byte[] chunk = new byte[(int) Math.min(STREAM_CHUNK_BYTES, Math.max(0, maxBytes))];
+    long total = 0;
+    while (total < maxBytes) {
+      final int wanted = (int) Math.min(chunk.length, maxBytes - total);
+      final int read = in.readNBytes(chunk, 0, wanted);
+      putBytes(chunk, 0, read);
+      total += read;
+      if (read < wanted) {
+        break;
+      }
+    }
+    return total;
+  }
+
+  /**
+   * @return the number of bytes written since the last reset.
+   */
+  public long bytesAbsorbed() {
+    return bytesAbsorbed + position;
+  }
+
+  /**
+   * Absorbs the pending bytes, squeezes the digest and resets the hasher.
+   *
+   * @return the digest of all bytes written since the last reset.
+   */
+  public T digest() {
+    if (position > 0) {
+      absorbBlock(block, 0, position);
+    }
+    final T digest = spongeHash.squeeze(state);
+    reset();
+    return digest;
+  }
+
+  /**
+   * Absorbs the pending bytes, copies the digest into an array and resets the hasher. Unlike
+   * {@link #digest()}, nothing is allocated.
+   *
+   * @param out The array receiving the digest.
+   * @param offset The index of the first element of the digest in out.
+   */
+  public void digestInto(final T out, final int offset) {
+    if (position > 0) {
+      absorbBlock(block, 0, position);
+    }
+    copyDigest(out, offset);
+    reset();
+  }
+
+  /**
+   * Continues the hash in progress of another hasher of the same module, e.g. to hash many messages
+   * with a common prefix written once. Only the state lanes and the pending bytes of the block are
+   * copied.
+   *
+   * @param other The hasher to copy.
+   * @return this hasher.
+   */
+  public SpongeHasher<T> copyFrom(final SpongeHasher<T> other) {
+    if (other.block.length != block.length) {
+      throw new IllegalArgumentException("Hashers of different rates cannot be copied.");
+    }
+    System.arraycopy(other.state, 0, state, 0, Array.getLength(state));
+    System.arraycopy(other.block, 0, block, 0, other.position);
+    position = other.position;
+    bytesAbsorbed = other.bytesAbsorbed;
+    return this;
+  }
+
+  /**
+   * Saves the hash in progress. The format is a magic number, a version byte, the rate in bytes,
+   * the number of bytes written, the state lanes and the pending bytes of the current block.
+   *
+   * @return the checkpoint.
+   */
+  public byte[] checkpoint() {
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (final DataOutputStream out = new DataOutputStream(bytes)) {
+      writeCheckpoint(out);
+    } catch (IOException e) {
+      throw new SpongeException("An error has occurred when writing the checkpoint: ", e);
+    }
+    return bytes.toByteArray();
+  }
+
+  /**
+   * Writes a checkpoint of the hash in progress, e.g. to a file.
+   *
+   * @param out The output.
+   * @throws IOException If writing fails.
+   */
+  public void writeCheckpoint(final DataOutput out) throws IOException {
+    out.writeInt(CHECKPOINT_MAGIC);
+    out.writeByte(CHECKPOINT_VERSION);
+    out.writeShort(block.length);
+    out.writeLong(bytesAbsorbed());
+    writeState(out);
+    out.write(block, 0, position);
+  }
+
+  /**
+   * Continues the hash saved by {@link #checkpoint()}, dropping the bytes written so far.
+   *
+   * @param checkpoint The checkpoint of a hasher of the same module.
+   * @return this hasher.
+   * @throws SpongeException If the checkpoint is not valid for this hasher.
+   */
+  public SpongeHasher<T> restore(final byte[] checkpoint) {
+    try {
+      return restore(new DataInputStream(new ByteArrayInputStream(checkpoint)));
+    } catch (IOException e) {
+      throw new SpongeException("Truncated checkpoint: ", e);
+    }
+  }
+
+  /**
+   * Continues the hash saved by {@link #writeCheckpoint}, dropping the bytes written so far. If
+   * the checkpoint cannot be read, the hasher is reset.
+   *
+   * @param in The input positioned at the checkpoint.
+   * @return this hasher.
+   * @throws IOException If reading fails.
+   * @throws SpongeException If the checkpoint is not valid for this hasher.
+   */
+  public SpongeHasher<T> restore(final DataInput in) throws IOException {
+    try {
+      if (in.readInt() != CHECKPOINT_MAGIC) {
+        throw new SpongeException("Not a hasher checkpoint");
+      }
+      final byte version = in.readByte();
+      if (version != CHECKPOINT_VERSION) {
+        throw new SpongeException("Unsupported checkpoint version: " + version);
+      }
+      final int rateBytes = in.readUnsignedShort();
+      if (rateBytes != block.length) {
+        throw new SpongeException("Checkpoint of a hash with a rate of " + rateBytes + " bytes");
+      }
+      final long written = in.readLong();
+      if (written < 0) {
+        throw new SpongeException("Invalid checkpoint byte count: " + written);
+      }
+      readState(in);
+      position = (int) (written % block.length);
+      bytesAbsorbed = written - position;
+      in.readFully(block, 0, position);
+      return this;
+    } catch (IOException | RuntimeException e) {
+      // never continue from a partly read state
+      reset();
+      throw e;
+    }
+  }
+
+  /** Drops the bytes written so far and starts a new message. */
+  public void reset() {
+    System.arraycopy(initialState, 0, state, 0, Array.getLength(state));
+    position = 0;
+    bytesAbsorbed = 0;
+  }
+
+  private void flushBlock() {
+    absorbBlock(block, 0, block.length);
+    bytesAbsorbed += block.length;
+    position = 0;
+  }
+
+  /**
+   * @return the number of bytes {@link #putString} writes for the characters.
+   */
+  static int utf8Length(final CharSequence chars) {
+    final int length = chars.length();
+    int bytes = length;
+    for (int i = 0; i < length; i++) {
+      final char c = chars.charAt(i);
+      if (c >= 0x800) {
+        if (!Character.isSurrogate(c)) {
+          bytes += 2;
+        } else if (Character.isHighSurrogate(c)
+            && i + 1 < length
+            && Character.isLowSurrogate(chars.charAt(i + 1))) {
+          // 4 bytes for the 2 characters of the pair
+          bytes += 2;
+          i++;
+        }
+      } else if (c >= 0x80) {
+        bytes++;
+      }
+    }
+    return bytes;
+  }
+
+  /**
+   * Encodes the character at index i, or the surrogate pair starting there.
+   *
+   * @return the index of the next character.
+   */
+  private int putNonAscii(final CharSequence chars, final int i, final int length) {
+    final char c = chars.charAt(i);
+    if (c < 0x800) {
+      putByte((byte) (0xC0 | c >> 6));
+      putByte((byte) (0x80 | c & 0x3F));
+      return i + 1;
+    }
+    if (!Character.isSurrogate(c)) {
+      putByte((byte) (0xE0 | c >> 12));
+      putByte((byte) (0x80 | c >> 6 & 0x3F));
+      putByte((byte) (0x80 | c & 0x3F));
+      return i + 1;
+    }
+    if (Character.isHighSurrogate(c)
+        && i + 1 < length
+        && Character.isLowSurrogate(chars.charAt(i + 1))) {
+      final int codePoint = Character.toCodePoint(c, chars.charAt(i + 1));
+      putByte((byte) (0xF0 | codePoint >> 18));
+      putByte((byte) (0x80 | codePoint >> 12 & 0x3F));
+      putByte((byte) (0x80 | codePoint >> 6 & 0x3F));
+      putByte((byte) (0x80 | codePoint & 0x3F));
+      return i + 2;
+    }
+    putByte((byte) '?');
+    return i + 1;
+  }
+}
@@ -0,0 +1,74 @@
+package io.github.destroyerofcode.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * JDK Flight Recorder event covering one call of a hash entry point, so slow hashes can be
+ * correlated with GC and I/O in a recording.
+ *
+ * <p>The event is disabled by default. While disabled, {@link #begin()} and {@link #end} reduce to
+ * a check of the enabled flag and the JIT removes the event allocation. Enable it, and lower or
+ * raise the threshold of 20 ms below which calls are not recorded, in the recording settings:
+ *
+ * <pre>{@code
+ * recording.enable(HashEvent.NAME).withThreshold(Duration.ofMillis(5));
+ * }</pre>
+ *
+ * or with {@code io.github.destroyerofcode.Hash#enabled=true} and {@code
+ * io.github.destroyerofcode.Hash#threshold=5 ms} in a {@code .jfc} file.
+ */
+@Name(HashEvent.NAME)
+@Label("Sponge Hash")
+@Category("Sponge Hash")
+@Description("A call of a sponge hash entry point")
+@Enabled(false)
+@Threshold("20 ms")
+@StackTrace(false)
+public class HashEvent extends Event {
+
+  public static final String NAME = "io.github.destroyerofcode.Hash";
+
+  @Label("Operation")
+  @Description("The hash entry point, e.g. hash or hashStream")
+  String operation;
+
+  @Label("Engine")
+  @Description("The class of the sponge hash implementation")
+  Class<?> engine;
+
+  @Label("Message Size")
+  @DataAmount(DataAmount.BYTES)
+  long messageSize;
+
+  @Label("Blocks")
+  @Description("The number of rate blocks absorbed")
+  long blocks;
+
+  /**
+   * Ends the event and commits it if it is enabled and took longer than the threshold.
+   *
+   * @param engine The class of the sponge hash implementation.
+   * @param operation The hash entry point.
+   * @param messageSize The size of the hashed message in bytes.
+   * @param blocks The number of rate blocks absorbed.
+   */
+  public void end(
+      final Class<?> engine, final String operation, final long messageSize, final long blocks) {
+    end();
+    if (shouldCommit()) {
+      this.engine = engine;
+      this.operation = operation;
+      this.messageSize = messageSize;
+      this.blocks = blocks;
+      commit();
+    }
+  }
+}
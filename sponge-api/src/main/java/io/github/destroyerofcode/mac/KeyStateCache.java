@@ -0,0 +1,94 @@
+package io.github.destroyerofcode.mac;
+
+import io.github.destroyerofcode.cache.ClockEviction;
+import java.lang.reflect.Array;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * Concurrent cache of the states a key has been absorbed into, bounded by the number of keys.
+ * Lookups do not lock. Eviction is a {@link ClockEviction}: a key used since the hand last passed
+ * it is spared once, so frequently used keys stay cached.
+ *
+ * @param <T> The array type of the keys and states.
+ */
+final class KeyStateCache<T> {
+
+  private final ConcurrentMap<Key, Entry<T>> entries = new ConcurrentHashMap<>();
+  private final ClockEviction<Key, Entry<T>> clock;
+
+  KeyStateCache(final int capacity) {
+    this.clock = new ClockEviction<>(entries, capacity);
+  }
+
+  /**
+   * Returns the cached state of a key, absorbing the key on a miss.
+   *
+   * @param key The key, it is copied before it is cached.
+   * @param absorbKey Absorbs a key into a new state.
+   * @return the state of the key, which must not be modified.
+   */
+  T get(final T key, final Function<T, T> absorbKey) {
+    final Key lookup = new Key(key);
+    final Entry<T> cached = entries.get(lookup);
+    if (cached != null) {
+      cached.touch();
+      return cached.state;
+    }
+
+    final T state = absorbKey.apply(key);
+    final Entry<T> entry = entries.putIfAbsent(lookup.copy(), new Entry<>(state));
+    if (entry != null) {
+      return entry.state;
+    }
+    clock.evict();
+    return state;
+  }
+
+  int size() {
+    return entries.size();
+  }
+
+  void clear() {
+    entries.clear();
+  }
+
+  private static final class Entry<T> extends ClockEviction.Entry {
+    private final T state;
+
+    private Entry(final T state) {
+      this.state = state;
+    }
+  }
+
+  /** A primitive array compared by its elements instead of its identity. */
+  private static final class Key {
+    private final Object array;
+    private final int hash;
+
+    private Key(final Object array) {
+      this.array = array;
+      this.hash = Arrays.deepHashCode(new Object[] {array});
+    }
+
+    private Key copy() {
+      final int length = Array.getLength(array);
+      final Object copy = Array.newInstance(array.getClass().getComponentType(), length);
+      System.arraycopy(array, 0, copy, 0, length);
+      return new Key(copy);
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+      return other instanceof Key key && hash == key.hash && Objects.deepEquals(array, key.array);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+}
@@ -0,0 +1,170 @@
+package io.github.destroyerofcode.mac;
+
+import io.github.destroyerofcode.api.SpongeHash;
+import java.lang.reflect.Array;
+import java.util.Objects;
+
+/**
+ * Keyed message authentication on top of a {@link SpongeHash}. The tag of a message is the hash of
+ * the encoded key followed by the encoded message. Each is padded with 0s to whole blocks, and its
+ * length is written into the last elements of the rate of its final block:
+ *
+ * <pre>tag = hash(encode(key) || encode(message))</pre>
+ *
+ * <p>When the last block of a key or a message is full, or leaves no room for the length, the
+ * length goes into an extra block of 0s. A message of less than one block therefore costs a single
+ * permutation. Reading the lengths from the end of the blocks gives back the key and the message,
+ * so keys and messages that only differ in trailing 0s stay apart, which the padding of the sponge
+ * alone would not.
+ *
+ * <p>The key blocks are the same for every message, so they are absorbed once per key into a
+ * state that is kept in a bounded {@link KeyStateCache}. Tagging a message copies the cached state
+ * into a buffer reused by the calling thread and absorbs only the message blocks, which saves the
+ * permutations of the key on every call. The last block is built in a second reused buffer.
+ *
+ * <p>Instances are thread-safe.
+ *
+ * @param <T> The array type of the keys, messages, states and tags.
+ */
+public abstract class SpongeMac<T> {
+
+  public static final int DEFAULT_MAX_CACHED_KEYS = 4096;
+
+  private final SpongeHash<T> spongeHash;
+  private final int rate;
+  private final int lengthElements;
+  private final T zeroBlock;
+  private final KeyStateCache<T> keyStates;
+  private final ThreadLocal<T> stateBuffer;
+  private final ThreadLocal<T> blockBuffer;
+
+  /**
+   * @param spongeHash The sponge hash the tags are computed with.
+   * @param rate The number of message elements absorbed per block.
+   * @param lengthElements The number of elements a length is written as, by {@link #putLength}.
+   * @param maxCachedKeys The number of keys whose absorbed states are cached.
+   */
+  protected SpongeMac(
+      final SpongeHash<T> spongeHash,
+      final int rate,
+      final int lengthElements,
+      final int maxCachedKeys) {
+    this.spongeHash = spongeHash;
+    this.rate = rate;
+    this.lengthElements = lengthElements;
+    this.keyStates = new KeyStateCache<>(maxCachedKeys);
+    this.stateBuffer = ThreadLocal.withInitial(spongeHash::initState);
+    final Class<?> elementType = spongeHash.initState().getClass().getComponentType();
+    this.zeroBlock = newBlock(elementType, rate);
+    this.blockBuffer = ThreadLocal.withInitial(() -> newBlock(elementType, rate));
+  }
+
+  /**
+   * Computes the tag of a message.
+   *
+   * @param key The key, not empty.
+   * @param message The message to authenticate.
+   * @return the tag, as long as a digest of the sponge hash.
+   */
+  public T tag(final T key, final T message) {
+    return tag(key, message, 0, Array.getLength(message));
+  }
+
+  /**
+   * Computes the tag of a range of a message without copying it.
+   *
+   * @param key The key, not empty.
+   * @param message The array holding the message.
+   * @param offset The index of the first element of the message.
+   * @param length The number of elements of the message.
+   * @return the tag, as long as a digest of the sponge hash.
+   * @throws IllegalArgumentException If the key is empty.
+   * @throws IndexOutOfBoundsException If the range is out of the bounds of the array.
+   */
+  public T tag(final T key, final T message, final int offset, final int length) {
+    Objects.checkFromIndexSize(offset, length, Array.getLength(message));
+    final T keyState = keyStates.get(key, this::absorbKey);
+    final T state = stateBuffer.get();
+    System.arraycopy(keyState, 0, state, 0, Array.getLength(keyState));
+
+    absorbEncoded(state, message, offset, length);
+    return spongeHash.squeeze(state);
+  }
+
+  /**
+   * Checks the tag of a message. The comparison takes the same time wherever the tags differ.
+   *
+   * @param key The key, not empty.
+   * @param message The authenticated message.
+   * @param tag The tag received with the message.
+   * @return true if the tag is the tag of the message.
+   */
+  public boolean verify(final T key, final T message, final T tag) {
+    return isEqual(tag(key, message), tag);
+  }
+
+  /**
+   * @return the number of keys whose states are cached.
+   */
+  public int cachedKeys() {
+    return keyStates.size();
+  }
+
+  /** Drops the cached key states, e.g. after keys were rotated. */
+  public void clearCachedKeys() {
+    keyStates.clear();
+  }
+
+  /**
+   * Writes a length into a block.
+   *
+   * @param block The block, the length is written into its last elements.
+   * @param offset The index of the first element the length is written at.
+   * @param length The number of elements of a key or a message.
+   */
+  protected abstract void putLength(final T block, final int offset, final int length);
+
+  /**
+   * Compares two tags in time independent of their contents.
+   *
+   * @return true if both tags have the same length and elements.
+   */
+  protected abstract boolean isEqual(final T expected, final T actual);
+
+  private T absorbKey(final T key) {
+    final int keyLength = Array.getLength(key);
+    if (keyLength == 0) {
+      throw new IllegalArgumentException("The key must not be empty.");
+    }
+    final T state = spongeHash.initState();
+    absorbEncoded(state, key, 0, keyLength);
+    return state;
+  }
+
+  /**
+   * Absorbs the blocks of a key or a message, the last one holding its length at the end of the
+   * rate. The tail of the data is copied into the reused block buffer when the length fits after
+   * it, otherwise it is absorbed on its own and followed by a block of 0s and the length.
+   */
+  private void absorbEncoded(final T state, final T data, final int offset, final int length) {
+    final int tail = length == 0 ? 0 : (length - 1) % rate + 1;
+    final int fullBlocksLength = length - tail;
+    for (int i = 0; i < fullBlocksLength; i += rate) {
+      spongeHash.absorb(state, data, offset + i, rate);
+    }
+    final T block = blockBuffer.get();
+    System.arraycopy(zeroBlock, 0, block, 0, rate);
+    if (tail > rate - lengthElements) {
+      spongeHash.absorb(state, data, offset + fullBlocksLength, tail);
+    } else {
+      System.arraycopy(data, offset + fullBlocksLength, block, 0, tail);
+    }
+    putLength(block, rate - lengthElements, length);
+    spongeHash.absorb(state, block, 0, rate);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T> T newBlock(final Class<?> elementType, final int rate) {
+    return (T) Array.newInstance(elementType, rate);
+  }
+}
@@ -0,0 +1,202 @@
+package io.github.destroyerofcode.metrics;
+
+import io.github.destroyerofcode.exception.SpongeException;
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Counters of the work done by sponge hash implementations: bytes and blocks absorbed,
+ * permutations, squeezes, and log-bucketed latency and message size histograms per {@link
+ * Operation}. All counters are {@link LongAdder}s, so recording from many threads does not
+ * contend.
+ *
+ * <p>Metrics are recorded through {@link MeteredSpongeHash} and {@link MeteredPermutation}. While
+ * disabled, those decorators skip the clock reads and the counters, which leaves a single volatile
+ * read on the hot path.
+ */
+public final class HashMetrics implements HashMetricsMXBean {
+
+  /** The hashing entry points that are timed separately. */
+  public enum Operation {
+    HASH,
+    HASH_STREAM
+  }
+
+  private volatile boolean enabled = true;
+
+  private final LongAdder bytesAbsorbed = new LongAdder();
+  private final LongAdder blocksAbsorbed = new LongAdder();
+  private final LongAdder permutations = new LongAdder();
+  private final LongAdder squeezes = new LongAdder();
+  private final Map<Operation, LatencyHistogram> latencies = new EnumMap<>(Operation.class);
+  private final Map<Operation, LatencyHistogram> messageSizes = new EnumMap<>(Operation.class);
+
+  public HashMetrics() {
+    for (final Operation operation : Operation.values()) {
+      latencies.put(operation, new LatencyHistogram());
+      messageSizes.put(operation, new LatencyHistogram());
+    }
+  }
+
+  @Override
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  @Override
+  public void setEnabled(final boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  /**
+   * Records a completed hash operation.
+   *
+   * @param operation The entry point that was called.
+   * @param messageBytes The size of the hashed message in bytes.
+   * @param blocks The number of rate blocks absorbed.
+   * @param nanos The duration of the operation.
+   */
+  public void recordHash(
+      final Operation operation, final long messageBytes, final long blocks, final long nanos) {
+    bytesAbsorbed.add(messageBytes);
+    blocksAbsorbed.add(blocks);
+    squeezes.increment();
+    latencies.get(operation).record(nanos);
+    messageSizes.get(operation).record(messageBytes);
+  }
+
+  public void recordAbsorb(final long bytes) {
+    bytesAbsorbed.add(bytes);
+    blocksAbsorbed.increment();
+  }
+
+  public void recordPermutation() {
+    permutations.increment();
+  }
+
+  public void recordSqueeze() {
+    squeezes.increment();
+  }
+
+  @Override
+  public long getBytesAbsorbed() {
+    return bytesAbsorbed.sum();
+  }
+
+  @Override
+  public long getBlocksAbsorbed() {
+    return blocksAbsorbed.sum();
+  }
+
+  @Override
+  public long getPermutations() {
+    return permutations.sum();
+  }
+
+  @Override
+  public long getSqueezes() {
+    return squeezes.sum();
+  }
+
+  @Override
+  public long getHashes() {
+    return latencies.get(Operation.HASH).snapshot().count();
+  }
+
+  @Override
+  public long getStreamHashes() {
+    return latencies.get(Operation.HASH_STREAM).snapshot().count();
+  }
+
+  @Override
+  public long getHashLatencyP50Nanos() {
+    return latency(Operation.HASH).percentile(50);
+  }
+
+  @Override
+  public long getHashLatencyP99Nanos() {
+    return latency(Operation.HASH).percentile(99);
+  }
+
+  @Override
+  public long getStreamHashLatencyP50Nanos() {
+    return latency(Operation.HASH_STREAM).percentile(50);
+  }
+
+  @Override
+  public long getStreamHashLatencyP99Nanos() {
+    return latency(Operation.HASH_STREAM).percentile(99);
+  }
+
+  @Override
+  public long[] getHashLatencyBuckets() {
+    return latency(Operation.HASH).counts();
+  }
+
+  @Override
+  public long[] getStreamHashLatencyBuckets() {
+    return latency(Operation.HASH_STREAM).counts();
+  }
+
+  public LatencyHistogram.Snapshot latency(final Operation operation) {
+    return latencies.get(operation).snapshot();
+  }
+
+  public LatencyHistogram.Snapshot messageSizes(final Operation operation) {
+    return messageSizes.get(operation).snapshot();
+  }
+
+  /**
+   * @return a point-in-time copy of all counters and histograms.
+   */
+  public HashMetricsSnapshot snapshot() {
+    final Map<Operation, LatencyHistogram.Snapshot> latencySnapshots =
+        new EnumMap<>(Operation.class);
+    final Map<Operation, LatencyHistogram.Snapshot> sizeSnapshots = new EnumMap<>(Operation.class);
+    for (final Operation operation : Operation.values()) {
+      latencySnapshots.put(operation, latency(operation));
+      sizeSnapshots.put(operation, messageSizes(operation));
+    }
+    return new HashMetricsSnapshot(
+        getBytesAbsorbed(),
+        getBlocksAbsorbed(),
+        getPermutations(),
+        getSqueezes(),
+        latencySnapshots,
+        sizeSnapshots);
+  }
+
+  @Override
+  public void reset() {
+    bytesAbsorbed.reset();
+    blocksAbsorbed.reset();
+    permutations.reset();
+    squeezes.reset();
+    latencies.values().forEach(LatencyHistogram::reset);
+    messageSizes.values().forEach(LatencyHistogram::reset);
+  }
+
+  /**
+   * Registers these metrics with the platform MBean server as {@code
+   * io.github.destroyerofcode:type=HashMetrics,name=<name>}.
+   *
+   * @param name The name distinguishing this instance, e.g. the hashed data set.
+   * @return the object name the MBean was registered under.
+   * @throws SpongeException If the name is taken or invalid.
+   */
+  public ObjectName registerMBean(final String name) {
+    try {
+      final ObjectName objectName =
+          new ObjectName(
+              "io.github.destroyerofcode:type=HashMetrics,name=" + ObjectName.quote(name));
+      ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+      return objectName;
+    } catch (JMException e) {
+      throw new SpongeException("An error has occurred when registering the metrics: ", e);
+    }
+  }
+}
@@ -0,0 +1,42 @@
+package io.github.destroyerofcode.metrics;
+
+/** JMX view of {@link HashMetrics}. Latencies are reported in nanoseconds. */
+public interface HashMetricsMXBean {
+
+  boolean isEnabled();
+
+  void setEnabled(boolean enabled);
+
+  long getBytesAbsorbed();
+
+  long getBlocksAbsorbed();
+
+  long getPermutations();
+
+  long getSqueezes();
+
+  long getHashes();
+
+  long getStreamHashes();
+
+  long getHashLatencyP50Nanos();
+
+  long getHashLatencyP99Nanos();
+
+  long getStreamHashLatencyP50Nanos();
+
+  long getStreamHashLatencyP99Nanos();
+
+  /**
+   * @return the latency bucket counts of hash(T), index i counting latencies in [2^i, 2^(i+1)) ns.
+   */
+  long[] getHashLatencyBuckets();
+
+  /**
+   * @return the latency bucket counts of hash(InputStream, int), bucketed like {@link
+   *     #getHashLatencyBuckets()}.
+   */
+  long[] getStreamHashLatencyBuckets();
+
+  void reset();
+}
@@ -0,0 +1,28 @@
+package io.github.destroyerofcode.metrics;
+
+import io.github.destroyerofcode.metrics.HashMetrics.Operation;
+import java.util.Map;
+
+/**
+ * Point-in-time copy of {@link HashMetrics}.
+ *
+ * @param bytesAbsorbed The number of message bytes absorbed.
+ * @param blocksAbsorbed The number of rate blocks absorbed.
+ * @param permutations The number of permutations run.
+ * @param squeezes The number of digests squeezed out.
+ * @param latencies The latency histograms in nanoseconds per operation.
+ * @param messageSizes The message size histograms in bytes per operation.
+ */
+public record HashMetricsSnapshot(
+    long bytesAbsorbed,
+    long blocksAbsorbed,
+    long permutations,
+    long squeezes,
+    Map<Operation, LatencyHistogram.Snapshot> latencies,
+    Map<Operation, LatencyHistogram.Snapshot> messageSizes) {
+
+  public HashMetricsSnapshot {
+    latencies = Map.copyOf(latencies);
+    messageSizes = Map.copyOf(messageSizes);
+  }
+}
@@ -0,0 +1,110 @@
+package io.github.destroyerofcode.metrics;
+
+import static io.github.destroyerofcode.common.Constants.BITS_IN_LONG;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram of non-negative values with power-of-2 buckets: bucket i counts the values in [2^i,
+ * 2^(i+1)), and bucket 0 also counts 0. Every bucket is a {@link LongAdder}, so concurrent
+ * recording threads update different cells instead of contending on one counter.
+ */
+public final class LatencyHistogram {
+
+  private final LongAdder[] buckets = new LongAdder[BITS_IN_LONG];
+  private final LongAdder sum = new LongAdder();
+
+  public LatencyHistogram() {
+    for (int i = 0; i < buckets.length; i++) {
+      buckets[i] = new LongAdder();
+    }
+  }
+
+  /**
+   * Records a value, e.g. a latency in nanoseconds or a message size in bytes.
+   *
+   * @param value The value to record, negative values are counted as 0.
+   */
+  public void record(final long value) {
+    final long clamped = Math.max(0, value);
+    buckets[bucketOf(clamped)].increment();
+    sum.add(clamped);
+  }
+
+  public Snapshot snapshot() {
+    final long[] counts = new long[buckets.length];
+    for (int i = 0; i < counts.length; i++) {
+      counts[i] = buckets[i].sum();
+    }
+    return new Snapshot(counts, sum.sum());
+  }
+
+  public void reset() {
+    for (final LongAdder bucket : buckets) {
+      bucket.reset();
+    }
+    sum.reset();
+  }
+
+  static int bucketOf(final long value) {
+    return value == 0 ? 0 : BITS_IN_LONG - 1 - Long.numberOfLeadingZeros(value);
+  }
+
+  /** Point-in-time copy of the bucket counts. Concurrent records may be partially included. */
+  public static final class Snapshot {
+    private final long[] counts;
+    private final long sum;
+    private final long count;
+
+    Snapshot(final long[] counts, final long sum) {
+      this.counts = counts;
+      this.sum = sum;
+      long total = 0;
+      for (final long bucketCount : counts) {
+        total += bucketCount;
+      }
+      this.count = total;
+    }
+
+    /**
+     * @return a copy of the bucket counts, index i counting the values in [2^i, 2^(i+1)).
+     */
+    public long[] counts() {
+      return counts.clone();
+    }
+
+    public long count() {
+      return count;
+    }
+
+    public long sum() {
+      return sum;
+    }
+
+    public double mean() {
+      return count == 0 ? 0 : (double) sum / count;
+    }
+
+    /**
+     * Estimates a percentile with the upper bound of the bucket it falls into, so the estimate is
+     * at most twice the real value.
+     *
+     * @param percentile The percentile, between 0 and 100.
+     * @return the estimate, or 0 if nothing was recorded.
+     */
+    public long percentile(final double percentile) {
+      if (count == 0) {
+        return 0;
+      }
+      final long rank = (long) Math.ceil(count * Math.min(100, Math.max(0, percentile)) / 100);
+      long seen = 0;
+      for (int i = 0; i < counts.length; i++) {
+        seen += counts[i];
+        if (seen >= Math.max(1, rank)) {
+          return i == BITS_IN_LONG - 1 ? Long.MAX_VALUE : (2L << i) - 1;
+        }
+      }
+      return Long.MAX_VALUE;
+    }
+  }
+}
@@ -0,0 +1,54 @@
+package io.github.destroyerofcode.metrics;
+
+import io.github.destroyerofcode.api.SpongePermutation;
+
+/**
+ * Counts the permutations run by a {@link SpongePermutation}. Pass it to the sponge hash instead
+ * of the plain permutation to count every permutation, including the ones run inside {@code hash}.
+ *
+ * @param <T> The type of the state array.
+ */
+public class MeteredPermutation<T> implements SpongePermutation<T> {
+
+  private final SpongePermutation<T> delegate;
+  private final HashMetrics metrics;
+
+  /**
+   * Constructs a new MeteredPermutation instance.
+   *
+   * @param delegate The permutation doing the work.
+   * @param metrics The metrics the permutations are counted in.
+   */
+  public MeteredPermutation(final SpongePermutation<T> delegate, final HashMetrics metrics) {
+    this.delegate = delegate;
+    this.metrics = metrics;
+  }
+
+  @Override
+  public void permute(final T state) {
+    delegate.permute(state);
+    if (metrics.isEnabled()) {
+      metrics.recordPermutation();
+    }
+  }
+
+  @Override
+  public void theta(final T state) {
+    delegate.theta(state);
+  }
+
+  @Override
+  public void rhoPi(final T state) {
+    delegate.rhoPi(state);
+  }
+
+  @Override
+  public void chi(final T state) {
+    delegate.chi(state);
+  }
+
+  @Override
+  public void iota(final T state, final int round) {
+    delegate.iota(state, round);
+  }
+}
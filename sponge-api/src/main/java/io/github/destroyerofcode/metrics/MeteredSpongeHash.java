@@ -0,0 +1,135 @@
+package io.github.destroyerofcode.metrics;
+
+import io.github.destroyerofcode.api.SpongeHash;
+import io.github.destroyerofcode.api.StreamDigest;
+import io.github.destroyerofcode.metrics.HashMetrics.Operation;
+import java.io.InputStream;
+import java.lang.reflect.Array;
+
+/**
+ * Records {@link HashMetrics} around a {@link SpongeHash}. Message sizes, blocks and latencies are
+ * recorded per call of the hash entry points, absorbs and squeezes per direct call. To also count
+ * the permutations run inside {@code hash}, construct the delegate with a {@link
+ * MeteredPermutation}.
+ *
+ * @param <T> The array type of the messages and states of the delegate.
+ */
+public class MeteredSpongeHash<T> implements SpongeHash<T> {
+
+  private final SpongeHash<T> delegate;
+  private final HashMetrics metrics;
+  private final int elementBytes;
+  private final int rateBytes;
+
+  /**
+   * Constructs a new MeteredSpongeHash instance.
+   *
+   * @param delegate The sponge hash doing the work.
+   * @param metrics The metrics the calls are recorded in.
+   * @param elementBytes The size of a message array element in bytes, e.g. 8 for a long[].
+   * @param rateBytes The size of a rate block of the delegate in bytes.
+   */
+  public MeteredSpongeHash(
+      final SpongeHash<T> delegate,
+      final HashMetrics metrics,
+      final int elementBytes,
+      final int rateBytes) {
+    this.delegate = delegate;
+    this.metrics = metrics;
+    this.elementBytes = elementBytes;
+    this.rateBytes = rateBytes;
+  }
+
+  @Override
+  public T hash(final T message) {
+    if (!metrics.isEnabled()) {
+      return delegate.hash(message);
+    }
+    final long start = System.nanoTime();
+    final T digest = delegate.hash(message);
+    record(Operation.HASH, messageBytes(message), start);
+    return digest;
+  }
+
+  @Override
+  public T hash(final T message, final int offset, final int length) {
+    if (!metrics.isEnabled()) {
+      return delegate.hash(message, offset, length);
+    }
+    final long start = System.nanoTime();
+    final T digest = delegate.hash(message, offset, length);
+    record(Operation.HASH, (long) length * elementBytes, start);
+    return digest;
+  }
+
+  @Override
+  public T hash(final InputStream message, final int messageSize) {
+    if (!metrics.isEnabled()) {
+      return delegate.hash(message, messageSize);
+    }
+    final long start = System.nanoTime();
+    final T digest = delegate.hash(message, messageSize);
+    record(Operation.HASH_STREAM, messageSize, start);
+    return digest;
+  }
+
+  @Override
+  public StreamDigest<T> hash(final InputStream message) {
+    if (!metrics.isEnabled()) {
+      return delegate.hash(message);
+    }
+    final long start = System.nanoTime();
+    final StreamDigest<T> digest = delegate.hash(message);
+    record(Operation.HASH_STREAM, digest.bytesRead(), start);
+    return digest;
+  }
+
+  @Override
+  public T applyPadding(final T message) {
+    return delegate.applyPadding(message);
+  }
+
+  @Override
+  public T initState() {
+    return delegate.initState();
+  }
+
+  @Override
+  public void absorb(final T state, final T message) {
+    delegate.absorb(state, message);
+    if (metrics.isEnabled()) {
+      metrics.recordAbsorb(Math.min(rateBytes, messageBytes(message)));
+    }
+  }
+
+  @Override
+  public void absorb(final T state, final T message, final int offset, final int length) {
+    delegate.absorb(state, message, offset, length);
+    if (metrics.isEnabled()) {
+      metrics.recordAbsorb(Math.min(rateBytes, (long) length * elementBytes));
+    }
+  }
+
+  @Override
+  public T squeeze(final T message) {
+    return squeeze(message, 0);
+  }
+
+  @Override
+  public T squeeze(final T message, final int outputOffsetPosition) {
+    final T digest = delegate.squeeze(message, outputOffsetPosition);
+    if (metrics.isEnabled()) {
+      metrics.recordSqueeze();
+    }
+    return digest;
+  }
+
+  private long messageBytes(final T message) {
+    return (long) Array.getLength(message) * elementBytes;
+  }
+
+  private void record(final Operation operation, final long bytes, final long start) {
+    metrics.recordHash(
+        operation, bytes, (bytes + rateBytes - 1) / rateBytes, System.nanoTime() - start);
+  }
+}
@@ -0,0 +1,144 @@
+package io.github.destroyerofcode.cache;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class SingleFlightCacheTest {
+
+  @Test
+  @DisplayName("Concurrent requests for the same key should compute the digest once")
+  void testConcurrentRequestsCoalesced() throws Exception {
+    // given
+    final CountDownLatch release = new CountDownLatch(1);
+    final AtomicInteger computations = new AtomicInteger();
+    final SingleFlightCache<String, long[]> cache =
+        new SingleFlightCache<>(
+            key -> {
+              computations.incrementAndGet();
+              try {
+                release.await();
+              } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+              }
+              return new long[] {key.length()};
+            },
+            16);
+    final ExecutorService executor = Executors.newFixedThreadPool(8);
+
+    try {
+      // when
+      final List<Future<long[]>> results = new ArrayList<>();
+      for (int i = 0; i < 8; i++) {
+        results.add(executor.submit(() -> cache.get("artifact")));
+      }
+      while (cache.coalesced() < 7) {
+        Thread.onSpinWait();
+      }
+      release.countDown();
+      final long[] first = results.get(0).get();
+
+      // then
+      for (final Future<long[]> result : results) {
+        assertSame(first, result.get());
+      }
+      assertAll(
+          () -> assertEquals(1, computations.get()),
+          () -> assertEquals(1, cache.misses()),
+          () -> assertEquals(7, cache.coalesced()),
+          () -> assertSame(first, cache.get("artifact")),
+          () -> assertEquals(1, cache.hits()));
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  @DisplayName("A failed computation should not be cached")
+  void testFailureNotCached() {
+    // given
+    final AtomicInteger calls = new AtomicInteger();
+    final SingleFlightCache<String, long[]> cache =
+        new SingleFlightCache<>(
+            key -> {
+              if (calls.incrementAndGet() == 1) {
+                throw new IllegalStateException("payload unavailable");
+              }
+              return new long[] {42L};
+            },
+            16);
+
+    // when / then
+    assertThrows(IllegalStateException.class, () -> cache.get("artifact"));
+    assertAll(
+        () -> assertEquals(42L, cache.get("artifact")[0]),
+        () -> assertEquals(2, calls.get()),
+        () -> assertEquals(2, cache.misses()));
+  }
+
+  @Test
+  @DisplayName("The cache should stay within its capacity and keep recently used keys")
+  void testBoundedBySecondChanceEviction() {
+    // given
+    final SingleFlightCache<Integer, long[]> cache =
+        new SingleFlightCache<>(key -> new long[] {key}, 4);
+
+    // when
+    for (int key = 0; key < 100; key++) {
+      cache.get(key);
+      cache.get(0);
+    }
+
+    // then
+    assertAll(
+        () -> assertTrue(cache.size() <= 4),
+        () -> assertEquals(96, cache.evictions()),
+        () -> assertEquals(100, cache.misses()));
+  }
+
+  @Test
+  @DisplayName("Concurrent misses should evict no more keys than needed to stay within capacity")
+  void testConcurrentMissesDoNotOverEvict() throws Exception {
+    // given
+    final SingleFlightCache<Integer, long[]> cache =
+        new SingleFlightCache<>(key -> new long[] {key}, 100);
+    final ExecutorService executor = Executors.newFixedThreadPool(8);
+
+    try {
+      // when
+      final List<Future<?>> results = new ArrayList<>();
+      for (int thread = 0; thread < 8; thread++) {
+        final int first = thread * 1000;
+        results.add(
+            executor.submit(
+                () -> {
+                  for (int key = first; key < first + 1000; key++) {
+                    cache.get(key);
+                  }
+                }));
+      }
+      for (final Future<?> result : results) {
+        result.get();
+      }
+
+      // then
+      assertAll(
+          () -> assertEquals(100, cache.size()),
+          () -> assertEquals(8000 - 100, cache.evictions()));
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+}
@@ -0,0 +1,135 @@
+package io.github.destroyerofcode.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.github.destroyerofcode.metrics.HashMetrics.Operation;
+import java.lang.management.ManagementFactory;
+import javax.management.ObjectName;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+public class HashMetricsTest {
+
+  private HashMetrics metrics;
+
+  @BeforeEach
+  void setUp() {
+    metrics = new HashMetrics();
+  }
+
+  @Nested
+  @DisplayName("Latency histogram tests")
+  class LatencyHistogramTests {
+    @Test
+    @DisplayName("Values should land in their power-of-2 bucket")
+    void testBuckets() {
+      // given
+      final LatencyHistogram histogram = new LatencyHistogram();
+
+      // when
+      histogram.record(0);
+      histogram.record(1);
+      histogram.record(3);
+      histogram.record(1024);
+      histogram.record(2047);
+      final LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+
+      // then
+      assertAll(
+          () -> assertEquals(2, snapshot.counts()[0]),
+          () -> assertEquals(1, snapshot.counts()[1]),
+          () -> assertEquals(2, snapshot.counts()[10]),
+          () -> assertEquals(5, snapshot.count()),
+          () -> assertEquals(3075, snapshot.sum()));
+    }
+
+    @Test
+    @DisplayName("Percentiles should be estimated with the bucket upper bound")
+    void testPercentiles() {
+      // given
+      final LatencyHistogram histogram = new LatencyHistogram();
+      for (int i = 0; i < 99; i++) {
+        histogram.record(100);
+      }
+      histogram.record(1_000_000);
+
+      // when
+      final LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+
+      // then
+      assertAll(
+          () -> assertEquals(127, snapshot.percentile(50)),
+          () -> assertEquals(127, snapshot.percentile(99)),
+          () -> assertEquals((1 << 20) - 1, snapshot.percentile(100)));
+    }
+  }
+
+  @Nested
+  @DisplayName("Hash metrics tests")
+  class HashMetricsTests {
+    @Test
+    @DisplayName("Recorded hashes should show in the snapshot")
+    void testRecordHash() {
+      // when
+      metrics.recordHash(Operation.HASH, 300, 3, 1000);
+      metrics.recordHash(Operation.HASH_STREAM, 10, 1, 50);
+      metrics.recordPermutation();
+      final HashMetricsSnapshot snapshot = metrics.snapshot();
+
+      // then
+      assertAll(
+          () -> assertEquals(310, snapshot.bytesAbsorbed()),
+          () -> assertEquals(4, snapshot.blocksAbsorbed()),
+          () -> assertEquals(1, snapshot.permutations()),
+          () -> assertEquals(2, snapshot.squeezes()),
+          () -> assertEquals(1, snapshot.latencies().get(Operation.HASH).count()),
+          () -> assertEquals(1000, snapshot.latencies().get(Operation.HASH).sum()),
+          () -> assertEquals(10, snapshot.messageSizes().get(Operation.HASH_STREAM).sum()));
+    }
+
+    @Test
+    @DisplayName("Reset should clear all counters")
+    void testReset() {
+      // given
+      metrics.recordHash(Operation.HASH, 300, 3, 1000);
+
+      // when
+      metrics.reset();
+
+      // then
+      assertAll(
+          () -> assertEquals(0, metrics.getBytesAbsorbed()),
+          () -> assertEquals(0, metrics.getHashes()));
+    }
+
+    @Test
+    @DisplayName("Metrics should be readable through JMX")
+    void testMBean() throws Exception {
+      // given
+      metrics.recordHash(Operation.HASH, 300, 3, 1000);
+
+      // when
+      final ObjectName name = metrics.registerMBean("test");
+
+      // then
+      try {
+        assertAll(
+            () ->
+                assertEquals(
+                    300L,
+                    ManagementFactory.getPlatformMBeanServer()
+                        .getAttribute(name, "BytesAbsorbed")),
+            () ->
+                assertTrue(
+                    (Boolean)
+                        ManagementFactory.getPlatformMBeanServer().getAttribute(name, "Enabled")));
+      } finally {
+        ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+      }
+    }
+  }
+}
@@ -0,0 +1,30 @@
+plugins {
+    id("java")
+}
+
+group = "io.github.destroyerofcode"
+version = "1.0"
+
+repositories {
+    mavenCentral()
+}
+
+dependencies {
+    implementation(project(":sponge-api"))
+    implementation(project(":keccak-1600-256"))
+    implementation(project(":keccak-200-168"))
+
+    implementation(libs.jmh.core)
+    annotationProcessor(libs.jmh.generator.annprocess)
+}
+
+// ./gradlew :sponge-benchmarks:jmh -PjmhArgs="HashBenchmark -p messageSize=1024"
+tasks.register<JavaExec>("jmh") {
+    group = "benchmark"
+    description = "Runs the JMH benchmarks with the allocation and, if available, perf profilers."
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set("io.github.destroyerofcode.benchmarks.BenchmarkMain")
+    args = (project.findProperty("jmhArgs") as String?)?.split(" ")?.filter { it.isNotBlank() }
+        ?: emptyList()
+    (project.findProperty("cpu.ghz") as String?)?.let { systemProperty("cpu.ghz", it) }
+}
@@ -0,0 +1,59 @@
+package io.github.destroyerofcode.benchmarks;
+
+import io.github.destroyerofcode.api.SpongeHash;
+import io.github.destroyerofcode.keccak1600output256.SpongeHashKeccak1600Output256Impl;
+import io.github.destroyerofcode.keccak200output168.SpongeHashKeccak200Output168Impl;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Measures the absorption of a single rate block into the state, permutation included. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AbsorbBenchmark {
+
+  private SpongeHash<long[]> spongeHash1600;
+  private SpongeHash<byte[]> spongeHash200;
+  private long[] state1600;
+  private byte[] state200;
+  private long[] block1600;
+  private byte[] block200;
+
+  @Setup
+  public void setUp() {
+    spongeHash1600 =
+        new SpongeHashKeccak1600Output256Impl(
+            new io.github.destroyerofcode.keccak1600output256.PermutationImpl());
+    spongeHash200 =
+        new SpongeHashKeccak200Output168Impl(
+            new io.github.destroyerofcode.keccak200output168.PermutationImpl());
+    state1600 = spongeHash1600.initState();
+    state200 = spongeHash200.initState();
+    block1600 = Messages.longs(io.github.destroyerofcode.keccak1600output256.Constants.LONGS_IN_r);
+    block200 = Messages.bytes(io.github.destroyerofcode.keccak200output168.Constants.BYTES_IN_r);
+  }
+
+  @Benchmark
+  public long[] absorb1600() {
+    spongeHash1600.absorb(state1600, block1600);
+    return state1600;
+  }
+
+  @Benchmark
+  public byte[] absorb200() {
+    spongeHash200.absorb(state200, block200);
+    return state200;
+  }
+}
@@ -0,0 +1,136 @@
+package io.github.destroyerofcode.benchmarks;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.profile.LinuxPerfNormProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the allocation profiler ({@code -prof gc}) and, on Linux with perf
+ * available, the normalized hardware counter profiler ({@code -prof perfnorm}), then prints a
+ * summary with cycles per byte and bytes allocated per operation.
+ *
+ * <p>Cycles come from perf when it is available. Otherwise they are estimated from the time per
+ * operation and the clock frequency given with {@code -Dcpu.ghz=3.0}, or left out. Any JMH
+ * command line argument can be passed, e.g. a benchmark regex or {@code -p messageSize=1024}.
+ */
+public final class BenchmarkMain {
+
+  private static final String CPU_GHZ_PROPERTY = "cpu.ghz";
+
+  private BenchmarkMain() {}
+
+  public static void main(final String[] args)
+      throws CommandLineOptionException, RunnerException {
+    final CommandLineOptions commandLine = new CommandLineOptions(args);
+    final ChainedOptionsBuilder options =
+        new OptionsBuilder().parent(commandLine).addProfiler(GCProfiler.class);
+    if (isPerfAvailable()) {
+      options.addProfiler(LinuxPerfNormProfiler.class);
+    }
+
+    printSummary(new Runner(options.build()).run());
+  }
+
+  private static void printSummary(final Collection<RunResult> results) {
+    final String ghz = System.getProperty(CPU_GHZ_PROPERTY);
+
+    System.out.println();
+    System.out.printf(
+        "%-50s %12s %14s %14s %14s %16s%n",
+        "Benchmark", "messageSize", "ns/op", "cycles/op", "cycles/byte", "alloc B/op");
+    for (final RunResult result : results) {
+      final String messageSize = result.getParams().getParam("messageSize");
+      final double nanosPerOp = nanosPerOp(result.getPrimaryResult());
+
+      double cyclesPerOp = secondary(result.getSecondaryResults(), "cycles");
+      if (Double.isNaN(cyclesPerOp) && ghz != null) {
+        cyclesPerOp = nanosPerOp * Double.parseDouble(ghz);
+      }
+      final double cyclesPerByte =
+          messageSize == null || Integer.parseInt(messageSize) == 0
+              ? Double.NaN
+              : cyclesPerOp / Integer.parseInt(messageSize);
+
+      System.out.printf(
+          Locale.ROOT,
+          "%-50s %12s %14.2f %14s %14s %16s%n",
+          result.getParams().getBenchmark(),
+          messageSize == null ? "-" : messageSize,
+          nanosPerOp,
+          format(cyclesPerOp),
+          format(cyclesPerByte),
+          format(secondary(result.getSecondaryResults(), "gc.alloc.rate.norm")));
+    }
+  }
+
+  private static double nanosPerOp(final Result<?> primary) {
+    // the score unit is "<unit>/op" for the average time mode
+    final String unit = primary.getScoreUnit().replace("/op", "");
+    for (final TimeUnit timeUnit : TimeUnit.values()) {
+      if (unitLabel(timeUnit).equals(unit)) {
+        return primary.getScore() * timeUnit.toNanos(1);
+      }
+    }
+    return primary.getScore();
+  }
+
+  private static String unitLabel(final TimeUnit timeUnit) {
+    switch (timeUnit) {
+      case NANOSECONDS:
+        return "ns";
+      case MICROSECONDS:
+        return "us";
+      case MILLISECONDS:
+        return "ms";
+      case SECONDS:
+        return "s";
+      default:
+        return timeUnit.name();
+    }
+  }
+
+  private static double secondary(final Map<String, Result> results, final String label) {
+    for (final Map.Entry<String, Result> entry : results.entrySet()) {
+      // older JMH versions prefix secondary labels with a middle dot
+      if (entry.getKey().equals(label) || entry.getKey().endsWith("\u00B7" + label)) {
+        return entry.getValue().getScore();
+      }
+    }
+    return Double.NaN;
+  }
+
+  private static String format(final double value) {
+    return Double.isNaN(value) ? "-" : String.format(Locale.ROOT, "%.2f", value);
+  }
+
+  private static boolean isPerfAvailable() {
+    if (!System.getProperty("os.name").toLowerCase(Locale.ROOT).contains("linux")) {
+      return false;
+    }
+    try {
+      final Process perf =
+          new ProcessBuilder("perf", "stat", "-e", "cycles", "true")
+              .redirectErrorStream(true)
+              .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+              .start();
+      return perf.waitFor(10, TimeUnit.SECONDS) && perf.exitValue() == 0;
+    } catch (IOException e) {
+      return false;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+}
@@ -0,0 +1,55 @@
+package io.github.destroyerofcode.benchmarks;
+
+import io.github.destroyerofcode.keccak1600output256.PermutationImpl;
+import io.github.destroyerofcode.keccak1600output256.SpongeHashKeccak1600Output256Impl;
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares hashing a batch of messages of skewed sizes with {@code parallelStream().map(...)} and
+ * with the bulk {@code hashAll}, which splits the batch by blocks and writes into one array.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BulkHashBenchmark {
+
+  private SpongeHashKeccak1600Output256Impl spongeHash1600;
+  private List<byte[]> messages;
+
+  @Setup
+  public void setUp() {
+    spongeHash1600 = new SpongeHashKeccak1600Output256Impl(new PermutationImpl());
+    messages = new ArrayList<>();
+    for (int i = 0; i < 100_000; i++) {
+      messages.add(Messages.bytes(i % 1000 == 0 ? 256 * 1024 : 64 + i % 128));
+    }
+  }
+
+  @Benchmark
+  public List<long[]> parallelStream() {
+    return messages.parallelStream()
+        .map(message -> spongeHash1600.hash(new ByteArrayInputStream(message)).digest())
+        .toList();
+  }
+
+  @Benchmark
+  public long[] hashAll() {
+    return spongeHash1600.hashAll(messages);
+  }
+}
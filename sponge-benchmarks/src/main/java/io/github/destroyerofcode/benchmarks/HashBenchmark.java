@@ -0,0 +1,73 @@
+package io.github.destroyerofcode.benchmarks;
+
+import io.github.destroyerofcode.api.SpongeHash;
+import io.github.destroyerofcode.keccak1600output256.SpongeHashKeccak1600Output256Impl;
+import io.github.destroyerofcode.keccak200output168.SpongeHashKeccak200Output168Impl;
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures end-to-end hashing of a message of {@code messageSize} bytes through the array and the
+ * stream entry points. {@link BenchmarkMain} divides the results by {@code messageSize} to report
+ * cycles per byte.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Thread)
+public class HashBenchmark {
+
+  // 0 B to 64 MiB, all multiples of 8 so the Keccak-1600 long[] holds exactly the same bytes
+  @Param({"0", "8", "32", "128", "1024", "16384", "1048576", "67108864"})
+  public int messageSize;
+
+  private SpongeHash<long[]> spongeHash1600;
+  private SpongeHash<byte[]> spongeHash200;
+  private byte[] bytes;
+  private long[] longs;
+
+  @Setup
+  public void setUp() {
+    spongeHash1600 =
+        new SpongeHashKeccak1600Output256Impl(
+            new io.github.destroyerofcode.keccak1600output256.PermutationImpl());
+    spongeHash200 =
+        new SpongeHashKeccak200Output168Impl(
+            new io.github.destroyerofcode.keccak200output168.PermutationImpl());
+    bytes = Messages.bytes(messageSize);
+    longs = Messages.longs(messageSize / Long.BYTES);
+  }
+
+  @Benchmark
+  public long[] hashArray1600() {
+    return spongeHash1600.hash(longs);
+  }
+
+  @Benchmark
+  public long[] hashStream1600() {
+    return spongeHash1600.hash(new ByteArrayInputStream(bytes), messageSize);
+  }
+
+  @Benchmark
+  public byte[] hashArray200() {
+    return spongeHash200.hash(bytes);
+  }
+
+  @Benchmark
+  public byte[] hashStream200() {
+    return spongeHash200.hash(new ByteArrayInputStream(bytes), messageSize);
+  }
+}
@@ -0,0 +1,32 @@
+package io.github.destroyerofcode.benchmarks;
+
+import java.util.SplittableRandom;
+
+/** Deterministic pseudo-random inputs, so every run and every fork measures the same data. */
+final class Messages {
+
+  private static final long SEED = 0x5EED5EED5EEDL;
+
+  private Messages() {}
+
+  static byte[] bytes(final int size) {
+    final byte[] bytes = new byte[size];
+    final SplittableRandom random = new SplittableRandom(SEED);
+    for (int i = 0; i < size; i++) {
+      bytes[i] = (byte) random.nextInt();
+    }
+    return bytes;
+  }
+
+  static long[] longs(final int size) {
+    return new SplittableRandom(SEED).longs(size).toArray();
+  }
+
+  static long[] keccak1600State() {
+    return longs(25);
+  }
+
+  static byte[] keccak200State() {
+    return bytes(25);
+  }
+}
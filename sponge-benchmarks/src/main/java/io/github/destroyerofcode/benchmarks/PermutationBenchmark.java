@@ -0,0 +1,100 @@
+package io.github.destroyerofcode.benchmarks;
+
+import io.github.destroyerofcode.api.SpongePermutation;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the full permutation and each of its steps for both state widths. The state is permuted
+ * in place over and over, which keeps it from collapsing into a constant the JIT could fold.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PermutationBenchmark {
+
+  private SpongePermutation<long[]> permutation1600;
+  private SpongePermutation<byte[]> permutation200;
+  private long[] state1600;
+  private byte[] state200;
+
+  @Setup
+  public void setUp() {
+    permutation1600 = new io.github.destroyerofcode.keccak1600output256.PermutationImpl();
+    permutation200 = new io.github.destroyerofcode.keccak200output168.PermutationImpl();
+    state1600 = Messages.keccak1600State();
+    state200 = Messages.keccak200State();
+  }
+
+  @Benchmark
+  public long[] permute1600() {
+    permutation1600.permute(state1600);
+    return state1600;
+  }
+
+  @Benchmark
+  public long[] theta1600() {
+    permutation1600.theta(state1600);
+    return state1600;
+  }
+
+  @Benchmark
+  public long[] rhoPi1600() {
+    permutation1600.rhoPi(state1600);
+    return state1600;
+  }
+
+  @Benchmark
+  public long[] chi1600() {
+    permutation1600.chi(state1600);
+    return state1600;
+  }
+
+  @Benchmark
+  public long[] iota1600() {
+    permutation1600.iota(state1600, 0);
+    return state1600;
+  }
+
+  @Benchmark
+  public byte[] permute200() {
+    permutation200.permute(state200);
+    return state200;
+  }
+
+  @Benchmark
+  public byte[] theta200() {
+    permutation200.theta(state200);
+    return state200;
+  }
+
+  @Benchmark
+  public byte[] rhoPi200() {
+    permutation200.rhoPi(state200);
+    return state200;
+  }
+
+  @Benchmark
+  public byte[] chi200() {
+    permutation200.chi(state200);
+    return state200;
+  }
+
+  @Benchmark
+  public byte[] iota200() {
+    permutation200.iota(state200, 0);
+    return state200;
+  }
+}
@@ -0,0 +1,56 @@
+package io.github.destroyerofcode.benchmarks;
+
+import io.github.destroyerofcode.keccak1600output256.PermutationImpl;
+import io.github.destroyerofcode.keccak1600output256.random.SpongeRandom;
+import java.security.SecureRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares filling arrays from the sponge generator with {@link SecureRandom}. The bulk case is
+ * bounded by the permutation, compare it with {@link PermutationBenchmark} per 136 bytes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RandomBenchmark {
+
+  @Param({"8", "136", "65536"})
+  public int size;
+
+  private SpongeRandom spongeRandom;
+  private SecureRandom secureRandom;
+  private byte[] bytes;
+
+  @Setup
+  public void setUp() {
+    spongeRandom = new SpongeRandom(new PermutationImpl(), Messages.bytes(32));
+    secureRandom = new SecureRandom();
+    bytes = new byte[size];
+  }
+
+  @Benchmark
+  public byte[] spongeRandomNextBytes() {
+    spongeRandom.nextBytes(bytes);
+    return bytes;
+  }
+
+  @Benchmark
+  public byte[] secureRandomNextBytes() {
+    secureRandom.nextBytes(bytes);
+    return bytes;
+  }
+}
@@ -0,0 +1,68 @@
+package io.github.destroyerofcode.benchmarks;
+
+import io.github.destroyerofcode.hasher.Funnel;
+import io.github.destroyerofcode.keccak1600output256.PermutationImpl;
+import io.github.destroyerofcode.keccak1600output256.SpongeHashKeccak1600Output256Impl;
+import io.github.destroyerofcode.keccak1600output256.SpongeHasherKeccak1600Output256Impl;
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares hashing a record by serializing it into a byte array first with writing its fields
+ * straight into a reused Keccak-1600 hasher.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RecordHashBenchmark {
+
+  private record Event(long id, long timestamp, double amount, String note, byte[] payload) {}
+
+  private static final Funnel<Event> EVENT_FUNNEL =
+      (event, into) ->
+          into.putLong(event.id())
+              .putLong(event.timestamp())
+              .putDouble(event.amount())
+              .putPrefixedString(event.note())
+              .putPrefixedBytes(event.payload());
+
+  private SpongeHashKeccak1600Output256Impl spongeHash1600;
+  private SpongeHasherKeccak1600Output256Impl hasher;
+  private Event event;
+
+  @Setup
+  public void setUp() {
+    spongeHash1600 = new SpongeHashKeccak1600Output256Impl(new PermutationImpl());
+    hasher = spongeHash1600.newHasher();
+    event = new Event(42L, 1_700_000_000_000L, 12.5, "order shipped", Messages.bytes(64));
+  }
+
+  @Benchmark
+  public long[] serializeThenHash() {
+    final byte[] note = event.note().getBytes(StandardCharsets.UTF_8);
+    final ByteBuffer buffer = ByteBuffer.allocate(32 + note.length + event.payload().length);
+    buffer.putLong(event.id()).putLong(event.timestamp()).putDouble(event.amount());
+    buffer.putInt(note.length).put(note).putInt(event.payload().length).put(event.payload());
+    return spongeHash1600.hash(new ByteArrayInputStream(buffer.array())).digest();
+  }
+
+  @Benchmark
+  public long[] funnelIntoHasher() {
+    return hasher.putObject(event, EVENT_FUNNEL).digest();
+  }
+}
@@ -0,0 +1,77 @@
+package io.github.destroyerofcode.benchmarks;
+
+import io.github.destroyerofcode.api.SpongeHash;
+import io.github.destroyerofcode.keccak1600output256.Constants;
+import io.github.destroyerofcode.keccak1600output256.PermutationImpl;
+import io.github.destroyerofcode.keccak1600output256.SpongeHashKeccak1600Output256Impl;
+import io.github.destroyerofcode.keccak200output168.SpongeHashKeccak200Output168Impl;
+import io.github.destroyerofcode.keccak200output168.primitive.Keccak200PrimitiveHash;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the latency of hashing messages of at most one block. {@code hashArray1600} takes the
+ * single-block path of Keccak-1600, {@code spongeSteps1600} the same work through the general
+ * initState, absorb and squeeze steps. For Keccak-200, the allocation-free primitive hash is
+ * compared with the digest of the array hash.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ShortMessageBenchmark {
+
+  @Param({"8", "32", "128"})
+  public int messageSize;
+
+  private SpongeHash<long[]> spongeHash1600;
+  private SpongeHash<byte[]> spongeHash200;
+  private byte[] bytes;
+  private long[] longs;
+
+  @Setup
+  public void setUp() {
+    spongeHash1600 = new SpongeHashKeccak1600Output256Impl(new PermutationImpl());
+    spongeHash200 =
+        new SpongeHashKeccak200Output168Impl(
+            new io.github.destroyerofcode.keccak200output168.PermutationImpl());
+    bytes = Messages.bytes(messageSize);
+    longs = Messages.longs(messageSize / Long.BYTES);
+  }
+
+  @Benchmark
+  public long[] hashArray1600() {
+    return spongeHash1600.hash(longs);
+  }
+
+  @Benchmark
+  public long[] spongeSteps1600() {
+    final long[] state = spongeHash1600.initState();
+    for (int i = 0; i < longs.length; i += Constants.LONGS_IN_r) {
+      spongeHash1600.absorb(state, longs, i, Math.min(Constants.LONGS_IN_r, longs.length - i));
+    }
+    return spongeHash1600.squeeze(state);
+  }
+
+  @Benchmark
+  public byte[] hashArray200() {
+    return spongeHash200.hash(bytes);
+  }
+
+  @Benchmark
+  public long hashToLong200() {
+    return Keccak200PrimitiveHash.hashToLong(bytes);
+  }
+}
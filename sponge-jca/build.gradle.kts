@@ -0,0 +1,24 @@
+plugins {
+    id("java")
+}
+
+group = "io.github.destroyerofcode"
+version = "1.0"
+
+repositories {
+    mavenCentral()
+}
+
+dependencies {
+    implementation(project(":sponge-api"))
+    implementation(project(":keccak-1600-256"))
+    implementation(project(":keccak-200-168"))
+
+    // tests
+    testImplementation(platform(libs.junit.bom))
+    testImplementation(libs.bundles.web.test)
+}
+
+tasks.test {
+    useJUnitPlatform()
+}
@@ -0,0 +1,53 @@
+package io.github.destroyerofcode.jca;
+
+import io.github.destroyerofcode.hasher.SpongeHasher;
+import io.github.destroyerofcode.keccak1600output256.Constants;
+import io.github.destroyerofcode.keccak1600output256.PermutationImpl;
+import io.github.destroyerofcode.keccak1600output256.SpongeHashKeccak1600Output256Impl;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+
+/**
+ * Keccak-1600 with 256-bit digests as a JCA message digest, registered by {@link SpongeProvider}
+ * as {@value SpongeProvider#KECCAK_1600_256}. The digest bytes are the 4 digest lanes in big-endian
+ * order, and bytes are packed into lanes the same as by the stream hash of the module.
+ */
+public final class Keccak1600Output256MessageDigest extends SpongeMessageDigestSpi<long[]> {
+
+  private static final SpongeHashKeccak1600Output256Impl SPONGE_HASH =
+      new SpongeHashKeccak1600Output256Impl(new PermutationImpl());
+  private static final VarHandle LONGS =
+      MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+
+  private long[] lanes = new long[Constants.OUTPUT_LENGTH_LONGS];
+
+  public Keccak1600Output256MessageDigest() {
+    super(SPONGE_HASH.newHasher());
+  }
+
+  @Override
+  SpongeHasher<long[]> newHasher() {
+    return SPONGE_HASH.newHasher();
+  }
+
+  @Override
+  void digestInto(final SpongeHasher<long[]> hasher, final byte[] out, final int offset) {
+    hasher.digestInto(lanes, 0);
+    for (int i = 0; i < lanes.length; i++) {
+      LONGS.set(out, offset + i * Long.BYTES, lanes[i]);
+    }
+  }
+
+  @Override
+  protected int engineGetDigestLength() {
+    return Constants.OUTPUT_LENGTH_BYTES;
+  }
+
+  @Override
+  public Object clone() throws CloneNotSupportedException {
+    final Keccak1600Output256MessageDigest copy = (Keccak1600Output256MessageDigest) super.clone();
+    copy.lanes = new long[Constants.OUTPUT_LENGTH_LONGS];
+    return copy;
+  }
+}
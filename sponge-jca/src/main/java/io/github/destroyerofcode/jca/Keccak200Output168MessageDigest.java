@@ -0,0 +1,35 @@
+package io.github.destroyerofcode.jca;
+
+import io.github.destroyerofcode.hasher.SpongeHasher;
+import io.github.destroyerofcode.keccak200output168.Constants;
+import io.github.destroyerofcode.keccak200output168.PermutationImpl;
+import io.github.destroyerofcode.keccak200output168.SpongeHashKeccak200Output168Impl;
+
+/**
+ * Keccak-200 with 168-bit digests as a JCA message digest, registered by {@link SpongeProvider} as
+ * {@value SpongeProvider#KECCAK_200_168}. The digest is written straight into the caller's array.
+ */
+public final class Keccak200Output168MessageDigest extends SpongeMessageDigestSpi<byte[]> {
+
+  private static final SpongeHashKeccak200Output168Impl SPONGE_HASH =
+      new SpongeHashKeccak200Output168Impl(new PermutationImpl());
+
+  public Keccak200Output168MessageDigest() {
+    super(SPONGE_HASH.newHasher());
+  }
+
+  @Override
+  SpongeHasher<byte[]> newHasher() {
+    return SPONGE_HASH.newHasher();
+  }
+
+  @Override
+  void digestInto(final SpongeHasher<byte[]> hasher, final byte[] out, final int offset) {
+    hasher.digestInto(out, offset);
+  }
+
+  @Override
+  protected int engineGetDigestLength() {
+    return Constants.OUTPUT_LENGTH_BYTES;
+  }
+}
@@ -0,0 +1,87 @@
+package io.github.destroyerofcode.jca;
+
+import io.github.destroyerofcode.hasher.SpongeHasher;
+import java.nio.ByteBuffer;
+import java.security.DigestException;
+import java.security.MessageDigestSpi;
+import java.util.Objects;
+
+/**
+ * {@link MessageDigestSpi} over a {@link SpongeHasher}. Updates are passed to the hasher as they
+ * are, so arrays and heap buffers are absorbed in place and only the partial block is buffered.
+ * {@link #clone()} copies the state lanes and the pending bytes, which keeps digesting many
+ * messages with a common prefix cheap.
+ *
+ * @param <T> The type of the states of the sponge hash.
+ */
+abstract class SpongeMessageDigestSpi<T> extends MessageDigestSpi implements Cloneable {
+
+  private SpongeHasher<T> hasher;
+
+  SpongeMessageDigestSpi(final SpongeHasher<T> hasher) {
+    this.hasher = hasher;
+  }
+
+  /**
+   * @return a new hasher of the same module, to copy the state into.
+   */
+  abstract SpongeHasher<T> newHasher();
+
+  /**
+   * Absorbs the pending bytes, writes the digest as bytes and resets the hasher.
+   *
+   * @param hasher The hasher.
+   * @param out The array receiving the digest.
+   * @param offset The index of the first byte of the digest.
+   */
+  abstract void digestInto(SpongeHasher<T> hasher, byte[] out, int offset);
+
+  @Override
+  protected void engineUpdate(final byte input) {
+    hasher.putByte(input);
+  }
+
+  @Override
+  protected void engineUpdate(final byte[] input, final int offset, final int length) {
+    hasher.putBytes(input, offset, length);
+  }
+
+  /** Absorbs the remaining bytes of the buffer without copying them, and moves its position. */
+  @Override
+  protected void engineUpdate(final ByteBuffer input) {
+    hasher.putBytes(input);
+    input.position(input.limit());
+  }
+
+  @Override
+  protected byte[] engineDigest() {
+    final byte[] digest = new byte[engineGetDigestLength()];
+    digestInto(hasher, digest, 0);
+    return digest;
+  }
+
+  @Override
+  protected int engineDigest(final byte[] out, final int offset, final int length)
+      throws DigestException {
+    Objects.checkFromIndexSize(offset, length, out.length);
+    if (length < engineGetDigestLength()) {
+      throw new DigestException(
+          "Buffer of " + length + " bytes is too short for a digest of " + engineGetDigestLength());
+    }
+    digestInto(hasher, out, offset);
+    return engineGetDigestLength();
+  }
+
+  @Override
+  protected void engineReset() {
+    hasher.reset();
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public Object clone() throws CloneNotSupportedException {
+    final SpongeMessageDigestSpi<T> copy = (SpongeMessageDigestSpi<T>) super.clone();
+    copy.hasher = newHasher().copyFrom(hasher);
+    return copy;
+  }
+}
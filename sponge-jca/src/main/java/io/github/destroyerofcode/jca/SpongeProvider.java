@@ -0,0 +1,45 @@
+package io.github.destroyerofcode.jca;
+
+import java.security.Provider;
+import java.util.List;
+
+/**
+ * JCA provider of the Keccak sponge hashes as message digests, so code written against {@link
+ * java.security.MessageDigest} can use them:
+ *
+ * <pre>{@code
+ * MessageDigest digest =
+ *     MessageDigest.getInstance(SpongeProvider.KECCAK_1600_256, new SpongeProvider());
+ * }</pre>
+ *
+ * <p>The provider can also be installed with {@link java.security.Security#addProvider}, after
+ * which the digests are found by name only.
+ */
+public final class SpongeProvider extends Provider {
+
+  public static final String NAME = "Sponge";
+  public static final String KECCAK_1600_256 = "Keccak-1600-256";
+  public static final String KECCAK_200_168 = "Keccak-200-168";
+
+  private static final long serialVersionUID = 1L;
+
+  public SpongeProvider() {
+    super(NAME, "1.0", "Keccak-1600/256 and Keccak-200/168 sponge message digests");
+    putService(
+        new Service(
+            this,
+            "MessageDigest",
+            KECCAK_1600_256,
+            Keccak1600Output256MessageDigest.class.getName(),
+            List.of(),
+            null));
+    putService(
+        new Service(
+            this,
+            "MessageDigest",
+            KECCAK_200_168,
+            Keccak200Output168MessageDigest.class.getName(),
+            List.of(),
+            null));
+  }
+}
@@ -0,0 +1,99 @@
+package io.github.destroyerofcode.jca;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import io.github.destroyerofcode.common.Utils;
+import io.github.destroyerofcode.keccak1600output256.SpongeHashKeccak1600Output256Impl;
+import io.github.destroyerofcode.keccak200output168.SpongeHashKeccak200Output168Impl;
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class SpongeProviderTest {
+
+  private SpongeProvider provider;
+  private byte[] message;
+
+  @BeforeEach
+  void setUp() {
+    provider = new SpongeProvider();
+    message = new byte[1000];
+    for (int i = 0; i < message.length; i++) {
+      message[i] = (byte) (i * 11);
+    }
+  }
+
+  @Test
+  @DisplayName("Message digests should equal the digests of the hash implementations")
+  void testDigestsMatchImplementations() throws NoSuchAlgorithmException {
+    // given
+    final byte[] expected1600 =
+        Utils.longsToBytes(
+            new SpongeHashKeccak1600Output256Impl(
+                    new io.github.destroyerofcode.keccak1600output256.PermutationImpl())
+                .hash(new ByteArrayInputStream(message))
+                .digest());
+    final byte[] expected200 =
+        new SpongeHashKeccak200Output168Impl(
+                new io.github.destroyerofcode.keccak200output168.PermutationImpl())
+            .hash(message);
+    final MessageDigest keccak1600 =
+        MessageDigest.getInstance(SpongeProvider.KECCAK_1600_256, provider);
+    final MessageDigest keccak200 =
+        MessageDigest.getInstance(SpongeProvider.KECCAK_200_168, provider);
+
+    // when
+    keccak1600.update(message, 0, 333);
+    final ByteBuffer direct = ByteBuffer.allocateDirect(message.length - 333);
+    direct.put(message, 333, message.length - 333).flip();
+    keccak1600.update(direct);
+    final byte[] digest1600 = keccak1600.digest();
+    final byte[] digest200 = keccak200.digest(message);
+
+    // then
+    assertAll(
+        () -> assertEquals(32, keccak1600.getDigestLength()),
+        () -> assertEquals(21, keccak200.getDigestLength()),
+        () -> assertEquals(0, direct.remaining()),
+        () -> assertArrayEquals(expected1600, digest1600),
+        () -> assertArrayEquals(expected200, digest200),
+        () -> assertArrayEquals(expected1600, keccak1600.digest(message)));
+  }
+
+  @Test
+  @DisplayName("A clone should continue from the common prefix independently")
+  void testCloneReusesPrefix() throws Exception {
+    // given
+    final MessageDigest prefix =
+        MessageDigest.getInstance(SpongeProvider.KECCAK_1600_256, provider);
+    prefix.update(message, 0, 500);
+
+    // when
+    final MessageDigest first = (MessageDigest) prefix.clone();
+    final MessageDigest second = (MessageDigest) prefix.clone();
+    first.update(message, 500, 500);
+    second.update((byte) 1);
+    final byte[] firstDigest = new byte[40];
+    final int written = first.digest(firstDigest, 8, 32);
+    final byte[] secondDigest = second.digest();
+    final byte[] whole =
+        MessageDigest.getInstance(SpongeProvider.KECCAK_1600_256, provider).digest(message);
+    prefix.update((byte) 1);
+
+    // then
+    assertAll(
+        () -> assertEquals(32, written),
+        () -> assertArrayEquals(whole, Arrays.copyOfRange(firstDigest, 8, 40)),
+        () -> assertArrayEquals(prefix.digest(), secondDigest),
+        () -> assertThrows(DigestException.class, () -> first.digest(new byte[31], 0, 31)));
+  }
+}
@@ -0,0 +1,23 @@
+plugins {
+    id("java")
+}
+
+group = "io.github.destroyerofcode"
+version = "1.0"
+
+repositories {
+    mavenCentral()
+}
+
+dependencies {
+    implementation(project(":sponge-api"))
+    implementation(project(":keccak-1600-256"))
+
+    // tests
+    testImplementation(platform(libs.junit.bom))
+    testImplementation(libs.bundles.web.test)
+}
+
+tasks.test {
+    useJUnitPlatform()
+}
@@ -0,0 +1,304 @@
+package io.github.destroyerofcode.log;
+
+import io.github.destroyerofcode.exception.SpongeException;
+import io.github.destroyerofcode.hasher.SpongeHasher;
+import io.github.destroyerofcode.keccak1600output256.Constants;
+import io.github.destroyerofcode.keccak1600output256.SpongeHashKeccak1600Output256Impl;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tamper-evident append-only log. Every entry is chained to the previous one by its Keccak-1600
+ * digest, so changing, removing or reordering an entry changes the digests of all the entries
+ * after it. The digest of the last entry, {@link #head()}, should be anchored outside of the log
+ * to detect a rewritten tail.
+ *
+ * <p>Appends from any number of threads are queued and committed in batches by one thread: it
+ * computes the chained digests in order with a single reused hasher, writes the entries into the
+ * memory-mapped segment and forces it to the disk once per batch, then completes the appends of
+ * the batch. Under load a batch holds all the appends that arrived during the previous force, so
+ * the cost of the force is shared.
+ *
+ * <p>Entries are stored in {@link LogSegment}s of fixed size in a directory, a new segment being
+ * started when the next entry does not fit. On opening, the entries of the last segment are
+ * checked again and a torn last batch is truncated. An entry before the last batch was on the disk
+ * when its append completed, so a mismatch there fails the opening instead of erasing the entry
+ * and the evidence of the change. {@link LogVerifier} checks all the segments.
+ */
+public final class ChainedLog implements Closeable {
+
+  public static final int DEFAULT_SEGMENT_SIZE = 64 << 20;
+  public static final int DEFAULT_MAX_BATCH = 1024;
+  private static final long POLL_MILLIS = 10;
+
+  private final Path directory;
+  private final int segmentSize;
+  private final int maxBatch;
+  private final SpongeHasher<long[]> hasher;
+  private final BlockingQueue<PendingEntry> queue = new LinkedBlockingQueue<>();
+  private final ExecutorService committer;
+  private final long[] head;
+  private LogSegment segment;
+  private long nextSequence;
+  private volatile LogEntry last;
+  private volatile boolean closed;
+  private volatile SpongeException failure;
+
+  private ChainedLog(
+      final Path directory,
+      final int segmentSize,
+      final int maxBatch,
+      final SpongeHasher<long[]> hasher,
+      final LogSegment segment,
+      final LogSegment.Scan scan) {
+    this.directory = directory;
+    this.segmentSize = segmentSize;
+    this.maxBatch = maxBatch;
+    this.hasher = hasher;
+    this.segment = segment;
+    this.head = scan.head();
+    this.nextSequence = scan.nextSequence();
+    this.last = new LogEntry(nextSequence - 1, head.clone());
+    this.committer =
+        Executors.newSingleThreadExecutor(
+            task -> {
+              final Thread thread = new Thread(task, "chained-log-committer");
+              thread.setDaemon(true);
+              return thread;
+            });
+    committer.execute(this::commitLoop);
+  }
+
+  /**
+   * Opens the log in a directory with segments of {@link #DEFAULT_SEGMENT_SIZE} bytes and batches
+   * of up to {@link #DEFAULT_MAX_BATCH} entries.
+   *
+   * @see #open(Path, SpongeHashKeccak1600Output256Impl, int, int)
+   */
+  public static ChainedLog open(
+      final Path directory, final SpongeHashKeccak1600Output256Impl spongeHash) {
+    return open(directory, spongeHash, DEFAULT_SEGMENT_SIZE, DEFAULT_MAX_BATCH);
+  }
+
+  /**
+   * Opens the log in a directory, creating the directory and the first segment if needed.
+   *
+   * @param directory The directory of the segment files.
+   * @param spongeHash The Keccak-1600 hash the entries are chained with.
+   * @param segmentSize The size of new segments in bytes, the largest entry being that size minus
+   *     {@value LogSegment#HEADER_BYTES} bytes of header and {@value
+   *     LogSegment#ENTRY_OVERHEAD_BYTES} bytes of entry overhead.
+   * @param maxBatch The number of entries committed by one force at most.
+   * @return the open log.
+   * @throws SpongeException If the log cannot be opened, or an entry of the last segment committed
+   *     before its last batch does not match its chained digest.
+   */
+  public static ChainedLog open(
+      final Path directory,
+      final SpongeHashKeccak1600Output256Impl spongeHash,
+      final int segmentSize,
+      final int maxBatch) {
+    if (segmentSize <= LogSegment.HEADER_BYTES + LogSegment.ENTRY_OVERHEAD_BYTES) {
+      throw new IllegalArgumentException("Segment size is too small for an entry.");
+    }
+    if (maxBatch <= 0) {
+      throw new IllegalArgumentException("Max batch must be greater than 0.");
+    }
+    final SpongeHasher<long[]> hasher = spongeHash.newHasher();
+    LogSegment segment = null;
+    try {
+      Files.createDirectories(directory);
+      final List<Path> files = LogVerifier.segmentFiles(directory);
+      if (files.isEmpty()) {
+        segment =
+            LogSegment.create(
+                segmentFile(directory, 0),
+                segmentSize,
+                0,
+                new long[Constants.OUTPUT_LENGTH_LONGS]);
+      } else {
+        segment = LogSegment.open(files.get(files.size() - 1), true);
+      }
+      final LogSegment.Scan scan = segment.scan(hasher);
+      if (!scan.intact()) {
+        if (scan.end() < segment.previousEnd()) {
+          throw new SpongeException(
+              segment.file()
+                  + ": the entry "
+                  + scan.nextSequence()
+                  + " was committed before the last batch and does not match its chained digest.");
+        }
+        segment.truncate(scan.end());
+      }
+      return new ChainedLog(directory, segmentSize, maxBatch, hasher, segment, scan);
+    } catch (IOException | RuntimeException e) {
+      closeQuietly(segment);
+      throw e instanceof SpongeException spongeException
+          ? spongeException
+          : new SpongeException("An error has occurred when opening the log: ", e);
+    }
+  }
+
+  /**
+   * Queues an entry to be committed with the next batch.
+   *
+   * @param payload The payload of the entry, not copied, so it must not be modified until the
+   *     append is complete.
+   * @return the committed entry once it is on the disk.
+   */
+  public CompletableFuture<LogEntry> appendAsync(final byte[] payload) {
+    final PendingEntry pending = new PendingEntry(payload, new CompletableFuture<>());
+    if ((long) LogSegment.HEADER_BYTES + LogSegment.ENTRY_OVERHEAD_BYTES + payload.length
+        > segmentSize) {
+      pending.result.completeExceptionally(
+          new IllegalArgumentException("The entry is larger than a segment."));
+      return pending.result;
+    }
+    if (closed) {
+      pending.result.completeExceptionally(new IllegalStateException("The log is closed."));
+      return pending.result;
+    }
+    queue.add(pending);
+    // the committer may have drained the queue for the last time in between
+    if (closed && queue.remove(pending)) {
+      pending.result.completeExceptionally(new IllegalStateException("The log is closed."));
+    }
+    return pending.result;
+  }
+
+  /**
+   * Appends an entry and waits until its batch is on the disk.
+   *
+   * @param payload The payload of the entry.
+   * @return the committed entry.
+   * @throws SpongeException If the entry could not be committed.
+   */
+  public LogEntry append(final byte[] payload) {
+    try {
+      return appendAsync(payload).get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new SpongeException("Interrupted when appending: ", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw new SpongeException("An error has occurred when appending: ", e.getCause());
+    }
+  }
+
+  /**
+   * @return the last committed entry, with sequence -1 and the zero digest for an empty log.
+   */
+  public LogEntry head() {
+    final LogEntry entry = last;
+    return new LogEntry(entry.sequence(), entry.digest().clone());
+  }
+
+  /** Commits the queued entries, then closes the segment. */
+  @Override
+  public void close() {
+    closed = true;
+    committer.shutdown();
+    try {
+      if (!committer.awaitTermination(1, TimeUnit.MINUTES)) {
+        committer.shutdownNow();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    closeQuietly(segment);
+  }
+
+  private void commitLoop() {
+    final List<PendingEntry> batch = new ArrayList<>(maxBatch);
+    try {
+      while (!closed || !queue.isEmpty()) {
+        final PendingEntry first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+        if (first == null) {
+          continue;
+        }
+        batch.add(first);
+        queue.drainTo(batch, maxBatch - 1);
+        commit(batch);
+        batch.clear();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    for (PendingEntry pending; (pending = queue.poll()) != null; ) {
+      pending.result.completeExceptionally(new IllegalStateException("The log is closed."));
+    }
+  }
+
+  private void commit(final List<PendingEntry> batch) {
+    if (failure != null) {
+      batch.forEach(pending -> pending.result.completeExceptionally(failure));
+      return;
+    }
+    final LogEntry[] entries = new LogEntry[batch.size()];
+    try {
+      for (int i = 0; i < entries.length; i++) {
+        final byte[] payload = batch.get(i).payload;
+        if (!segment.fits(payload.length)) {
+          roll();
+        }
+        LogSegment.chain(hasher, head, nextSequence, ByteBuffer.wrap(payload), head);
+        segment.append(nextSequence, payload, head);
+        entries[i] = new LogEntry(nextSequence++, head.clone());
+      }
+      segment.commit();
+    } catch (IOException | RuntimeException e) {
+      // the written state is unknown, reopening the log truncates it to the last valid entry
+      failure = new SpongeException("An error has occurred when committing: ", e);
+      batch.forEach(pending -> pending.result.completeExceptionally(failure));
+      return;
+    }
+    last = entries[entries.length - 1];
+    for (int i = 0; i < entries.length; i++) {
+      batch.get(i).result.complete(entries[i]);
+    }
+  }
+
+  /** Commits the current segment and starts the next one from the current head. */
+  private void roll() throws IOException {
+    segment.commit();
+    final LogSegment next =
+        LogSegment.create(
+            segmentFile(directory, LogVerifier.segmentNumber(segment.file()) + 1),
+            segmentSize,
+            nextSequence,
+            head);
+    segment.close();
+    segment = next;
+  }
+
+  private static Path segmentFile(final Path directory, final long number) {
+    return directory.resolve(String.format("%016d%s", number, LogVerifier.SEGMENT_SUFFIX));
+  }
+
+  private static void closeQuietly(final LogSegment segment) {
+    if (segment == null) {
+      return;
+    }
+    try {
+      segment.close();
+    } catch (IOException e) {
+      // the forced entries are on the disk already
+    }
+  }
+
+  private record PendingEntry(byte[] payload, CompletableFuture<LogEntry> result) {}
+}
@@ -0,0 +1,9 @@
+package io.github.destroyerofcode.log;
+
+/**
+ * An entry committed to a {@link ChainedLog}.
+ *
+ * @param sequence The sequence number of the entry, from 0.
+ * @param digest The chained Keccak-1600 digest of the entry.
+ */
+public record LogEntry(long sequence, long[] digest) {}
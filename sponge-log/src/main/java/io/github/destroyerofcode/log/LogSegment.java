@@ -0,0 +1,291 @@
+package io.github.destroyerofcode.log;
+
+import io.github.destroyerofcode.exception.SpongeException;
+import io.github.destroyerofcode.hasher.SpongeHasher;
+import io.github.destroyerofcode.keccak1600output256.Constants;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A segment of a {@link ChainedLog}, a memory-mapped file of fixed size. The header holds the
+ * sequence number of the first entry, the chained digest before it, which is the checkpoint the
+ * segment is verified from, the end of the committed entries and the end before the last batch,
+ * up to which the entries were on the disk before that batch was written. Every entry is written
+ * as:
+ *
+ * <pre>int payload length, long sequence, payload, 4 longs chained digest</pre>
+ *
+ * <p>The chained digest of an entry is the Keccak-1600 hash of the previous digest, the sequence
+ * number, the payload length as an int and the payload. The first segment starts from 4 zero
+ * lanes.
+ */
+final class LogSegment implements Closeable {
+
+  private static final int MAGIC = 0x4B4C4F47; // KLOG
+  private static final int VERSION = 1;
+  private static final int END_OFFSET = 8;
+  private static final int FIRST_SEQUENCE_OFFSET = 16;
+  private static final int START_DIGEST_OFFSET = 24;
+  private static final int PREVIOUS_END_OFFSET = 56;
+  static final String TEMPORARY_SUFFIX = ".tmp";
+  static final int HEADER_BYTES = 64;
+  static final int ENTRY_OVERHEAD_BYTES =
+      Integer.BYTES + Long.BYTES + Constants.OUTPUT_LENGTH_BYTES;
+
+  private final Path file;
+  private final FileChannel channel;
+  private final MappedByteBuffer buffer;
+  private int position;
+
+  private LogSegment(final Path file, final FileChannel channel, final MappedByteBuffer buffer) {
+    this.file = file;
+    this.channel = channel;
+    this.buffer = buffer;
+    this.position = (int) buffer.getLong(END_OFFSET);
+  }
+
+  /**
+   * Creates a segment under a temporary name, forces its header, then renames it atomically, so a
+   * crash never leaves a segment file without a header. A temporary file left by such a crash is
+   * replaced.
+   *
+   * @param file The segment file, which must not exist.
+   * @param size The size of the segment in bytes.
+   * @param firstSequence The sequence number of the first entry.
+   * @param startDigest The chained digest before the first entry.
+   * @return the mapped segment.
+   * @throws IOException If the file cannot be created or mapped.
+   */
+  static LogSegment create(
+      final Path file, final int size, final long firstSequence, final long[] startDigest)
+      throws IOException {
+    if (Files.exists(file)) {
+      throw new FileAlreadyExistsException(file.toString());
+    }
+    final Path temporary = file.resolveSibling(file.getFileName() + TEMPORARY_SUFFIX);
+    Files.deleteIfExists(temporary);
+    final FileChannel channel =
+        FileChannel.open(
+            temporary,
+            StandardOpenOption.CREATE_NEW,
+            StandardOpenOption.READ,
+            StandardOpenOption.WRITE);
+    try {
+      channel.write(ByteBuffer.allocate(1), size - 1L);
+      final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+      buffer
+          .putInt(0, MAGIC)
+          .putInt(4, VERSION)
+          .putLong(END_OFFSET, HEADER_BYTES)
+          .putLong(FIRST_SEQUENCE_OFFSET, firstSequence)
+          .putLong(PREVIOUS_END_OFFSET, HEADER_BYTES);
+      for (int i = 0; i < Constants.OUTPUT_LENGTH_LONGS; i++) {
+        buffer.putLong(START_DIGEST_OFFSET + i * Long.BYTES, startDigest[i]);
+      }
+      buffer.force();
+      // the mapping stays valid, it follows the file and not its name
+      Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE);
+      return new LogSegment(file, channel, buffer);
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      Files.deleteIfExists(temporary);
+      throw e;
+    }
+  }
+
+  /**
+   * Opens an existing segment.
+   *
+   * @param file The segment file.
+   * @param writable Whether entries are appended to the segment.
+   * @return the mapped segment.
+   * @throws IOException If the file cannot be mapped.
+   * @throws SpongeException If the file is not a log segment.
+   */
+  static LogSegment open(final Path file, final boolean writable) throws IOException {
+    final FileChannel channel =
+        writable
+            ? FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)
+            : FileChannel.open(file, StandardOpenOption.READ);
+    try {
+      final MappedByteBuffer buffer =
+          channel.map(
+              writable ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY,
+              0,
+              channel.size());
+      if (buffer.capacity() < HEADER_BYTES
+          || buffer.getInt(0) != MAGIC
+          || buffer.getInt(4) != VERSION) {
+        throw new SpongeException("Not a log segment file: " + file);
+      }
+      return new LogSegment(file, channel, buffer);
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  Path file() {
+    return file;
+  }
+
+  long firstSequence() {
+    return buffer.getLong(FIRST_SEQUENCE_OFFSET);
+  }
+
+  /**
+   * @return a copy of the chained digest before the first entry.
+   */
+  long[] startDigest() {
+    final long[] digest = new long[Constants.OUTPUT_LENGTH_LONGS];
+    for (int i = 0; i < digest.length; i++) {
+      digest[i] = buffer.getLong(START_DIGEST_OFFSET + i * Long.BYTES);
+    }
+    return digest;
+  }
+
+  /**
+   * @return the end of the committed entries, as stored in the header.
+   */
+  int committedEnd() {
+    return (int) buffer.getLong(END_OFFSET);
+  }
+
+  /**
+   * @return the end of the committed entries before the last batch, as stored in the header. The
+   *     entries before it were forced by an earlier commit.
+   */
+  long previousEnd() {
+    return buffer.getLong(PREVIOUS_END_OFFSET);
+  }
+
+  boolean fits(final int payloadLength) {
+    return (long) ENTRY_OVERHEAD_BYTES + payloadLength <= buffer.capacity() - position;
+  }
+
+  /**
+   * Writes an entry after the last one. The caller has checked {@link #fits(int)}. The entry is
+   * committed with the others of its batch by {@link #commit()}.
+   */
+  void append(final long sequence, final byte[] payload, final long[] digest) {
+    buffer.putInt(position, payload.length).putLong(position + Integer.BYTES, sequence);
+    int offset = position + Integer.BYTES + Long.BYTES;
+    buffer.put(offset, payload);
+    offset += payload.length;
+    for (final long lane : digest) {
+      buffer.putLong(offset, lane);
+      offset += Long.BYTES;
+    }
+    position = offset;
+  }
+
+  /**
+   * Publishes the end of the entries written so far, keeping the end before them as the previous
+   * end, and forces the segment to the disk.
+   */
+  void commit() {
+    final long end = buffer.getLong(END_OFFSET);
+    if (position != end) {
+      buffer.putLong(PREVIOUS_END_OFFSET, end).putLong(END_OFFSET, position);
+    }
+    buffer.force();
+  }
+
+  /**
+   * Moves the end back, dropping the entries after it, e.g. the torn tail of a batch that did not
+   * reach the disk before a crash.
+   */
+  void truncate(final int end) {
+    position = end;
+    buffer
+        .putLong(PREVIOUS_END_OFFSET, Math.min(previousEnd(), end))
+        .putLong(END_OFFSET, end);
+    buffer.force();
+  }
+
+  /**
+   * Recomputes the chained digests of the entries from the start digest of the header, up to the
+   * committed end or the first entry that does not match its stored digest.
+   *
+   * @param hasher The hasher the digests are recomputed with, reused from entry to entry.
+   * @return where and why the scan stopped.
+   */
+  Scan scan(final SpongeHasher<long[]> hasher) {
+    long sequence = firstSequence();
+    final long[] head = startDigest();
+    final long storedEnd = buffer.getLong(END_OFFSET);
+    if (storedEnd < HEADER_BYTES || storedEnd > buffer.capacity()) {
+      return new Scan(HEADER_BYTES, sequence, head, false);
+    }
+    final int end = (int) storedEnd;
+    final long[] digest = new long[Constants.OUTPUT_LENGTH_LONGS];
+    int offset = HEADER_BYTES;
+    while (offset < end) {
+      if (end - offset < ENTRY_OVERHEAD_BYTES) {
+        return new Scan(offset, sequence, head, false);
+      }
+      final int length = buffer.getInt(offset);
+      if (length < 0
+          || length > end - offset - ENTRY_OVERHEAD_BYTES
+          || buffer.getLong(offset + Integer.BYTES) != sequence) {
+        return new Scan(offset, sequence, head, false);
+      }
+      final int payload = offset + Integer.BYTES + Long.BYTES;
+      chain(hasher, head, sequence, buffer.slice(payload, length), digest);
+      for (int i = 0; i < Constants.OUTPUT_LENGTH_LONGS; i++) {
+        if (buffer.getLong(payload + length + i * Long.BYTES) != digest[i]) {
+          return new Scan(offset, sequence, head, false);
+        }
+      }
+      System.arraycopy(digest, 0, head, 0, digest.length);
+      offset = payload + length + Constants.OUTPUT_LENGTH_BYTES;
+      sequence++;
+    }
+    return new Scan(offset, sequence, head, true);
+  }
+
+  /**
+   * Computes the chained digest of an entry.
+   *
+   * @param hasher The hasher, left reset.
+   * @param previous The chained digest of the previous entry.
+   * @param sequence The sequence number of the entry.
+   * @param payload The payload, from position to limit. The buffer position is not moved.
+   * @param out The array the digest is written to.
+   */
+  static void chain(
+      final SpongeHasher<long[]> hasher,
+      final long[] previous,
+      final long sequence,
+      final ByteBuffer payload,
+      final long[] out) {
+    for (final long lane : previous) {
+      hasher.putLong(lane);
+    }
+    hasher.putLong(sequence).putInt(payload.remaining()).putBytes(payload);
+    hasher.digestInto(out, 0);
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+
+  /**
+   * The result of a {@link #scan}.
+   *
+   * @param end The offset after the last matching entry.
+   * @param nextSequence The sequence number of the entry after it.
+   * @param head The chained digest of the last matching entry, or the start digest.
+   * @param intact Whether every entry up to the committed end matched.
+   */
+  record Scan(int end, long nextSequence, long[] head, boolean intact) {}
+}
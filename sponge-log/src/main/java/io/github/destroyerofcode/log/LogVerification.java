@@ -0,0 +1,19 @@
+package io.github.destroyerofcode.log;
+
+/**
+ * The result of {@link LogVerifier#verify}.
+ *
+ * @param entries The number of entries verified, the sequence number of the first entry that was
+ *     not.
+ * @param head The chained digest of the last entry verified.
+ * @param problem What is wrong with the log, null if it is intact.
+ */
+public record LogVerification(long entries, long[] head, String problem) {
+
+  /**
+   * @return true if every entry matched its chained digest.
+   */
+  public boolean intact() {
+    return problem == null;
+  }
+}
@@ -0,0 +1,125 @@
+package io.github.destroyerofcode.log;
+
+import io.github.destroyerofcode.exception.SpongeException;
+import io.github.destroyerofcode.keccak1600output256.Constants;
+import io.github.destroyerofcode.keccak1600output256.SpongeHashKeccak1600Output256Impl;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+
+/**
+ * Verifies a {@link ChainedLog}. Every segment is checked independently on a {@link ForkJoinPool}
+ * from the start digest stored in its header, recomputing the chained digest of each entry. The
+ * segments are then linked: a segment must start from the last digest and the next sequence
+ * number of the segment before it, and the first segment from the zero digest and sequence 0.
+ *
+ * <p>A rewrite of the entries after some point, together with their digests, is only detected
+ * against a head digest kept outside of the log, which {@link LogVerification#head()} is compared
+ * with.
+ */
+public final class LogVerifier {
+
+  static final String SEGMENT_SUFFIX = ".seg";
+
+  private LogVerifier() {}
+
+  /**
+   * Verifies the log in a directory on the common {@link ForkJoinPool}.
+   *
+   * @see #verify(Path, SpongeHashKeccak1600Output256Impl, ForkJoinPool)
+   */
+  public static LogVerification verify(
+      final Path directory, final SpongeHashKeccak1600Output256Impl spongeHash) {
+    return verify(directory, spongeHash, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Verifies the log in a directory. The log may be open for appends meanwhile, the entries
+   * committed after a segment is checked are then not verified.
+   *
+   * @param directory The directory of the segment files.
+   * @param spongeHash The Keccak-1600 hash the entries were chained with.
+   * @param pool The pool the segments are checked on.
+   * @return the number of entries, the head digest and the first problem found, if any.
+   * @throws SpongeException If the segments cannot be read.
+   */
+  public static LogVerification verify(
+      final Path directory,
+      final SpongeHashKeccak1600Output256Impl spongeHash,
+      final ForkJoinPool pool) {
+    final List<Path> files;
+    try {
+      files = segmentFiles(directory);
+    } catch (IOException e) {
+      throw new SpongeException("An error has occurred when verifying the log: ", e);
+    }
+    final SegmentResult[] results;
+    try {
+      results =
+          pool.submit(
+                  () ->
+                      files.parallelStream()
+                          .map(file -> verifySegment(file, spongeHash))
+                          .toArray(SegmentResult[]::new))
+              .join();
+    } catch (RuntimeException e) {
+      throw new SpongeException("An error has occurred when verifying the log: ", e);
+    }
+
+    long entries = 0;
+    long[] head = new long[Constants.OUTPUT_LENGTH_LONGS];
+    for (final SegmentResult result : results) {
+      if (result.firstSequence != entries || !Arrays.equals(result.startDigest, head)) {
+        return new LogVerification(
+            entries, head, result.file + " does not continue the segment before it.");
+      }
+      entries = result.scan.nextSequence();
+      head = result.scan.head();
+      if (!result.scan.intact()) {
+        return new LogVerification(
+            entries,
+            head,
+            result.file + ": the entry " + entries + " does not match its chained digest.");
+      }
+    }
+    return new LogVerification(entries, head, null);
+  }
+
+  private static SegmentResult verifySegment(
+      final Path file, final SpongeHashKeccak1600Output256Impl spongeHash) {
+    try (LogSegment segment = LogSegment.open(file, false)) {
+      return new SegmentResult(
+          file.getFileName().toString(),
+          segment.firstSequence(),
+          segment.startDigest(),
+          segment.scan(spongeHash.newHasher()));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * @return the segment files of a log, in order.
+   */
+  static List<Path> segmentFiles(final Path directory) throws IOException {
+    try (Stream<Path> files = Files.list(directory)) {
+      return files
+          .filter(file -> file.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+          .sorted()
+          .toList();
+    }
+  }
+
+  static long segmentNumber(final Path file) {
+    final String name = file.getFileName().toString();
+    return Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+  }
+
+  private record SegmentResult(
+      String file, long firstSequence, long[] startDigest, LogSegment.Scan scan) {}
+}
@@ -0,0 +1,239 @@
+package io.github.destroyerofcode.log;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.github.destroyerofcode.exception.SpongeException;
+import io.github.destroyerofcode.keccak1600output256.PermutationImpl;
+import io.github.destroyerofcode.keccak1600output256.SpongeHashKeccak1600Output256Impl;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ChainedLogTest {
+
+  private static final int SEGMENT_SIZE = 4096;
+
+  @TempDir Path directory;
+
+  private SpongeHashKeccak1600Output256Impl spongeHash;
+
+  @BeforeEach
+  void setUp() {
+    spongeHash = new SpongeHashKeccak1600Output256Impl(new PermutationImpl());
+  }
+
+  private static byte[] payload(final int thread, final int i) {
+    return ("thread " + thread + " entry " + i).getBytes(StandardCharsets.UTF_8);
+  }
+
+  private LogEntry appendConcurrently(final ChainedLog log, final int threads, final int perThread)
+      throws Exception {
+    final ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      final List<CompletableFuture<LogEntry>> appends = new ArrayList<>();
+      for (int t = 0; t < threads; t++) {
+        final int thread = t;
+        appends.add(
+            CompletableFuture.supplyAsync(
+                () -> {
+                  LogEntry entry = null;
+                  for (int i = 0; i < perThread; i++) {
+                    entry = log.append(payload(thread, i));
+                  }
+                  return entry;
+                },
+                executor));
+      }
+      for (final CompletableFuture<LogEntry> append : appends) {
+        append.get();
+      }
+      return log.head();
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  @DisplayName("Concurrent appends should get distinct sequences and verify across segments")
+  void testConcurrentAppendsVerify() throws Exception {
+    // given
+    final LogEntry head;
+    final BitSet sequences = new BitSet();
+    try (ChainedLog log = ChainedLog.open(directory, spongeHash, SEGMENT_SIZE, 64)) {
+      head = appendConcurrently(log, 8, 50);
+      for (int i = 0; i < 20; i++) {
+        sequences.set((int) log.append(payload(99, i)).sequence());
+      }
+    }
+
+    // when
+    final LogVerification verification = LogVerifier.verify(directory, spongeHash);
+    final LogEntry reopened;
+    final LogEntry next;
+    try (ChainedLog log = ChainedLog.open(directory, spongeHash, SEGMENT_SIZE, 64)) {
+      reopened = log.head();
+      next = log.append(new byte[0]);
+    }
+
+    // then
+    assertAll(
+        () -> assertEquals(399, head.sequence()),
+        () -> assertEquals(20, sequences.cardinality()),
+        () -> assertEquals(400, sequences.nextSetBit(0)),
+        () -> assertTrue(verification.intact(), verification.problem()),
+        () -> assertEquals(420, verification.entries()),
+        () -> assertArrayEquals(reopened.digest(), verification.head()),
+        () -> assertEquals(420, next.sequence()),
+        () -> assertTrue(LogVerifier.segmentFiles(directory).size() > 3));
+  }
+
+  @Test
+  @DisplayName("A changed entry or a missing segment should be detected")
+  void testTamperingIsDetected() throws Exception {
+    // given
+    try (ChainedLog log = ChainedLog.open(directory, spongeHash, SEGMENT_SIZE, 64)) {
+      appendConcurrently(log, 4, 50);
+    }
+    final List<Path> segments = LogVerifier.segmentFiles(directory);
+    final Path second = segments.get(1);
+    final long firstOfSecond;
+    try (LogSegment segment = LogSegment.open(second, false)) {
+      firstOfSecond = segment.firstSequence();
+    }
+
+    // when
+    try (FileChannel channel = FileChannel.open(second, StandardOpenOption.WRITE)) {
+      // the first payload byte of the first entry
+      channel.write(ByteBuffer.wrap(new byte[] {'X'}), LogSegment.HEADER_BYTES + 12);
+    }
+    final LogVerification changed = LogVerifier.verify(directory, spongeHash);
+    Files.delete(second);
+    final LogVerification missing = LogVerifier.verify(directory, spongeHash);
+
+    // then
+    assertAll(
+        () -> assertFalse(changed.intact()),
+        () -> assertEquals(firstOfSecond, changed.entries()),
+        () -> assertFalse(missing.intact()),
+        () -> assertEquals(firstOfSecond, missing.entries()));
+  }
+
+  @Test
+  @DisplayName("Reopening should drop a torn entry at the end of the last segment")
+  void testTornTailIsTruncated() throws IOException {
+    // given
+    final LogEntry second;
+    try (ChainedLog log = ChainedLog.open(directory, spongeHash, SEGMENT_SIZE, 64)) {
+      log.append(payload(0, 0));
+      second = log.append(payload(0, 1));
+      log.append(payload(0, 2));
+    }
+    final Path last = LogVerifier.segmentFiles(directory).get(0);
+    try (FileChannel channel =
+        FileChannel.open(last, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      // zero the digest of the last entry, as if its page never reached the disk
+      final ByteBuffer end = ByteBuffer.allocate(Long.BYTES);
+      channel.read(end, 8);
+      channel.write(ByteBuffer.allocate(32), end.flip().getLong() - 32);
+    }
+
+    // when
+    final LogEntry head;
+    final LogEntry appended;
+    try (ChainedLog log = ChainedLog.open(directory, spongeHash, SEGMENT_SIZE, 64)) {
+      head = log.head();
+      appended = log.append(payload(0, 3));
+    }
+
+    // then
+    assertAll(
+        () -> assertEquals(1, head.sequence()),
+        () -> assertArrayEquals(second.digest(), head.digest()),
+        () -> assertEquals(2, appended.sequence()),
+        () -> assertTrue(LogVerifier.verify(directory, spongeHash).intact()));
+  }
+
+  @Test
+  @DisplayName("Reopening should fail, not truncate, on a changed entry before the last batch")
+  void testChangeBeforeLastBatchIsNotTruncated() throws IOException {
+    // given
+    try (ChainedLog log = ChainedLog.open(directory, spongeHash, SEGMENT_SIZE, 64)) {
+      log.append(payload(0, 0));
+      log.append(payload(0, 1));
+      log.append(payload(0, 2));
+    }
+    final Path last = LogVerifier.segmentFiles(directory).get(0);
+    final int committedEnd;
+    try (LogSegment segment = LogSegment.open(last, false)) {
+      committedEnd = segment.committedEnd();
+    }
+    try (FileChannel channel = FileChannel.open(last, StandardOpenOption.WRITE)) {
+      // the first payload byte of the first entry
+      channel.write(ByteBuffer.wrap(new byte[] {'X'}), LogSegment.HEADER_BYTES + 12);
+    }
+
+    // when
+    final SpongeException exception =
+        assertThrows(
+            SpongeException.class,
+            () -> ChainedLog.open(directory, spongeHash, SEGMENT_SIZE, 64).close());
+
+    // then
+    final int reopenedEnd;
+    try (LogSegment segment = LogSegment.open(last, false)) {
+      reopenedEnd = segment.committedEnd();
+    }
+    assertAll(
+        () -> assertTrue(exception.getMessage().contains("entry 0"), exception.getMessage()),
+        () -> assertEquals(committedEnd, reopenedEnd),
+        () -> assertEquals(0, LogVerifier.verify(directory, spongeHash).entries()));
+  }
+
+  @Test
+  @DisplayName("A segment left without a header by a crash during its creation should be replaced")
+  void testTemporarySegmentIsReplaced() throws Exception {
+    // given
+    try (ChainedLog log = ChainedLog.open(directory, spongeHash, SEGMENT_SIZE, 64)) {
+      log.append(payload(0, 0));
+    }
+    // as if the log crashed after creating the next segment and before writing its header
+    final Path temporary =
+        directory.resolve(
+            "0000000000000001" + LogVerifier.SEGMENT_SUFFIX + LogSegment.TEMPORARY_SUFFIX);
+    Files.write(temporary, new byte[SEGMENT_SIZE]);
+
+    // when
+    final LogEntry head;
+    try (ChainedLog log = ChainedLog.open(directory, spongeHash, SEGMENT_SIZE, 64)) {
+      head = appendConcurrently(log, 4, 25);
+    }
+
+    // then
+    final LogVerification verification = LogVerifier.verify(directory, spongeHash);
+    assertAll(
+        () -> assertEquals(100, head.sequence()),
+        () -> assertTrue(verification.intact(), verification.problem()),
+        () -> assertEquals(101, verification.entries()),
+        () -> assertTrue(LogVerifier.segmentFiles(directory).size() > 1),
+        () -> assertFalse(Files.exists(temporary)));
+  }
+}
@@ -0,0 +1,24 @@
+plugins {
+    id("java")
+}
+
+group = "io.github.destroyerofcode"
+version = "1.0"
+
+repositories {
+    mavenCentral()
+}
+
+dependencies {
+    implementation(project(":sponge-api"))
+    implementation(project(":keccak-1600-256"))
+
+    // tests
+    testImplementation(project(path = ":sponge-api", configuration = "testArtifacts"))
+    testImplementation(platform(libs.junit.bom))
+    testImplementation(libs.bundles.web.test)
+}
+
+tasks.test {
+    useJUnitPlatform()
+}
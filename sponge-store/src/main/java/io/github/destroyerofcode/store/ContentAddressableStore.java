@@ -0,0 +1,243 @@
+package io.github.destroyerofcode.store;
+
+import static io.github.destroyerofcode.keccak1600output256.Constants.OUTPUT_LENGTH_LONGS;
+
+import io.github.destroyerofcode.api.SpongeHash;
+import io.github.destroyerofcode.exception.SpongeException;
+import io.github.destroyerofcode.keccak1600output256.SpongeHasherKeccak1600Output256Impl;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Content-addressable blob store keyed by Keccak-1600 digests. Blobs are appended to memory-mapped
+ * segment files and located through a {@link MappedIndex} stored next to them, so neither the blobs
+ * nor the index live on the Java heap and reopening a store only maps its files.
+ *
+ * <p>A blob is keyed by the digest of its length as an int followed by its bytes. The sponge pads
+ * the last block with 0s, so without the length a blob and the same blob followed by zero bytes
+ * would share a key. A blob is stored at most once: {@link #put(ByteBuffer)} skips the write when
+ * its digest is already in the index. {@link #get(long[])} returns a read-only view of the mapped segment,
+ * without copying the blob. Views stay readable after the store is closed, but must not be used
+ * once the store directory is deleted.
+ *
+ * <p>Digests are computed outside of any lock. Lookups share a read lock, writes are serialized.
+ */
+public class ContentAddressableStore implements Closeable {
+
+  public static final int DEFAULT_SEGMENT_SIZE = 1 << 30; // 1 GiB
+  private static final String INDEX_FILE = "index.dat";
+  private static final String SEGMENT_FILE = "segment-%05d.dat";
+
+  private final Path directory;
+  private final SpongeHash<long[]> spongeHash;
+  private final int segmentSize;
+  private final List<SegmentFile> segments;
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private MappedIndex index;
+
+  private ContentAddressableStore(
+      final Path directory,
+      final SpongeHash<long[]> spongeHash,
+      final int segmentSize,
+      final List<SegmentFile> segments,
+      final MappedIndex index) {
+    this.directory = directory;
+    this.spongeHash = spongeHash;
+    this.segmentSize = segmentSize;
+    this.segments = segments;
+    this.index = index;
+  }
+
+  /**
+   * Opens the store in a directory with 1 GiB segments, creating it if needed.
+   *
+   * @see #open(Path, SpongeHash, int, long)
+   */
+  public static ContentAddressableStore open(
+      final Path directory, final SpongeHash<long[]> spongeHash) {
+    return open(directory, spongeHash, DEFAULT_SEGMENT_SIZE, 0);
+  }
+
+  /**
+   * Opens the store in a directory, creating the directory, the index and the first segment if
+   * they do not exist.
+   *
+   * @param directory The directory holding the index and the segment files.
+   * @param spongeHash The Keccak-1600 hash the blobs are keyed by.
+   * @param segmentSize The size of newly created segments in bytes, which bounds the blob size.
+   * @param expectedEntries Sizes a new index so it does not have to grow before this many blobs.
+   * @return the opened store.
+   * @throws SpongeException If the store files cannot be created or mapped.
+   */
+  public static ContentAddressableStore open(
+      final Path directory,
+      final SpongeHash<long[]> spongeHash,
+      final int segmentSize,
+      final long expectedEntries) {
+    if (segmentSize <= SegmentFile.HEADER_BYTES) {
+      throw new IllegalArgumentException("Segment size must be larger than its header.");
+    }
+    final List<SegmentFile> segments = new ArrayList<>();
+    try {
+      Files.createDirectories(directory);
+      for (int id = 0; id == 0 || Files.exists(segmentFile(directory, id)); id++) {
+        segments.add(SegmentFile.open(segmentFile(directory, id), id, segmentSize));
+      }
+      final MappedIndex index = MappedIndex.open(directory.resolve(INDEX_FILE), expectedEntries);
+      return new ContentAddressableStore(directory, spongeHash, segmentSize, segments, index);
+    } catch (IOException e) {
+      closeAll(segments);
+      throw new SpongeException("An error has occurred when opening the store: ", e);
+    }
+  }
+
+  /**
+   * Stores a blob unless a blob with the same digest is already stored.
+   *
+   * @param blob The blob to store.
+   * @return the digest the blob can be retrieved with.
+   * @see #put(ByteBuffer)
+   */
+  public long[] put(final byte[] blob) {
+    return put(ByteBuffer.wrap(blob));
+  }
+
+  /**
+   * Stores a blob unless a blob with the same digest is already stored.
+   *
+   * @param blob The blob to store, from position to limit. The buffer position is not moved.
+   * @return the digest the blob can be retrieved with.
+   * @throws IllegalArgumentException If the blob does not fit into a segment.
+   * @throws SpongeException If a new segment or a grown index cannot be created.
+   */
+  public long[] put(final ByteBuffer blob) {
+    if (blob.remaining() > segmentSize - SegmentFile.HEADER_BYTES) {
+      throw new IllegalArgumentException(
+          "Blob of " + blob.remaining() + " bytes does not fit into a segment of " + segmentSize);
+    }
+    final long[] digest =
+        new SpongeHasherKeccak1600Output256Impl(spongeHash)
+            .putInt(blob.remaining())
+            .putBytes(blob)
+            .digest();
+
+    lock.writeLock().lock();
+    try {
+      if (index.find(digest) >= 0) {
+        return digest;
+      }
+      SegmentFile segment = segments.get(segments.size() - 1);
+      if (segment.remaining() < blob.remaining()) {
+        final int id = segments.size();
+        segment = SegmentFile.open(segmentFile(directory, id), id, segmentSize);
+        segments.add(segment);
+      }
+      if (index.isFull()) {
+        index = index.grow();
+      }
+      final int offset = segment.append(blob);
+      index.insert(digest, segment.id(), offset, blob.remaining());
+      return digest;
+    } catch (IOException e) {
+      throw new SpongeException("An error has occurred when storing a blob: ", e);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Looks up a blob by its digest.
+   *
+   * @param digest The digest returned by {@link #put(ByteBuffer)}.
+   * @return a read-only view of the blob in its segment, or null if no such blob is stored.
+   */
+  public ByteBuffer get(final long[] digest) {
+    checkDigest(digest);
+    lock.readLock().lock();
+    try {
+      final long slot = index.find(digest);
+      if (slot < 0) {
+        return null;
+      }
+      return segments.get(index.segment(slot)).slice(index.offset(slot), index.length(slot));
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  public boolean contains(final long[] digest) {
+    checkDigest(digest);
+    lock.readLock().lock();
+    try {
+      return index.find(digest) >= 0;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * @return the number of distinct blobs in the store.
+   */
+  public long size() {
+    lock.readLock().lock();
+    try {
+      return index.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /** Writes the mapped segments and the index through to the storage device. */
+  public void flush() {
+    lock.writeLock().lock();
+    try {
+      for (final SegmentFile segment : segments) {
+        segment.force();
+      }
+      index.force();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @Override
+  public void close() {
+    lock.writeLock().lock();
+    try {
+      flush();
+      closeAll(segments);
+      index.close();
+    } catch (IOException e) {
+      throw new SpongeException("An error has occurred when closing the store: ", e);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private static void checkDigest(final long[] digest) {
+    if (digest.length != OUTPUT_LENGTH_LONGS) {
+      throw new IllegalArgumentException("Digest must be " + OUTPUT_LENGTH_LONGS + " longs.");
+    }
+  }
+
+  private static Path segmentFile(final Path directory, final int id) {
+    return directory.resolve(String.format(SEGMENT_FILE, id));
+  }
+
+  private static void closeAll(final List<SegmentFile> segments) {
+    for (final SegmentFile segment : segments) {
+      try {
+        segment.close();
+      } catch (IOException ignored) {
+        // the mapping stays valid, nothing else to release
+      }
+    }
+  }
+}
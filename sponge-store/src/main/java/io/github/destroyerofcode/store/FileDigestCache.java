@@ -0,0 +1,294 @@
+package io.github.destroyerofcode.store;
+
+import static io.github.destroyerofcode.common.Utils.bytesToLongs;
+
+import io.github.destroyerofcode.api.SpongeHash;
+import io.github.destroyerofcode.exception.SpongeException;
+import io.github.destroyerofcode.jfr.HashEvent;
+import io.github.destroyerofcode.keccak1600output256.Constants;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Persistent cache of Keccak-1600 file digests, so unchanged files are not hashed again. An entry
+ * is keyed by the absolute path and is valid while the size, the modification time and the {@link
+ * BasicFileAttributes#fileKey() file key} of the file are unchanged. A file that changed is hashed
+ * again and its entry replaced.
+ *
+ * <p>Entries are stored in a {@link FileDigestTable} mapped from a file of fixed capacity, which
+ * evicts the least recently used entries. Lookups never lock. New digests are kept in memory and
+ * written behind in batches by a daemon thread, every flush interval or once a batch is pending,
+ * and on {@link #flush()} and {@link #close()}.
+ *
+ * <p>Every call records a {@link HashEvent}, with no blocks absorbed for a cached digest.
+ *
+ * <p>The cache trusts the file attributes: a file rewritten with the same size within the
+ * resolution of the modification time keeps its cached digest.
+ */
+public class FileDigestCache implements Closeable {
+
+  public static final int DEFAULT_MAX_ENTRIES = 1 << 20;
+  public static final Duration DEFAULT_FLUSH_INTERVAL = Duration.ofSeconds(1);
+  static final int BATCH_SIZE = 1024;
+
+  private final SpongeHash<long[]> spongeHash;
+  private final FileDigestTable table;
+  private final Map<PathKey, Entry> pending = new ConcurrentHashMap<>();
+  private final AtomicBoolean batchScheduled = new AtomicBoolean();
+  private final ScheduledExecutorService writer;
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final AtomicBoolean closed = new AtomicBoolean();
+
+  private FileDigestCache(
+      final SpongeHash<long[]> spongeHash,
+      final FileDigestTable table,
+      final Duration flushInterval) {
+    this.spongeHash = spongeHash;
+    this.table = table;
+    this.writer =
+        Executors.newSingleThreadScheduledExecutor(
+            task -> {
+              final Thread thread = new Thread(task, "file-digest-cache-writer");
+              thread.setDaemon(true);
+              return thread;
+            });
+    final long intervalNanos = flushInterval.toNanos();
+    writer.scheduleWithFixedDelay(
+        this::writePending, intervalNanos, intervalNanos, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Opens the cache stored in a file with room for {@link #DEFAULT_MAX_ENTRIES} files.
+   *
+   * @see #open(Path, SpongeHash, int, Duration)
+   */
+  public static FileDigestCache open(final Path cacheFile, final SpongeHash<long[]> spongeHash) {
+    return open(cacheFile, spongeHash, DEFAULT_MAX_ENTRIES, DEFAULT_FLUSH_INTERVAL);
+  }
+
+  /**
+   * Opens the cache stored in a file, creating the file if it does not exist.
+   *
+   * @param cacheFile The file holding the cache.
+   * @param spongeHash The Keccak-1600 hash the files are hashed with.
+   * @param maxEntries The number of files a new cache holds at most, rounded up to a power of 2.
+   *     An existing cache keeps its size.
+   * @param flushInterval The longest time a new digest waits before being written to the file.
+   * @return the opened cache.
+   * @throws SpongeException If the cache file cannot be created or mapped.
+   */
+  public static FileDigestCache open(
+      final Path cacheFile,
+      final SpongeHash<long[]> spongeHash,
+      final int maxEntries,
+      final Duration flushInterval) {
+    if (maxEntries < 1 || maxEntries > FileDigestTable.MAX_CAPACITY) {
+      throw new IllegalArgumentException(
+          "Max entries must be between 1 and " + FileDigestTable.MAX_CAPACITY + ".");
+    }
+    try {
+      return new FileDigestCache(
+          spongeHash, FileDigestTable.open(cacheFile, maxEntries), flushInterval);
+    } catch (IOException e) {
+      throw new SpongeException("An error has occurred when opening the digest cache: ", e);
+    }
+  }
+
+  /**
+   * Returns the digest of a file, hashing it only if it is not cached or has changed since.
+   *
+   * @param file The file.
+   * @return the digest of the content of the file, the same as the stream hash of its bytes.
+   * @throws SpongeException If the file cannot be read.
+   * @throws IllegalStateException If the cache is closed.
+   */
+  public long[] digest(final Path file) {
+    if (closed.get()) {
+      throw new IllegalStateException("The digest cache is closed.");
+    }
+    final HashEvent event = new HashEvent();
+    event.begin();
+    long size = 0;
+    long blocks = 0;
+
+    try {
+      final Path absolute = file.toAbsolutePath().normalize();
+      final PathKey key = pathKey(absolute);
+      final BasicFileAttributes before =
+          Files.readAttributes(absolute, BasicFileAttributes.class);
+      size = before.size();
+      final long[] cached = cached(key, before);
+      if (cached != null) {
+        hits.increment();
+        return cached;
+      }
+
+      misses.increment();
+      final long[] digest;
+      try (final InputStream in = Files.newInputStream(absolute)) {
+        digest = spongeHash.hash(in).digest();
+      }
+      blocks = (size + Constants.BYTES_IN_r - 1) / Constants.BYTES_IN_r;
+      final BasicFileAttributes after = Files.readAttributes(absolute, BasicFileAttributes.class);
+      // a file modified while it was hashed is not cached, nor a digest once the cache is closing
+      if (sameVersion(before, after) && !closed.get()) {
+        pending.put(key, new Entry(key, after, digest));
+        if (pending.size() >= BATCH_SIZE && batchScheduled.compareAndSet(false, true)) {
+          try {
+            writer.execute(this::writePending);
+          } catch (RejectedExecutionException e) {
+            // closed in between, the digest is returned without being cached
+          }
+        }
+      }
+      return digest.clone();
+    } catch (IOException e) {
+      throw new SpongeException("An error has occurred when hashing " + file + ": ", e);
+    } finally {
+      event.end(spongeHash.getClass(), "digestFile", size, blocks);
+    }
+  }
+
+  public long hits() {
+    return hits.sum();
+  }
+
+  public long misses() {
+    return misses.sum();
+  }
+
+  /**
+   * Writes the pending digests to the cache file and through to the storage device.
+   *
+   * @throws IllegalStateException If the cache is closed.
+   */
+  public void flush() {
+    if (closed.get()) {
+      throw new IllegalStateException("The digest cache is closed.");
+    }
+    writePending();
+    table.force();
+  }
+
+  /** Writes the pending digests, then closes the cache file. Closing again has no effect. */
+  @Override
+  public void close() {
+    if (!closed.compareAndSet(false, true)) {
+      return;
+    }
+    writer.shutdown();
+    try {
+      writer.awaitTermination(1, TimeUnit.MINUTES);
+      writePending();
+      table.force();
+      table.close();
+    } catch (IOException e) {
+      throw new SpongeException("An error has occurred when closing the digest cache: ", e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new SpongeException("Interrupted when closing the digest cache: ", e);
+    }
+  }
+
+  private long[] cached(final PathKey key, final BasicFileAttributes attributes) {
+    final Entry entry = pending.get(key);
+    if (entry != null) {
+      return entry.matches(attributes) ? entry.digest.clone() : null;
+    }
+    return table.find(
+        key.lanes,
+        attributes.size(),
+        modified(attributes),
+        fileKey(attributes),
+        System.currentTimeMillis());
+  }
+
+  /** Writes the pending digests into the table, in one batch. */
+  private synchronized void writePending() {
+    batchScheduled.set(false);
+    final long now = System.currentTimeMillis();
+    for (final Entry entry : pending.values()) {
+      table.put(entry.key.lanes, entry.size, entry.modified, entry.fileKey, entry.digest, now);
+      // a newer digest of the same file stays pending
+      pending.remove(entry.key, entry);
+    }
+  }
+
+  /**
+   * @return the first 2 lanes of the digest of the UTF-8 path.
+   */
+  private PathKey pathKey(final Path absolute) {
+    final byte[] path = absolute.toString().getBytes(StandardCharsets.UTF_8);
+    final long[] digest = spongeHash.hash(bytesToLongs(path, 0, path.length));
+    return new PathKey(new long[] {digest[0], digest[1]});
+  }
+
+  private static boolean sameVersion(
+      final BasicFileAttributes before, final BasicFileAttributes after) {
+    return before.size() == after.size()
+        && modified(before) == modified(after)
+        && fileKey(before) == fileKey(after);
+  }
+
+  private static long modified(final BasicFileAttributes attributes) {
+    return attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS);
+  }
+
+  private static long fileKey(final BasicFileAttributes attributes) {
+    return Objects.hashCode(attributes.fileKey());
+  }
+
+  /** The path identity, compared by its lanes so it can key the pending map. */
+  private record PathKey(long[] lanes) {
+
+    @Override
+    public boolean equals(final Object other) {
+      return other instanceof PathKey pathKey
+          && lanes[0] == pathKey.lanes[0]
+          && lanes[1] == pathKey.lanes[1];
+    }
+
+    @Override
+    public int hashCode() {
+      return Long.hashCode(lanes[0]);
+    }
+  }
+
+  private static final class Entry {
+    private final PathKey key;
+    private final long size;
+    private final long modified;
+    private final long fileKey;
+    private final long[] digest;
+
+    Entry(final PathKey key, final BasicFileAttributes attributes, final long[] digest) {
+      this.key = key;
+      this.size = attributes.size();
+      this.modified = modified(attributes);
+      this.fileKey = fileKey(attributes);
+      this.digest = digest;
+    }
+
+    boolean matches(final BasicFileAttributes attributes) {
+      return size == attributes.size()
+          && modified == modified(attributes)
+          && fileKey == fileKey(attributes);
+    }
+  }
+}
@@ -0,0 +1,207 @@
+package io.github.destroyerofcode.store;
+
+import static io.github.destroyerofcode.common.Constants.BYTES_IN_LONG;
+import static io.github.destroyerofcode.keccak1600output256.Constants.OUTPUT_LENGTH_LONGS;
+
+import io.github.destroyerofcode.exception.SpongeException;
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Set-associative table of file digests stored in a memory-mapped file. The first lane of the path
+ * key selects a bucket of {@link #WAYS} slots, and a full bucket evicts its least recently used
+ * slot, so the table never holds more entries than its fixed capacity.
+ *
+ * <p>Every slot is 88 bytes: a sequence number, the 2 lanes of the path key, the size, the
+ * modification time and the file key hash of the file, its 4 digest lanes and the time of the last
+ * hit. The single writer makes the sequence number odd while it rewrites a slot, so readers never
+ * lock: a read that saw an odd or changed sequence number is a miss.
+ */
+final class FileDigestTable implements Closeable {
+
+  static final int WAYS = 8;
+  static final int MAX_CAPACITY = 1 << 24;
+
+  private static final long MAGIC = 0x4B46494C45444731L; // KFILEDG1
+  private static final int VERSION = 1;
+  private static final int CAPACITY_OFFSET = 16;
+  private static final int HEADER_BYTES = 64;
+
+  private static final int SEQUENCE_OFFSET = 0;
+  private static final int KEY_OFFSET = 8;
+  private static final int SIZE_OFFSET = 24;
+  private static final int MODIFIED_OFFSET = 32;
+  private static final int FILE_KEY_OFFSET = 40;
+  private static final int DIGEST_OFFSET = 48;
+  private static final int ACCESS_OFFSET = DIGEST_OFFSET + OUTPUT_LENGTH_LONGS * BYTES_IN_LONG;
+  private static final int SLOT_BYTES = ACCESS_OFFSET + BYTES_IN_LONG; // 88
+
+  private static final VarHandle LONGS =
+      MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+
+  private final FileChannel channel;
+  private final MappedByteBuffer slots;
+  private final int bucketMask;
+
+  private FileDigestTable(
+      final FileChannel channel, final MappedByteBuffer slots, final int capacity) {
+    this.channel = channel;
+    this.slots = slots;
+    this.bucketMask = capacity / WAYS - 1;
+  }
+
+  /**
+   * Opens a table file, creating it if it does not exist. An existing table keeps its capacity.
+   *
+   * @param file The table file.
+   * @param maxEntries The capacity of a new table, rounded up to a power of 2.
+   * @return the mapped table.
+   * @throws IOException If the file cannot be created or mapped.
+   * @throws SpongeException If the file is not a table, or its capacity does not match its size.
+   */
+  static FileDigestTable open(final Path file, final int maxEntries) throws IOException {
+    final boolean created = !Files.exists(file);
+    final FileChannel channel =
+        FileChannel.open(
+            file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    try {
+      final int capacity;
+      if (created) {
+        capacity = Math.max(WAYS, Integer.highestOneBit(Math.max(1, maxEntries - 1)) << 1);
+        channel.write(ByteBuffer.allocate(1), HEADER_BYTES + (long) capacity * SLOT_BYTES - 1);
+      } else {
+        final ByteBuffer existing = ByteBuffer.allocate(HEADER_BYTES);
+        channel.read(existing, 0);
+        if (existing.getLong(0) != MAGIC || existing.getInt(8) != VERSION) {
+          throw new SpongeException("Not a file digest cache: " + file);
+        }
+        capacity = existing.getInt(CAPACITY_OFFSET);
+        if (capacity < WAYS
+            || capacity > MAX_CAPACITY
+            || Integer.bitCount(capacity) != 1
+            || channel.size() != HEADER_BYTES + (long) capacity * SLOT_BYTES) {
+          throw new SpongeException("Corrupt file digest cache: " + file);
+        }
+      }
+
+      final MappedByteBuffer mapped =
+          channel.map(
+              FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + (long) capacity * SLOT_BYTES);
+      if (created) {
+        mapped.putLong(0, MAGIC).putInt(8, VERSION).putInt(CAPACITY_OFFSET, capacity);
+      }
+      return new FileDigestTable(channel, mapped, capacity);
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Looks up the digest of a file, without locking.
+   *
+   * @param key The 2 lanes identifying the path.
+   * @param size The current size of the file.
+   * @param modified The current modification time of the file.
+   * @param fileKey The hash of the current file key.
+   * @param now The time stamped on the slot on a hit.
+   * @return the digest, or null if the file is not in the table, has changed, or its slot is being
+   *     rewritten.
+   */
+  long[] find(
+      final long[] key, final long size, final long modified, final long fileKey, final long now) {
+    final int bucket = bucket(key);
+    for (int way = 0; way < WAYS; way++) {
+      final int position = bucket + way * SLOT_BYTES;
+      final long sequence = (long) LONGS.getAcquire(slots, position + SEQUENCE_OFFSET);
+      if (sequence == 0
+          || (sequence & 1) != 0
+          || slots.getLong(position + KEY_OFFSET) != key[0]
+          || slots.getLong(position + KEY_OFFSET + BYTES_IN_LONG) != key[1]) {
+        continue;
+      }
+      final boolean unchanged =
+          slots.getLong(position + SIZE_OFFSET) == size
+              && slots.getLong(position + MODIFIED_OFFSET) == modified
+              && slots.getLong(position + FILE_KEY_OFFSET) == fileKey;
+      final long[] digest = new long[OUTPUT_LENGTH_LONGS];
+      for (int i = 0; i < OUTPUT_LENGTH_LONGS; i++) {
+        digest[i] = slots.getLong(position + DIGEST_OFFSET + i * BYTES_IN_LONG);
+      }
+      VarHandle.loadLoadFence();
+      if (!unchanged || (long) LONGS.getVolatile(slots, position + SEQUENCE_OFFSET) != sequence) {
+        return null;
+      }
+      // a racing eviction can only misplace this stamp, which ages the new entry early
+      slots.putLong(position + ACCESS_OFFSET, now);
+      return digest;
+    }
+    return null;
+  }
+
+  /**
+   * Writes the digest of a file into the slot of its path, an empty slot or the least recently
+   * used slot of its bucket. Only one thread may write at a time.
+   */
+  void put(
+      final long[] key,
+      final long size,
+      final long modified,
+      final long fileKey,
+      final long[] digest,
+      final long now) {
+    final int bucket = bucket(key);
+    int target = bucket;
+    long oldest = Long.MAX_VALUE;
+    for (int way = 0; way < WAYS; way++) {
+      final int position = bucket + way * SLOT_BYTES;
+      if (slots.getLong(position + SEQUENCE_OFFSET) == 0
+          || slots.getLong(position + KEY_OFFSET) == key[0]
+              && slots.getLong(position + KEY_OFFSET + BYTES_IN_LONG) == key[1]) {
+        target = position;
+        break;
+      }
+      final long access = slots.getLong(position + ACCESS_OFFSET);
+      if (access < oldest) {
+        oldest = access;
+        target = position;
+      }
+    }
+
+    final long sequence = slots.getLong(target + SEQUENCE_OFFSET);
+    LONGS.setVolatile(slots, target + SEQUENCE_OFFSET, sequence + 1);
+    slots
+        .putLong(target + KEY_OFFSET, key[0])
+        .putLong(target + KEY_OFFSET + BYTES_IN_LONG, key[1])
+        .putLong(target + SIZE_OFFSET, size)
+        .putLong(target + MODIFIED_OFFSET, modified)
+        .putLong(target + FILE_KEY_OFFSET, fileKey)
+        .putLong(target + ACCESS_OFFSET, now);
+    for (int i = 0; i < OUTPUT_LENGTH_LONGS; i++) {
+      slots.putLong(target + DIGEST_OFFSET + i * BYTES_IN_LONG, digest[i]);
+    }
+    LONGS.setRelease(slots, target + SEQUENCE_OFFSET, sequence + 2);
+  }
+
+  void force() {
+    slots.force();
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+
+  private int bucket(final long[] key) {
+    return HEADER_BYTES + (int) (key[0] & bucketMask) * WAYS * SLOT_BYTES;
+  }
+}
@@ -0,0 +1,241 @@
+package io.github.destroyerofcode.store;
+
+import static io.github.destroyerofcode.common.Constants.BYTES_IN_LONG;
+import static io.github.destroyerofcode.keccak1600output256.Constants.OUTPUT_LENGTH_LONGS;
+
+import io.github.destroyerofcode.exception.SpongeException;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Open-addressing hash table from digests to blob locations, stored in a memory-mapped file. Keys
+ * are the 4 digest lanes themselves, which are already uniformly distributed, so the first lane
+ * selects the home slot and collisions are resolved by linear probing.
+ *
+ * <p>Every slot is 48 bytes: the 32-byte key, the segment number, the offset and the length of the
+ * blob, and an occupied marker written last. Since a single mapping is limited to 2 GiB, the slots
+ * are mapped in regions of 2^24 slots.
+ */
+final class MappedIndex implements Closeable {
+
+  private static final long MAGIC = 0x4B43415349445831L; // KCASIDX1
+  private static final int VERSION = 2; // keys include the blob length since version 2
+  private static final int CAPACITY_OFFSET = 16;
+  private static final int COUNT_OFFSET = 24;
+  private static final int HEADER_BYTES = 64;
+
+  private static final int KEY_BYTES = OUTPUT_LENGTH_LONGS * BYTES_IN_LONG; // 32
+  private static final int SEGMENT_OFFSET = KEY_BYTES;
+  private static final int BLOB_OFFSET_OFFSET = KEY_BYTES + 4;
+  private static final int LENGTH_OFFSET = KEY_BYTES + 8;
+  private static final int OCCUPIED_OFFSET = KEY_BYTES + 12;
+  private static final int SLOT_BYTES = KEY_BYTES + 16; // 48
+
+  private static final int REGION_BITS = 24;
+  private static final long MIN_CAPACITY = 1024;
+
+  private final Path file;
+  private final FileChannel channel;
+  private final MappedByteBuffer header;
+  private final MappedByteBuffer[] regions;
+  private final long capacity;
+  private final long mask;
+  private long count;
+
+  private MappedIndex(
+      final Path file,
+      final FileChannel channel,
+      final MappedByteBuffer header,
+      final MappedByteBuffer[] regions,
+      final long capacity) {
+    this.file = file;
+    this.channel = channel;
+    this.header = header;
+    this.regions = regions;
+    this.capacity = capacity;
+    this.mask = capacity - 1;
+    this.count = header.getLong(COUNT_OFFSET);
+  }
+
+  /**
+   * Opens an index file, creating it if it does not exist.
+   *
+   * @param file The index file.
+   * @param expectedEntries Sizes a new index so it does not grow before this many entries.
+   * @return the mapped index.
+   * @throws IOException If the file cannot be created or mapped.
+   */
+  static MappedIndex open(final Path file, final long expectedEntries) throws IOException {
+    final boolean created = !Files.exists(file);
+    final FileChannel channel =
+        FileChannel.open(
+            file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    try {
+      final long capacity;
+      if (created) {
+        capacity = Math.max(MIN_CAPACITY, Long.highestOneBit(expectedEntries * 4 / 3) << 1);
+        channel.write(ByteBuffer.allocate(1), HEADER_BYTES + capacity * SLOT_BYTES - 1);
+      } else {
+        final ByteBuffer existing = ByteBuffer.allocate(HEADER_BYTES);
+        channel.read(existing, 0);
+        if (existing.getLong(0) != MAGIC || existing.getInt(8) != VERSION) {
+          throw new SpongeException("Not a digest index file: " + file);
+        }
+        capacity = existing.getLong(CAPACITY_OFFSET);
+      }
+
+      final MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES);
+      if (created) {
+        header.putLong(0, MAGIC).putInt(8, VERSION).putLong(CAPACITY_OFFSET, capacity);
+      }
+
+      final long slotsPerRegion = Math.min(capacity, 1L << REGION_BITS);
+      final MappedByteBuffer[] regions = new MappedByteBuffer[(int) (capacity / slotsPerRegion)];
+      for (int i = 0; i < regions.length; i++) {
+        regions[i] =
+            channel.map(
+                FileChannel.MapMode.READ_WRITE,
+                HEADER_BYTES + i * slotsPerRegion * SLOT_BYTES,
+                slotsPerRegion * SLOT_BYTES);
+      }
+      return new MappedIndex(file, channel, header, regions, capacity);
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  long size() {
+    return count;
+  }
+
+  /**
+   * Looks up the slot of a digest.
+   *
+   * @param key The digest lanes.
+   * @return the slot number, or -1 if the digest is not in the index.
+   */
+  long find(final long[] key) {
+    for (long slot = key[0] & mask; ; slot = (slot + 1) & mask) {
+      final ByteBuffer region = region(slot);
+      final int position = position(slot);
+      if (region.getInt(position + OCCUPIED_OFFSET) == 0) {
+        return -1;
+      }
+      if (keyEquals(region, position, key)) {
+        return slot;
+      }
+    }
+  }
+
+  int segment(final long slot) {
+    return region(slot).getInt(position(slot) + SEGMENT_OFFSET);
+  }
+
+  int offset(final long slot) {
+    return region(slot).getInt(position(slot) + BLOB_OFFSET_OFFSET);
+  }
+
+  int length(final long slot) {
+    return region(slot).getInt(position(slot) + LENGTH_OFFSET);
+  }
+
+  /**
+   * @return true if one more entry would exceed the load factor of 0.75.
+   */
+  boolean isFull() {
+    return (count + 1) * 4 > capacity * 3;
+  }
+
+  /**
+   * Inserts a digest that is not in the index yet. The caller has checked {@link #isFull()}.
+   */
+  void insert(final long[] key, final int segment, final int offset, final int length) {
+    long slot = key[0] & mask;
+    while (region(slot).getInt(position(slot) + OCCUPIED_OFFSET) != 0) {
+      slot = (slot + 1) & mask;
+    }
+    final ByteBuffer region = region(slot);
+    final int position = position(slot);
+    for (int i = 0; i < OUTPUT_LENGTH_LONGS; i++) {
+      region.putLong(position + i * BYTES_IN_LONG, key[i]);
+    }
+    region
+        .putInt(position + SEGMENT_OFFSET, segment)
+        .putInt(position + BLOB_OFFSET_OFFSET, offset)
+        .putInt(position + LENGTH_OFFSET, length);
+    // a crash before this point leaves the slot empty rather than half written
+    region.putInt(position + OCCUPIED_OFFSET, 1);
+    header.putLong(COUNT_OFFSET, ++count);
+  }
+
+  /**
+   * Rehashes all entries into a new index file of twice the capacity, which then atomically
+   * replaces this one. This index is closed once the grown one is open, so it stays usable if
+   * growing fails.
+   *
+   * @return the grown index.
+   * @throws IOException If the new index cannot be written, moved or opened.
+   */
+  MappedIndex grow() throws IOException {
+    final Path grownFile = file.resolveSibling(file.getFileName() + ".grow");
+    Files.deleteIfExists(grownFile);
+
+    try (final MappedIndex grown = open(grownFile, capacity * 3 / 4)) {
+      final long[] key = new long[OUTPUT_LENGTH_LONGS];
+      for (long slot = 0; slot < capacity; slot++) {
+        final ByteBuffer region = region(slot);
+        final int position = position(slot);
+        if (region.getInt(position + OCCUPIED_OFFSET) != 0) {
+          for (int i = 0; i < OUTPUT_LENGTH_LONGS; i++) {
+            key[i] = region.getLong(position + i * BYTES_IN_LONG);
+          }
+          grown.insert(key, segment(slot), offset(slot), length(slot));
+        }
+      }
+      grown.force();
+    }
+    // the old mapping stays valid when the file is replaced under it
+    Files.move(
+        grownFile, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    final MappedIndex grown = open(file, 0);
+    close();
+    return grown;
+  }
+
+  void force() {
+    for (final MappedByteBuffer region : regions) {
+      region.force();
+    }
+    header.force();
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+
+  private ByteBuffer region(final long slot) {
+    return regions[(int) (slot >>> REGION_BITS)];
+  }
+
+  private static int position(final long slot) {
+    return (int) (slot & ((1L << REGION_BITS) - 1)) * SLOT_BYTES;
+  }
+
+  private static boolean keyEquals(final ByteBuffer region, final int position, final long[] key) {
+    for (int i = 0; i < OUTPUT_LENGTH_LONGS; i++) {
+      if (region.getLong(position + i * BYTES_IN_LONG) != key[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
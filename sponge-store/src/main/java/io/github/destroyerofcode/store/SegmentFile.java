@@ -0,0 +1,106 @@
+package io.github.destroyerofcode.store;
+
+import io.github.destroyerofcode.exception.SpongeException;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * An append-only blob segment backed by a memory-mapped file of fixed size. The header holds the
+ * position up to which blobs have been written, so a reopened segment continues where it stopped.
+ */
+final class SegmentFile implements Closeable {
+
+  private static final int MAGIC = 0x4B435347; // KCSG
+  private static final int VERSION = 1;
+  private static final int POSITION_OFFSET = 8;
+  static final int HEADER_BYTES = 16;
+
+  private final int id;
+  private final FileChannel channel;
+  private final MappedByteBuffer buffer;
+  private int position;
+
+  private SegmentFile(final int id, final FileChannel channel, final MappedByteBuffer buffer) {
+    this.id = id;
+    this.channel = channel;
+    this.buffer = buffer;
+    this.position = (int) buffer.getLong(POSITION_OFFSET);
+  }
+
+  /**
+   * Opens a segment, creating and sizing the file if it does not exist yet.
+   *
+   * @param file The segment file.
+   * @param id The number of the segment.
+   * @param size The size of a newly created segment in bytes. Existing segments keep their size.
+   * @return the mapped segment.
+   * @throws IOException If the file cannot be created or mapped.
+   */
+  static SegmentFile open(final Path file, final int id, final int size) throws IOException {
+    final boolean created = !Files.exists(file);
+    final FileChannel channel =
+        FileChannel.open(
+            file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    try {
+      if (created) {
+        channel.write(ByteBuffer.allocate(1), size - 1L);
+      }
+      final MappedByteBuffer buffer =
+          channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+      if (created) {
+        buffer.putInt(0, MAGIC).putInt(4, VERSION).putLong(POSITION_OFFSET, HEADER_BYTES);
+      } else if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+        throw new SpongeException("Not a blob segment file: " + file);
+      }
+      return new SegmentFile(id, channel, buffer);
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  int id() {
+    return id;
+  }
+
+  int remaining() {
+    return buffer.capacity() - position;
+  }
+
+  /**
+   * Appends a blob after the last written blob. The caller has checked {@link #remaining()}.
+   *
+   * @param blob The blob, from position to limit. The buffer position is not moved.
+   * @return the offset of the blob in the segment.
+   */
+  int append(final ByteBuffer blob) {
+    final int offset = position;
+    buffer.put(offset, blob, blob.position(), blob.remaining());
+    position += blob.remaining();
+    // publish the new end only after the blob bytes are in place
+    buffer.putLong(POSITION_OFFSET, position);
+    return offset;
+  }
+
+  /**
+   * @return a read-only view of a blob in the mapped segment, without copying it.
+   */
+  ByteBuffer slice(final int offset, final int length) {
+    return buffer.slice(offset, length).asReadOnlyBuffer();
+  }
+
+  void force() {
+    buffer.force();
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+}
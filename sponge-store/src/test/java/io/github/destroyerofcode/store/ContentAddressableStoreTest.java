@@ -0,0 +1,138 @@
+package io.github.destroyerofcode.store;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.github.destroyerofcode.api.SpongeHash;
+import io.github.destroyerofcode.keccak1600output256.PermutationImpl;
+import io.github.destroyerofcode.keccak1600output256.SpongeHashKeccak1600Output256Impl;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ContentAddressableStoreTest {
+
+  @TempDir Path directory;
+
+  private SpongeHash<long[]> spongeHash;
+
+  @BeforeEach
+  void setUp() {
+    spongeHash = new SpongeHashKeccak1600Output256Impl(new PermutationImpl());
+  }
+
+  private static byte[] toArray(final ByteBuffer buffer) {
+    final byte[] bytes = new byte[buffer.remaining()];
+    buffer.duplicate().get(bytes);
+    return bytes;
+  }
+
+  @Test
+  @DisplayName("A stored blob should be retrievable by its digest")
+  void testPutAndGet() {
+    // given
+    final byte[] blob = "Hello".getBytes(StandardCharsets.UTF_8);
+
+    try (final ContentAddressableStore store =
+        ContentAddressableStore.open(directory, spongeHash, 1 << 16, 0)) {
+      // when
+      final long[] digest = store.put(blob);
+      final ByteBuffer stored = store.get(digest);
+
+      // then
+      assertAll(
+          () -> assertTrue(store.contains(digest)),
+          () -> assertTrue(stored.isReadOnly()),
+          () -> assertArrayEquals(blob, toArray(stored)),
+          () -> assertNull(store.get(new long[4])));
+    }
+  }
+
+  @Test
+  @DisplayName("Storing the same blob twice should not write it again")
+  void testDuplicatePutIsSkipped() throws Exception {
+    // given
+    final byte[] blob = new byte[1000];
+
+    try (final ContentAddressableStore store =
+        ContentAddressableStore.open(directory, spongeHash, 1 << 16, 0)) {
+      // when
+      final long[] first = store.put(blob);
+      final long[] second = store.put(blob.clone());
+
+      // then
+      assertAll(
+          () -> assertArrayEquals(first, second),
+          () -> assertEquals(1, store.size()),
+          () -> assertFalse(Files.exists(directory.resolve("segment-00001.dat"))));
+    }
+  }
+
+  @Test
+  @DisplayName("A blob followed by zero bytes should be stored apart from the blob")
+  void testZeroExtendedBlobIsDistinct() {
+    // given
+    final byte[] blob = "Hello".getBytes(StandardCharsets.UTF_8);
+    final byte[] extended = Arrays.copyOf(blob, blob.length + 3);
+
+    try (final ContentAddressableStore store =
+        ContentAddressableStore.open(directory, spongeHash, 1 << 16, 0)) {
+      // when
+      final long[] first = store.put(blob);
+      final long[] second = store.put(extended);
+
+      // then
+      assertAll(
+          () -> assertFalse(Arrays.equals(first, second)),
+          () -> assertEquals(2, store.size()),
+          () -> assertArrayEquals(blob, toArray(store.get(first))),
+          () -> assertArrayEquals(extended, toArray(store.get(second))));
+    }
+  }
+
+  @Test
+  @DisplayName("Blobs and index should survive a reopen, growth of the index and segment rolls")
+  void testReopenAfterGrowth() {
+    // given
+    final int blobs = 3000;
+    final long[][] digests = new long[blobs][];
+
+    try (final ContentAddressableStore store =
+        ContentAddressableStore.open(directory, spongeHash, 1 << 12, 0)) {
+      for (int i = 0; i < blobs; i++) {
+        digests[i] = store.put(ByteBuffer.allocate(8).putLong(0, i));
+      }
+    }
+
+    // when
+    try (final ContentAddressableStore store =
+        ContentAddressableStore.open(directory, spongeHash, 1 << 12, 0)) {
+
+      // then
+      assertEquals(blobs, store.size());
+      for (int i = 0; i < blobs; i++) {
+        assertEquals(i, store.get(digests[i]).getLong(0));
+      }
+    }
+  }
+
+  @Test
+  @DisplayName("A blob larger than a segment should be rejected")
+  void testBlobLargerThanSegment() {
+    try (final ContentAddressableStore store =
+        ContentAddressableStore.open(directory, spongeHash, 1 << 10, 0)) {
+      assertThrows(IllegalArgumentException.class, () -> store.put(new byte[1 << 10]));
+    }
+  }
+}
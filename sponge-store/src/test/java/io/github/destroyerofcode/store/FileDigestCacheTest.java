@@ -0,0 +1,176 @@
+package io.github.destroyerofcode.store;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.github.destroyerofcode.api.SpongeHash;
+import io.github.destroyerofcode.exception.SpongeException;
+import io.github.destroyerofcode.keccak1600output256.PermutationImpl;
+import io.github.destroyerofcode.keccak1600output256.SpongeHashKeccak1600Output256Impl;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class FileDigestCacheTest {
+
+  @TempDir Path directory;
+
+  private SpongeHash<long[]> spongeHash;
+
+  @BeforeEach
+  void setUp() {
+    spongeHash = new SpongeHashKeccak1600Output256Impl(new PermutationImpl());
+  }
+
+  private long[] streamHash(final Path file) throws IOException {
+    return spongeHash.hash(new ByteArrayInputStream(Files.readAllBytes(file))).digest();
+  }
+
+  private Path writeFile(final String name, final int size, final int seed) throws IOException {
+    final byte[] content = new byte[size];
+    for (int i = 0; i < size; i++) {
+      content[i] = (byte) (i * seed);
+    }
+    return Files.write(directory.resolve(name), content);
+  }
+
+  private FileDigestCache openCache(final int maxEntries) {
+    return FileDigestCache.open(
+        directory.resolve("digests.cache"), spongeHash, maxEntries, Duration.ofHours(1));
+  }
+
+  @Test
+  @DisplayName("An unchanged file should be hashed once, also after the cache is reopened")
+  void testUnchangedFileIsCached() throws IOException {
+    // given
+    final Path file = writeFile("data.bin", 10_000, 7);
+
+    // when
+    final long[] first;
+    final long[] second;
+    final long[] reopened;
+    final long hitsBeforeReopen;
+    try (final FileDigestCache cache = openCache(64)) {
+      first = cache.digest(file);
+      second = cache.digest(file);
+      hitsBeforeReopen = cache.hits();
+    }
+    try (final FileDigestCache cache = openCache(64)) {
+      reopened = cache.digest(file);
+
+      // then
+      assertAll(
+          () -> assertArrayEquals(streamHash(file), first),
+          () -> assertArrayEquals(first, second),
+          () -> assertArrayEquals(first, reopened),
+          () -> assertEquals(1, hitsBeforeReopen),
+          () -> assertEquals(1, cache.hits()),
+          () -> assertEquals(0, cache.misses()));
+    }
+  }
+
+  @Test
+  @DisplayName("A file changed with the same size should be hashed again")
+  void testChangedFileIsHashedAgain() throws IOException {
+    // given
+    final Path file = writeFile("data.bin", 5_000, 3);
+    final FileTime modified = Files.getLastModifiedTime(file);
+
+    try (final FileDigestCache cache = openCache(64)) {
+      final long[] before = cache.digest(file);
+      cache.flush();
+
+      // when
+      writeFile("data.bin", 5_000, 5);
+      Files.setLastModifiedTime(file, FileTime.from(modified.toInstant().plusSeconds(1)));
+      final long[] after = cache.digest(file);
+
+      // then
+      assertAll(
+          () -> assertArrayEquals(streamHash(file), after),
+          () -> assertFalse(Arrays.equals(before, after)),
+          () -> assertEquals(2, cache.misses()));
+    }
+  }
+
+  @Test
+  @DisplayName("A full cache should evict entries and still return correct digests")
+  void testBoundedCacheEvicts() throws IOException {
+    // given
+    final Path[] files = new Path[40];
+    for (int i = 0; i < files.length; i++) {
+      files[i] = writeFile("file-" + i, 100 + i, i + 1);
+      Files.setLastModifiedTime(files[i], FileTime.from(Instant.ofEpochSecond(1_000_000 + i)));
+    }
+
+    try (final FileDigestCache cache = openCache(8)) {
+      // when
+      for (final Path file : files) {
+        cache.digest(file);
+      }
+      cache.flush();
+      for (final Path file : files) {
+        assertArrayEquals(streamHash(file), cache.digest(file));
+      }
+
+      // then
+      assertAll(
+          () -> assertEquals(80, cache.hits() + cache.misses()),
+          () -> assertTrue(cache.misses() >= 72));
+    }
+  }
+
+  @Test
+  @DisplayName("A cache file with a corrupt capacity or a wrong size should be rejected")
+  void testCorruptHeaderRejected() throws IOException {
+    // given
+    final Path cacheFile = directory.resolve("digests.cache");
+    openCache(64).close();
+    final byte[] original = Files.readAllBytes(cacheFile);
+
+    // when & then
+    try (final FileChannel channel = FileChannel.open(cacheFile, StandardOpenOption.WRITE)) {
+      channel.write(ByteBuffer.allocate(Integer.BYTES).putInt(0, 24), 16);
+    }
+    assertThrows(SpongeException.class, () -> openCache(64));
+
+    Files.write(cacheFile, Arrays.copyOf(original, original.length - 88));
+    assertThrows(SpongeException.class, () -> openCache(64));
+  }
+
+  @Test
+  @DisplayName("A closed cache should reject digests and flushes, and closing again does nothing")
+  void testClosedCacheRejectsCalls() throws IOException {
+    // given
+    final Path file = writeFile("a.bin", 1000, 3);
+    final FileDigestCache cache = openCache(64);
+    cache.digest(file);
+    cache.close();
+
+    // when & then
+    assertAll(
+        () -> assertThrows(IllegalStateException.class, () -> cache.digest(file)),
+        () -> assertThrows(IllegalStateException.class, cache::flush),
+        cache::close);
+    try (final FileDigestCache reopened = openCache(64)) {
+      assertArrayEquals(streamHash(file), reopened.digest(file));
+      assertEquals(1, reopened.hits());
+    }
+  }
+}